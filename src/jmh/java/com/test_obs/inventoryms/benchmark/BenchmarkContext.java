@@ -0,0 +1,36 @@
+package com.test_obs.inventoryms.benchmark;
+
+import com.test_obs.inventoryms.TestObsInventorymsApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Boots the application without a web server against a fresh in-memory H2 database, so every
+ * benchmark trial starts from the same empty state.
+ */
+final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    // Passed as command line arguments so they take precedence over application.properties
+    static ConfigurableApplicationContext start(String... args) {
+        String[] defaults = {
+                "--spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                "--spring.jpa.show-sql=false",
+                "--spring.h2.console.enabled=false",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN"
+        };
+        String[] allArgs = Arrays.copyOf(defaults, defaults.length + args.length);
+        System.arraycopy(args, 0, allArgs, defaults.length, args.length);
+
+        return new SpringApplicationBuilder(TestObsInventorymsApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(allArgs);
+    }
+}
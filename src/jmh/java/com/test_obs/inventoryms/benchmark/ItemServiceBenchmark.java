@@ -0,0 +1,72 @@
+package com.test_obs.inventoryms.benchmark;
+
+import com.test_obs.inventoryms.dto.InventoryDTO;
+import com.test_obs.inventoryms.dto.ItemDTO;
+import com.test_obs.inventoryms.service.InventoryService;
+import com.test_obs.inventoryms.service.ItemService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ItemServiceBenchmark {
+    private static final int ITEMS = 1000;
+    private static final int MOVEMENTS_PER_ITEM = 5;
+
+    private ConfigurableApplicationContext context;
+    private ItemService itemService;
+    private Long itemId;
+
+    // Only the listing depends on the page size, so only it runs once per size
+    @State(Scope.Benchmark)
+    public static class Listing {
+        @Param({"20", "100", "500"})
+        public int pageSize;
+
+        private Pageable page;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            page = PageRequest.of(0, pageSize);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        itemService = context.getBean(ItemService.class);
+        InventoryService inventoryService = context.getBean(InventoryService.class);
+
+        for (int i = 0; i < ITEMS; i++) {
+            ItemDTO item = itemService.saveItem(new ItemDTO(null, "Item " + i, 10.0, null, null));
+            for (int m = 0; m < MOVEMENTS_PER_ITEM; m++) {
+                inventoryService.saveInventory(new InventoryDTO(null, item.getId(), null, 10, "T", null));
+            }
+            itemId = item.getId();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ItemDTO getItemById() {
+        return itemService.getItemById(itemId);
+    }
+
+    @Benchmark
+    public Page<ItemDTO> getAllItems(Listing listing) {
+        return itemService.getAllItems(listing.page);
+    }
+}
@@ -0,0 +1,53 @@
+package com.test_obs.inventoryms.benchmark;
+
+import com.test_obs.inventoryms.dto.InventoryDTO;
+import com.test_obs.inventoryms.dto.ItemDTO;
+import com.test_obs.inventoryms.service.ItemService;
+import com.test_obs.inventoryms.service.LedgerGroupCommitter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ledger inserts per second from many concurrent callers, each row committed on its own
+ * versus rows sharing group commit transactions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(32)
+@Fork(1)
+public class LedgerGroupCommitBenchmark {
+
+    @Param({"false", "true"})
+    public boolean groupCommit;
+
+    private ConfigurableApplicationContext context;
+    private LedgerGroupCommitter ledgerGroupCommitter;
+    private InventoryDTO topUp;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(
+                "--inventory.group-commit.enabled=" + groupCommit,
+                "--inventory.checkpoint.enabled=false");
+        ledgerGroupCommitter = context.getBean(LedgerGroupCommitter.class);
+
+        ItemDTO item = context.getBean(ItemService.class)
+                .saveItem(new ItemDTO(null, "Benchmark Item", 10.0, null, null));
+        topUp = new InventoryDTO(null, item.getId(), null, 1, "T", null);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public InventoryDTO saveInventory() {
+        return ledgerGroupCommitter.saveInventory(topUp);
+    }
+}
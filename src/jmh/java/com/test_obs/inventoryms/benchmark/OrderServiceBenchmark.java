@@ -0,0 +1,49 @@
+package com.test_obs.inventoryms.benchmark;
+
+import com.test_obs.inventoryms.dto.InventoryDTO;
+import com.test_obs.inventoryms.dto.ItemDTO;
+import com.test_obs.inventoryms.dto.OrderDTO;
+import com.test_obs.inventoryms.service.InventoryService;
+import com.test_obs.inventoryms.service.ItemService;
+import com.test_obs.inventoryms.service.OrderService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderServiceBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private OrderDTO order;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        orderService = context.getBean(OrderService.class);
+
+        ItemDTO item = context.getBean(ItemService.class)
+                .saveItem(new ItemDTO(null, "Benchmark Item", 10.0, null, null));
+        // Enough stock that no iteration ever runs out
+        context.getBean(InventoryService.class)
+                .saveInventory(new InventoryDTO(null, item.getId(), null, Integer.MAX_VALUE, "T", null));
+
+        order = new OrderDTO(null, null, item.getId(), null, 1, 10.0, null);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public OrderDTO saveOrder() {
+        return orderService.saveOrder(order);
+    }
+}
@@ -0,0 +1,74 @@
+package com.test_obs.inventoryms.benchmark;
+
+import com.test_obs.inventoryms.dto.ItemDTO;
+import com.test_obs.inventoryms.repository.ItemRepository;
+import com.test_obs.inventoryms.service.ItemService;
+import com.test_obs.inventoryms.service.StockCheckpointService;
+import com.test_obs.inventoryms.service.StockService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of deriving an item's stock from its ledger as the ledger grows, next to the
+ * checkpointed ledger and the materialized balance.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class StockLedgerBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int ledgerRows;
+
+    private ConfigurableApplicationContext context;
+    private ItemRepository itemRepository;
+    private StockService stockService;
+    private StockCheckpointService stockCheckpointService;
+    private Long itemId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("--inventory.checkpoint.enabled=false", "--inventory.checkpoint.lag=0s");
+        itemRepository = context.getBean(ItemRepository.class);
+        stockService = context.getBean(StockService.class);
+        stockCheckpointService = context.getBean(StockCheckpointService.class);
+        itemId = context.getBean(ItemService.class)
+                .saveItem(new ItemDTO(null, "Ledger Item", 10.0, null, null)).getId();
+
+        // Seeding a million rows through JPA would dominate the run, so generate them in SQL.
+        // The database is private to this trial and nothing else writes ledger rows to it.
+        context.getBean(JdbcTemplate.class).update(
+                "INSERT INTO inventory (id, item_id, quantity, type, created_at) " +
+                        "SELECT x, ?, 1, CASE WHEN MOD(x, 4) = 0 THEN 'W' ELSE 'T' END, CURRENT_TIMESTAMP " +
+                        "FROM SYSTEM_RANGE(1, ?)",
+                itemId, ledgerRows);
+        stockService.recalculate(itemId);
+        stockCheckpointService.checkpoint();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Integer findRemainingStockByItemId() {
+        return itemRepository.findRemainingStockByItemId(itemId);
+    }
+
+    @Benchmark
+    public Integer checkpointedLedger() {
+        return stockCheckpointService.ledgerBalance(itemId);
+    }
+
+    @Benchmark
+    public Integer materializedBalance() {
+        return stockService.getRemainingStock(itemId);
+    }
+}
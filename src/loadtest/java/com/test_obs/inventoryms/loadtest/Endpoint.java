@@ -0,0 +1,48 @@
+package com.test_obs.inventoryms.loadtest;
+
+import org.springframework.http.HttpMethod;
+
+/**
+ * The requests the load test can send. Writes use a quantity of one, so seeded stock lasts.
+ */
+enum Endpoint {
+    LIST_ITEMS("list-items", HttpMethod.GET, "/api/items"),
+    GET_ITEM("get-item", HttpMethod.GET, "/api/items/{id}"),
+    PLACE_ORDER("place-order", HttpMethod.POST, "/api/orders"),
+    ADD_INVENTORY("add-inventory", HttpMethod.POST, "/api/inventory");
+
+    final String name;
+    final HttpMethod method;
+    final String path;
+
+    Endpoint(String name, HttpMethod method, String path) {
+        this.name = name;
+        this.method = method;
+        this.path = path;
+    }
+
+    String label() {
+        return method + " " + path;
+    }
+
+    // Request body for the given item, or null for reads
+    String body(long itemId) {
+        switch (this) {
+            case PLACE_ORDER:
+                return "{\"itemId\":" + itemId + ",\"quantity\":1,\"price\":10.0}";
+            case ADD_INVENTORY:
+                return "{\"itemId\":" + itemId + ",\"quantity\":1,\"type\":\"T\"}";
+            default:
+                return null;
+        }
+    }
+
+    static Endpoint byName(String name) {
+        for (Endpoint endpoint : values()) {
+            if (endpoint.name.equals(name)) {
+                return endpoint;
+            }
+        }
+        throw new IllegalArgumentException("Unknown endpoint " + name + ", expected list-items, get-item, place-order or add-inventory");
+    }
+}
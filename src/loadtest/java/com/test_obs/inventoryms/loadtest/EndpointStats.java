@@ -0,0 +1,53 @@
+package com.test_obs.inventoryms.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measured requests of one endpoint. {@code latency} runs from the time the request was due
+ * to be sent, so waiting behind a slow server is counted (coordinated-omission correction);
+ * {@code serviceTime} runs from the time it was actually sent, which is what a closed-loop
+ * client would report.
+ */
+final class EndpointStats {
+    // Anything slower is recorded as this
+    private static final long HIGHEST_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    final Endpoint endpoint;
+    final Histogram latency = new ConcurrentHistogram(HIGHEST_NANOS, 3);
+    final Histogram serviceTime = new ConcurrentHistogram(HIGHEST_NANOS, 3);
+    // Response count per HTTP status; 0 stands for requests that got no response
+    private final Map<Integer, Long> statuses = new TreeMap<>();
+
+    EndpointStats(Endpoint endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    void record(long latencyNanos, long serviceNanos, int status) {
+        latency.recordValue(Math.min(latencyNanos, HIGHEST_NANOS));
+        serviceTime.recordValue(Math.min(serviceNanos, HIGHEST_NANOS));
+        synchronized (statuses) {
+            statuses.merge(status, 1L, Long::sum);
+        }
+    }
+
+    Map<Integer, Long> statuses() {
+        synchronized (statuses) {
+            return new TreeMap<>(statuses);
+        }
+    }
+
+    long errors() {
+        long errors = 0;
+        for (Map.Entry<Integer, Long> status : statuses().entrySet()) {
+            if (status.getKey() < 200 || status.getKey() >= 300) {
+                errors += status.getValue();
+            }
+        }
+        return errors;
+    }
+}
@@ -0,0 +1,131 @@
+package com.test_obs.inventoryms.loadtest;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load: requests are started on a fixed schedule, {@code rate} per second, no
+ * matter how long earlier ones take. When every worker is busy, due requests queue up and the
+ * time spent queued is part of their latency, as it would be for real clients that keep
+ * arriving while the server is slow.
+ */
+final class LoadGenerator {
+    // Time allowed for requests still in flight when the schedule ends
+    private static final long DRAIN_SECONDS = 30;
+
+    private final String baseUrl;
+    private final List<Long> itemIds;
+    private final LoadTestOptions options;
+    private final SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+    private final Map<Endpoint, EndpointStats> stats = new EnumMap<>(Endpoint.class);
+
+    LoadGenerator(String baseUrl, List<Long> itemIds, LoadTestOptions options) {
+        this.baseUrl = baseUrl;
+        this.itemIds = itemIds;
+        this.options = options;
+        for (Endpoint endpoint : options.mix.keySet()) {
+            stats.put(endpoint, new EndpointStats(endpoint));
+        }
+        requestFactory.setConnectTimeout(10_000);
+        requestFactory.setReadTimeout(60_000);
+        // Keep-alive connections the JDK client may pool per host; the default of 5 would reconnect constantly
+        System.setProperty("http.maxConnections", String.valueOf(options.concurrency));
+    }
+
+    LoadReport run() throws InterruptedException {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(options.concurrency, task -> {
+            Thread thread = new Thread(task, "load-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<Endpoint> weighted = weightedEndpoints();
+        Random random = new Random(options.seed);
+
+        long start = System.nanoTime();
+        long measureFrom = start + options.warmup.toNanos();
+        long end = measureFrom + options.duration.toNanos();
+        double intervalNanos = TimeUnit.SECONDS.toNanos(1) / options.rate;
+        for (long i = 0; ; i++) {
+            long due = start + (long) (i * intervalNanos);
+            if (due >= end) {
+                break;
+            }
+            parkUntil(due);
+            Endpoint endpoint = weighted.get(random.nextInt(weighted.size()));
+            long itemId = itemIds.get(random.nextInt(itemIds.size()));
+            boolean measured = due >= measureFrom;
+            workers.execute(() -> send(endpoint, itemId, due, measured));
+        }
+        workers.shutdown();
+        boolean drained = workers.awaitTermination(DRAIN_SECONDS, TimeUnit.SECONDS);
+        if (!drained) {
+            workers.shutdownNow();
+        }
+        return new LoadReport(options, new ArrayList<>(stats.values()), drained);
+    }
+
+    private void send(Endpoint endpoint, long itemId, long due, boolean measured) {
+        long sent = System.nanoTime();
+        int status = call(endpoint, itemId);
+        long done = System.nanoTime();
+        if (measured) {
+            stats.get(endpoint).record(done - due, done - sent, status);
+        }
+    }
+
+    // HTTP status of the response, or 0 when there was none
+    private int call(Endpoint endpoint, long itemId) {
+        try {
+            URI uri = URI.create(baseUrl + endpoint.path.replace("{id}", String.valueOf(itemId)));
+            ClientHttpRequest request = requestFactory.createRequest(uri, endpoint.method);
+            String body = endpoint.body(itemId);
+            if (body != null) {
+                request.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+                request.getBody().write(body.getBytes(StandardCharsets.UTF_8));
+            }
+            try (ClientHttpResponse response = request.execute()) {
+                int status = response.getRawStatusCode();
+                // Read the whole body, error bodies included, so the connection can be reused
+                StreamUtils.drain(response.getBody());
+                return status;
+            }
+        } catch (IOException ex) {
+            return 0;
+        }
+    }
+
+    private List<Endpoint> weightedEndpoints() {
+        List<Endpoint> weighted = new ArrayList<>();
+        options.mix.forEach((endpoint, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                weighted.add(endpoint);
+            }
+        });
+        return weighted;
+    }
+
+    private static void parkUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
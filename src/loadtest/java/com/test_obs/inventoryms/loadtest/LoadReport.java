@@ -0,0 +1,141 @@
+package com.test_obs.inventoryms.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput and latency percentiles per endpoint, plus the whole mix, as JSON for comparing
+ * runs and as a text table for reading.
+ */
+final class LoadReport {
+    private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final LoadTestOptions options;
+    private final List<EndpointStats> endpoints;
+    // False when requests were still in flight after the schedule ended and its grace period
+    private final boolean drained;
+
+    LoadReport(LoadTestOptions options, List<EndpointStats> endpoints, boolean drained) {
+        this.options = options;
+        this.endpoints = endpoints;
+        this.drained = drained;
+    }
+
+    void write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(directory.resolve("report.json").toFile(), toMap());
+        Files.write(directory.resolve("report.txt"), toText().getBytes(StandardCharsets.UTF_8));
+    }
+
+    Map<String, Object> toMap() {
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("items", options.items);
+        settings.put("rowsPerItem", options.rowsPerItem);
+        settings.put("targetRate", options.rate);
+        settings.put("warmup", options.warmup.toString());
+        settings.put("duration", options.duration.toString());
+        settings.put("concurrency", options.concurrency);
+        settings.put("profiles", options.profiles);
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        options.mix.forEach((endpoint, weight) -> mix.put(endpoint.name, weight));
+        settings.put("mix", mix);
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (EndpointStats stats : endpoints) {
+            Map<String, Object> row = summary(stats.latency, stats.serviceTime, stats.errors());
+            row.put("statuses", stats.statuses());
+            Map<String, Object> named = new LinkedHashMap<>();
+            named.put("endpoint", stats.endpoint.label());
+            named.putAll(row);
+            rows.add(named);
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("settings", settings);
+        report.put("drained", drained);
+        report.put("total", summary(total(true), total(false), totalErrors()));
+        report.put("endpoints", rows);
+        return report;
+    }
+
+    String toText() {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format("Target rate %.1f req/s for %s after %s warm-up, %d workers, %d items x %d rows, profiles [%s]%n",
+                options.rate, options.duration, options.warmup, options.concurrency, options.items, options.rowsPerItem,
+                options.profiles));
+        if (!drained) {
+            text.append("WARNING: requests were still in flight when the run was cut off; percentiles are too low\n");
+        }
+        text.append(String.format("%-22s %9s %7s %9s %9s %9s %9s %9s %12s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms", "svc p99 ms"));
+        for (EndpointStats stats : endpoints) {
+            appendRow(text, stats.endpoint.label(), stats.latency, stats.serviceTime, stats.errors());
+        }
+        appendRow(text, "total", total(true), total(false), totalErrors());
+        text.append("Latency is measured from when each request was due; svc p99 from when it was actually sent.\n");
+        return text.toString();
+    }
+
+    private Map<String, Object> summary(Histogram latency, Histogram serviceTime, long errors) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("requests", latency.getTotalCount());
+        summary.put("errors", errors);
+        summary.put("throughput", throughput(latency));
+        summary.put("p50Ms", millis(latency.getValueAtPercentile(50)));
+        summary.put("p99Ms", millis(latency.getValueAtPercentile(99)));
+        summary.put("p999Ms", millis(latency.getValueAtPercentile(99.9)));
+        summary.put("maxMs", millis(latency.getMaxValue()));
+        summary.put("serviceTimeP99Ms", millis(serviceTime.getValueAtPercentile(99)));
+        return summary;
+    }
+
+    private void appendRow(StringBuilder text, String label, Histogram latency, Histogram serviceTime, long errors) {
+        text.append(String.format("%-22s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %12.2f%n",
+                label, latency.getTotalCount(), errors, throughput(latency),
+                millis(latency.getValueAtPercentile(50)), millis(latency.getValueAtPercentile(99)),
+                millis(latency.getValueAtPercentile(99.9)), millis(latency.getMaxValue()),
+                millis(serviceTime.getValueAtPercentile(99))));
+    }
+
+    // Completed requests per second of the measured part of the run
+    private double throughput(Histogram latency) {
+        return latency.getTotalCount() / (options.duration.toNanos() / (double) TimeUnit.SECONDS.toNanos(1));
+    }
+
+    private Histogram total(boolean latency) {
+        Histogram total = null;
+        for (EndpointStats stats : endpoints) {
+            Histogram histogram = latency ? stats.latency : stats.serviceTime;
+            if (total == null) {
+                total = histogram.copy();
+            } else {
+                total.add(histogram);
+            }
+        }
+        return total;
+    }
+
+    private long totalErrors() {
+        long errors = 0;
+        for (EndpointStats stats : endpoints) {
+            errors += stats.errors();
+        }
+        return errors;
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / NANOS_PER_MILLI * 100) / 100.0;
+    }
+}
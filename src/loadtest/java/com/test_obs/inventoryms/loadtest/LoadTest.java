@@ -0,0 +1,81 @@
+package com.test_obs.inventoryms.loadtest;
+
+import com.test_obs.inventoryms.TestObsInventorymsApplication;
+import com.test_obs.inventoryms.dto.InventoryDTO;
+import com.test_obs.inventoryms.dto.ItemDTO;
+import com.test_obs.inventoryms.service.InventoryService;
+import com.test_obs.inventoryms.service.ItemService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Boots the application on a random port against a fresh in-memory H2 database, seeds it, and
+ * drives the HTTP API at a fixed arrival rate. The report is printed and written to
+ * {@code report.json} and {@code report.txt} in the report directory.
+ */
+public final class LoadTest {
+    // Ledger rows saved per transaction while seeding
+    private static final int SEED_BATCH_SIZE = 1000;
+    // Large enough that seeded stock is not used up by the orders of a run
+    private static final int SEED_QUANTITY = 1000;
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        try (ConfigurableApplicationContext context = start(options)) {
+            List<Long> itemIds = seed(context, options);
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+
+            LoadReport report = new LoadGenerator("http://localhost:" + port, itemIds, options).run();
+            System.out.print(report.toText());
+            report.write(options.reportDir);
+            System.out.println("Report written to " + options.reportDir.toAbsolutePath());
+        }
+    }
+
+    // Passed as command line arguments so they take precedence over application.properties
+    private static ConfigurableApplicationContext start(LoadTestOptions options) {
+        List<String> args = new ArrayList<>(Arrays.asList("--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:loadtest-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                "--spring.jpa.show-sql=false",
+                "--spring.h2.console.enabled=false",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--logging.level.org.springframework=WARN"));
+        if (!options.profiles.isEmpty()) {
+            args.add("--spring.profiles.active=" + options.profiles);
+        }
+        return new SpringApplicationBuilder(TestObsInventorymsApplication.class).run(args.toArray(new String[0]));
+    }
+
+    private static List<Long> seed(ConfigurableApplicationContext context, LoadTestOptions options) {
+        ItemService itemService = context.getBean(ItemService.class);
+        InventoryService inventoryService = context.getBean(InventoryService.class);
+
+        List<Long> itemIds = new ArrayList<>(options.items);
+        List<InventoryDTO> rows = new ArrayList<>(SEED_BATCH_SIZE);
+        for (int i = 0; i < options.items; i++) {
+            Long itemId = itemService.saveItem(new ItemDTO(null, "Load item " + i, 10.0, null, null)).getId();
+            itemIds.add(itemId);
+            for (int row = 0; row < options.rowsPerItem; row++) {
+                rows.add(new InventoryDTO(null, itemId, null, SEED_QUANTITY, "T", null));
+                if (rows.size() == SEED_BATCH_SIZE) {
+                    inventoryService.saveInventoryBatch(rows);
+                    rows.clear();
+                }
+            }
+        }
+        if (!rows.isEmpty()) {
+            inventoryService.saveInventoryBatch(rows);
+        }
+        return itemIds;
+    }
+}
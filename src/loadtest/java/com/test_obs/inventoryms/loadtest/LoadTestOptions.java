@@ -0,0 +1,84 @@
+package com.test_obs.inventoryms.loadtest;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Load test settings, read from {@code --name=value} arguments.
+ */
+final class LoadTestOptions {
+    // Items seeded before the run, and ledger rows (top-ups) seeded per item
+    final int items;
+    final int rowsPerItem;
+    // Requests started per second, whatever the response times
+    final double rate;
+    // Load before measuring starts, then the measured part of the run
+    final Duration warmup;
+    final Duration duration;
+    // Relative weights of the endpoints in the mix
+    final Map<Endpoint, Integer> mix;
+    // Requests in flight at most; later arrivals wait for a worker and that wait counts as latency
+    final int concurrency;
+    final Path reportDir;
+    final long seed;
+    // Spring profiles the application is started with, e.g. virtual-threads; empty for none
+    final String profiles;
+
+    private LoadTestOptions(Map<String, String> values) {
+        this.items = Integer.parseInt(values.getOrDefault("items", "100"));
+        this.rowsPerItem = Integer.parseInt(values.getOrDefault("rows-per-item", "20"));
+        this.rate = Double.parseDouble(values.getOrDefault("rate", "200"));
+        this.warmup = Duration.parse(values.getOrDefault("warmup", "PT5S"));
+        this.duration = Duration.parse(values.getOrDefault("duration", "PT30S"));
+        this.mix = parseMix(values.getOrDefault("mix", "list-items:10,get-item:50,place-order:20,add-inventory:20"));
+        this.concurrency = Integer.parseInt(values.getOrDefault("concurrency", "256"));
+        this.reportDir = Paths.get(values.getOrDefault("report-dir", "target/loadtest"));
+        this.seed = Long.parseLong(values.getOrDefault("seed", "42"));
+        this.profiles = values.getOrDefault("profiles", "").trim();
+
+        if (items < 1 || rowsPerItem < 0 || rate <= 0 || concurrency < 1) {
+            throw new IllegalArgumentException("items, rate and concurrency must be positive, rows-per-item not negative");
+        }
+        if (duration.isZero() || duration.isNegative() || warmup.isNegative()) {
+            throw new IllegalArgumentException("duration must be positive and warmup not negative");
+        }
+    }
+
+    static LoadTestOptions parse(String... args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            values.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+        return new LoadTestOptions(values);
+    }
+
+    // name:weight pairs, e.g. get-item:80,place-order:20
+    private static Map<Endpoint, Integer> parseMix(String mix) {
+        Map<Endpoint, Integer> weights = new EnumMap<>(Endpoint.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected endpoint:weight in the mix, got " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight for " + parts[0]);
+            }
+            if (weight > 0) {
+                weights.put(Endpoint.byName(parts[0].trim()), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("The mix has no endpoint with a positive weight");
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,34 @@
+package com.test_obs.inventoryms.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.test_obs.inventoryms.service.ItemCatalog;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Bounded Caffeine caches. Puts and evictions made inside a transaction are applied once it
+ * commits, so a rolled back write never leaves the cache out of step with the database. The
+ * item catalog times its own writes instead, see {@code ItemCatalog}.
+ * Hit, miss and eviction counts are published as the {@code cache.*} meters.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    @Bean
+    public CacheManager cacheManager(InventoryProperties properties) {
+        InventoryProperties.ItemCache itemCache = properties.getItemCache();
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(ItemCatalog.CACHE_NAME);
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(itemCache.getMaximumSize())
+                .expireAfterWrite(itemCache.getTimeToLive())
+                .recordStats());
+        // Items that do not exist are reported as errors, never cached
+        cacheManager.setAllowNullValues(false);
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
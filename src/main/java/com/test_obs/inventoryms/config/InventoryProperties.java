@@ -0,0 +1,166 @@
+package com.test_obs.inventoryms.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Tuning knobs for the inventory service, bound from the {@code inventory.*} properties.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "inventory")
+public class InventoryProperties {
+    private Order order = new Order();
+    private StockEngine stockEngine = new StockEngine();
+    private BulkImport bulkImport = new BulkImport();
+    private Metrics metrics = new Metrics();
+    private Checkpoint checkpoint = new Checkpoint();
+    private ItemCache itemCache = new ItemCache();
+    private Idempotency idempotency = new Idempotency();
+    private Holds holds = new Holds();
+    private GroupCommit groupCommit = new GroupCommit();
+    private VirtualThreads virtualThreads = new VirtualThreads();
+    private Rollups rollups = new Rollups();
+    private SalesReport salesReport = new SalesReport();
+
+    @Data
+    public static class Order {
+        // Number of lock stripes used to serialize stock withdrawals per item inside the JVM
+        private int lockStripes = 1024;
+
+        // How many order numbers are reserved from the database sequence per round trip
+        private int numberBlockSize = 100;
+
+        // Most lines in one batch order request; a batch locks all its items in one transaction
+        private int maxBatchLines = 500;
+    }
+
+    @Data
+    public static class StockEngine {
+        // Serve balance reads from the in-process stock engine instead of the database
+        private boolean enabled = false;
+
+        // Expected number of items, used to size the table up front
+        private int expectedItems = 1024;
+    }
+
+    @Data
+    public static class BulkImport {
+        // Rows resolved, written and committed together; the persistence context is cleared after each chunk
+        private int chunkSize = 1000;
+
+        // Rejected rows echoed back in the import report; the rest are only counted
+        private int maxReportedRejections = 100;
+    }
+
+    @Data
+    public static class Metrics {
+        // Minimum time between two ledger row counts behind the inventory.ledger.rows gauge
+        private Duration ledgerRowsRefresh = Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class Checkpoint {
+        // Run the background ledger checkpoint job; off by default, as stock reads rarely reach the ledger
+        private boolean enabled = false;
+
+        // Delay between two checkpoint runs
+        private Duration interval = Duration.ofMinutes(1);
+
+        // Ledger rows younger than this are left for the next run, so slow transactions can still commit behind the watermark
+        private Duration lag = Duration.ofMinutes(1);
+
+        // Items checkpointed per transaction
+        private int itemChunkSize = 200;
+    }
+
+    @Data
+    public static class ItemCache {
+        // Items kept in the catalog cache before the least recently used ones are evicted
+        private long maximumSize = 10_000;
+
+        // Upper bound on how long a cached item can outlive a change made behind the service's back
+        private Duration timeToLive = Duration.ofMinutes(10);
+    }
+
+    @Data
+    public static class Idempotency {
+        // Completed order responses kept in memory for fast replays; older ones are read back from the database
+        private long maximumSize = 10_000;
+
+        // How long an Idempotency-Key is honoured, in memory and in the database
+        private Duration retention = Duration.ofHours(24);
+
+        // Delay between two purges of expired keys from the database
+        private Duration purgeInterval = Duration.ofHours(1);
+    }
+
+    @Data
+    public static class Holds {
+        // Hold time used when a request does not ask for one
+        private Duration defaultTtl = Duration.ofMinutes(15);
+
+        // Longest hold time a request may ask for
+        private Duration maxTtl = Duration.ofHours(2);
+
+        // Resolution of hold expiry; holds expire up to one tick late
+        private Duration timerTick = Duration.ofSeconds(1);
+
+        // Buckets in the expiry timer wheel; one lap of the wheel is timerTick * wheelSize
+        private int wheelSize = 512;
+
+        // Expired holds released per transaction
+        private int expiryChunkSize = 500;
+    }
+
+    @Data
+    public static class GroupCommit {
+        // Queue single ledger inserts and commit them in shared transactions instead of one commit each
+        private boolean enabled = false;
+
+        // Most rows committed together
+        private int maxBatchSize = 200;
+
+        // How long the writer waits for more rows after the first one of a batch arrives
+        private Duration linger = Duration.ofMillis(5);
+
+        // Rows waiting for the writer; callers block while the queue is full
+        private int queueCapacity = 10_000;
+    }
+
+    @Data
+    public static class VirtualThreads {
+        // Handle requests on virtual threads (Java 21+, see VirtualThreadConfig)
+        private boolean enabled = false;
+    }
+
+    @Data
+    public static class Rollups {
+        // Longest day range a single rollup query may cover
+        private int maxRangeDays = 366;
+
+        // Items whose rollups are rebuilt together in one transaction
+        private int rebuildChunkSize = 200;
+
+        // Chunks rebuilt in parallel, each on its own connection
+        private int rebuildThreads = 4;
+    }
+
+    @Data
+    public static class SalesReport {
+        // Keep order facts in memory and refresh them in the background
+        private boolean enabled = true;
+
+        // Delay between two refreshes of the in-memory order facts
+        private Duration refreshInterval = Duration.ofSeconds(10);
+
+        // Orders younger than this are left for the next refresh, so slow transactions can still commit behind it
+        private Duration lag = Duration.ofSeconds(5);
+
+        // Most time buckets a single report may ask for
+        private int maxBuckets = 10_000;
+    }
+}
@@ -0,0 +1,40 @@
+package com.test_obs.inventoryms.config;
+
+import com.test_obs.inventoryms.repository.InventoryRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the number of ledger rows. Counting is a full scan, so the value is refreshed at
+ * most once per {@code inventory.metrics.ledger-rows-refresh} however often it is scraped.
+ */
+@Component
+@RequiredArgsConstructor
+public class LedgerMetrics implements MeterBinder {
+    private final InventoryRepository inventoryRepository;
+    private final InventoryProperties properties;
+
+    private volatile long ledgerRows;
+    private volatile long refreshedAt = Long.MIN_VALUE;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("inventory.ledger.rows", this, LedgerMetrics::ledgerRows)
+                .description("Rows in the inventory ledger")
+                .strongReference(true)
+                .register(registry);
+    }
+
+    double ledgerRows() {
+        long now = System.nanoTime();
+        if (refreshedAt == Long.MIN_VALUE ||
+                now - refreshedAt >= properties.getMetrics().getLedgerRowsRefresh().toNanos()) {
+            ledgerRows = inventoryRepository.count();
+            refreshedAt = now;
+        }
+        return ledgerRows;
+    }
+}
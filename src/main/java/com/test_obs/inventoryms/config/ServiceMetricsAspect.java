@@ -0,0 +1,64 @@
+package com.test_obs.inventoryms.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Times every public method of the item, inventory and order services, tagged with the
+ * exception it ended with. Runs outside the transaction so commit time is included.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class ServiceMetricsAspect {
+    private final MeterRegistry meterRegistry;
+    // Timers by method, then by exception; built once rather than looked up on every call
+    private final Map<Method, Map<String, Timer>> timers = new ConcurrentHashMap<>();
+
+    @Around("execution(public * com.test_obs.inventoryms.service.ItemService.*(..)) || " +
+            "execution(public * com.test_obs.inventoryms.service.InventoryService.*(..)) || " +
+            "execution(public * com.test_obs.inventoryms.service.OrderService.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String exception = "none";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable ex) {
+            exception = ex.getClass().getSimpleName();
+            throw ex;
+        } finally {
+            sample.stop(timer(((MethodSignature) joinPoint.getSignature()).getMethod(), exception));
+        }
+    }
+
+    private Timer timer(Method method, String exception) {
+        Map<String, Timer> byException = timers.get(method);
+        if (byException == null) {
+            byException = timers.computeIfAbsent(method, m -> new ConcurrentHashMap<>());
+        }
+        Timer timer = byException.get(exception);
+        if (timer == null) {
+            timer = byException.computeIfAbsent(exception, e -> Timer.builder("inventory.service.calls")
+                    .description("Latency of public service methods")
+                    .tag("class", method.getDeclaringClass().getSimpleName())
+                    .tag("method", method.getName())
+                    .tag("exception", e)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+        return timer;
+    }
+}
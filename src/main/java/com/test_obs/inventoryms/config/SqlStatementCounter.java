@@ -0,0 +1,74 @@
+package com.test_obs.inventoryms.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread while a count is open,
+ * and optionally keeps their text. Outside an open count it only does a thread-local lookup.
+ */
+@Component
+public class SqlStatementCounter implements StatementInspector, HibernatePropertiesCustomizer {
+    private static final ThreadLocal<OpenCount> COUNT = new ThreadLocal<>();
+
+    private static final class OpenCount {
+        private int statements;
+        // Only kept when asked for, so counting a request stays allocation-free
+        private List<String> sql;
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+    }
+
+    @Override
+    public String inspect(String sql) {
+        OpenCount count = COUNT.get();
+        if (count != null) {
+            count.statements++;
+            if (count.sql != null) {
+                count.sql.add(sql);
+            }
+        }
+        return sql;
+    }
+
+    public void begin() {
+        COUNT.set(new OpenCount());
+    }
+
+    /**
+     * Like {@link #begin()}, but also keeps the statements for {@link #endRecording()}.
+     */
+    public void beginRecording() {
+        OpenCount count = new OpenCount();
+        count.sql = new ArrayList<>();
+        COUNT.set(count);
+    }
+
+    /**
+     * Closes the count opened by {@link #begin()} and returns the number of statements seen.
+     */
+    public int end() {
+        OpenCount count = COUNT.get();
+        COUNT.remove();
+        return count == null ? 0 : count.statements;
+    }
+
+    /**
+     * Closes the count opened by {@link #beginRecording()} and returns the statements seen, in order.
+     */
+    public List<String> endRecording() {
+        OpenCount count = COUNT.get();
+        COUNT.remove();
+        return count == null || count.sql == null ? Collections.<String>emptyList() : count.sql;
+    }
+}
@@ -0,0 +1,34 @@
+package com.test_obs.inventoryms.controller;
+
+import com.test_obs.inventoryms.dto.DailyRollupDTO;
+import com.test_obs.inventoryms.dto.DailyRollupRebuildDTO;
+import com.test_obs.inventoryms.service.DailyRollupService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/rollups/daily")
+@RequiredArgsConstructor
+public class DailyRollupController {
+    private final DailyRollupService dailyRollupService;
+
+    @GetMapping
+    public ResponseEntity<Page<DailyRollupDTO>> getRollups(
+            @RequestParam(required = false) Long itemId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            Pageable pageable) {
+        return ResponseEntity.ok(dailyRollupService.getRollups(itemId, from, to, pageable));
+    }
+
+    @PostMapping("/rebuild")
+    public ResponseEntity<DailyRollupRebuildDTO> rebuild() {
+        return ResponseEntity.ok(dailyRollupService.rebuild());
+    }
+}
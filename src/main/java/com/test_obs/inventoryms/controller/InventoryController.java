@@ -1,21 +1,36 @@
 package com.test_obs.inventoryms.controller;
 
+import com.test_obs.inventoryms.dto.CursorPage;
 import com.test_obs.inventoryms.dto.InventoryDTO;
+import com.test_obs.inventoryms.dto.InventoryImportResultDTO;
+import com.test_obs.inventoryms.service.InventoryImportService;
 import com.test_obs.inventoryms.service.InventoryService;
+import com.test_obs.inventoryms.service.LedgerGroupCommitter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
 
 @RestController
 @RequestMapping("/api/inventory")
 @RequiredArgsConstructor
 public class InventoryController {
+    private static final int MAX_CURSOR_PAGE_SIZE = 500;
+
     private final InventoryService inventoryService;
+    private final InventoryImportService inventoryImportService;
+    private final LedgerGroupCommitter ledgerGroupCommitter;
 
     @GetMapping("/{id}")
     public ResponseEntity<InventoryDTO> getInventoryById(@PathVariable Long id) {
@@ -29,12 +44,48 @@ public class InventoryController {
         return ResponseEntity.ok(inventory);
     }
 
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPage<InventoryDTO>> getInventoryPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        int pageSize = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+        CursorPage<InventoryDTO> inventory = inventoryService.getInventoryPage(cursor, pageSize, includeTotal);
+        return ResponseEntity.ok(inventory);
+    }
+
+    /**
+     * Streams the ledger as NDJSON, optionally for one item and a {@code [from, to)} time range.
+     */
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportInventory(
+            @RequestParam(required = false) Long itemId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        StreamingResponseBody body = out -> inventoryService.exportInventory(itemId, from, to, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.valueOf("application/x-ndjson"))
+                .body(body);
+    }
+
     @PostMapping
     public ResponseEntity<InventoryDTO> createInventory(@Valid @RequestBody InventoryDTO inventoryDTO) {
-        InventoryDTO createdInventory = inventoryService.saveInventory(inventoryDTO);
+        InventoryDTO createdInventory = ledgerGroupCommitter.saveInventory(inventoryDTO);
         return new ResponseEntity<>(createdInventory, HttpStatus.CREATED);
     }
 
+    /**
+     * Streams a file of top-ups, one {@code itemId,quantity} CSV row or one NDJSON object per line.
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<InventoryImportResultDTO> importInventory(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream body) throws IOException {
+        InventoryImportResultDTO result = inventoryImportService.importTopUps(body,
+                InventoryImportService.Format.of(contentType));
+        return ResponseEntity.ok(result);
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<InventoryDTO> updateInventory(@PathVariable Long id, @Valid @RequestBody InventoryDTO inventoryDTO) {
         InventoryDTO updatedInventory = inventoryService.updateInventory(id, inventoryDTO);
@@ -1,33 +1,49 @@
 package com.test_obs.inventoryms.controller;
 
 import com.test_obs.inventoryms.dto.ItemDTO;
+import com.test_obs.inventoryms.dto.StockAsOfDTO;
 import com.test_obs.inventoryms.service.ItemService;
+import com.test_obs.inventoryms.service.StockBucketService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import javax.validation.Valid;
+import java.time.LocalDateTime;
 
 @RestController
 @RequestMapping("/api/items")
 @RequiredArgsConstructor
 public class ItemController {
     private final ItemService itemService;
+    private final StockBucketService stockBucketService;
 
 
+    // The tag is taken before the body is built, so a concurrent change can only make it older
+    // than the body (costing the client one extra full response), never newer
     @GetMapping("/{id}")
-    public ResponseEntity<ItemDTO> getItemById(@PathVariable Long id) {
+    public ResponseEntity<ItemDTO> getItemById(@PathVariable Long id, WebRequest request) {
+        String eTag = itemService.getItemETag(id);
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
         ItemDTO item = itemService.getItemById(id);
-        return ResponseEntity.ok(item);
+        return ResponseEntity.ok().eTag(eTag).body(item);
     }
 
     @GetMapping
-    public ResponseEntity<Page<ItemDTO>> getAllItems(Pageable pageable) {
+    public ResponseEntity<Page<ItemDTO>> getAllItems(Pageable pageable, WebRequest request) {
+        String eTag = itemService.getItemsETag(pageable);
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
         Page<ItemDTO> items = itemService.getAllItems(pageable);
-        return ResponseEntity.ok(items);
+        return ResponseEntity.ok().eTag(eTag).body(items);
     }
 
     @PostMapping
@@ -42,6 +58,23 @@ public class ItemController {
         return ResponseEntity.ok(updatedItem);
     }
 
+    /**
+     * Ledger stock of the item at {@code asOf}, or now when it is left out.
+     */
+    @GetMapping("/{id}/stock")
+    public ResponseEntity<StockAsOfDTO> getStockAsOf(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf) {
+        StockAsOfDTO stock = stockBucketService.getStockAsOf(id, asOf != null ? asOf : LocalDateTime.now());
+        return ResponseEntity.ok(stock);
+    }
+
+    @PostMapping("/{id}/stock/recalculate")
+    public ResponseEntity<ItemDTO> recalculateStock(@PathVariable Long id) {
+        ItemDTO item = itemService.recalculateStock(id);
+        return ResponseEntity.ok(item);
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteItem(@PathVariable Long id) {
         itemService.deleteItem(id);
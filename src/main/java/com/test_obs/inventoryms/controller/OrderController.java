@@ -1,6 +1,9 @@
 package com.test_obs.inventoryms.controller;
 
+import com.test_obs.inventoryms.dto.CursorPage;
+import com.test_obs.inventoryms.dto.OrderBatchDTO;
 import com.test_obs.inventoryms.dto.OrderDTO;
+import com.test_obs.inventoryms.service.OrderIdempotencyService;
 import com.test_obs.inventoryms.service.OrderService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -15,7 +18,12 @@ import javax.validation.Valid;
 @RequestMapping("/api/orders")
 @RequiredArgsConstructor
 public class OrderController {
+    private static final int MAX_CURSOR_PAGE_SIZE = 500;
+    static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+
     private final OrderService orderService;
+    private final OrderIdempotencyService orderIdempotencyService;
 
     @GetMapping("/{id}")
     public ResponseEntity<OrderDTO> getOrderById(@PathVariable Long id) {
@@ -29,10 +37,33 @@ public class OrderController {
         return ResponseEntity.ok(orders);
     }
 
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPage<OrderDTO>> getOrderPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        int pageSize = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+        CursorPage<OrderDTO> orders = orderService.getOrderPage(cursor, pageSize, includeTotal);
+        return ResponseEntity.ok(orders);
+    }
+
     @PostMapping
-    public ResponseEntity<OrderDTO> createOrder(@Valid @RequestBody OrderDTO orderDTO) {
-        OrderDTO createdOrder = orderService.saveOrder(orderDTO);
-        return new ResponseEntity<>(createdOrder, HttpStatus.CREATED);
+    public ResponseEntity<OrderDTO> createOrder(@Valid @RequestBody OrderDTO orderDTO,
+                                                @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        if (idempotencyKey == null) {
+            OrderDTO createdOrder = orderService.saveOrder(orderDTO);
+            return new ResponseEntity<>(createdOrder, HttpStatus.CREATED);
+        }
+        OrderIdempotencyService.Result result = orderIdempotencyService.saveOrder(idempotencyKey, orderDTO);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .header(IDEMPOTENT_REPLAYED, String.valueOf(result.isReplayed()))
+                .body(result.getOrder());
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<OrderBatchDTO> createOrders(@Valid @RequestBody OrderBatchDTO orderBatchDTO) {
+        OrderBatchDTO createdOrders = new OrderBatchDTO(orderService.saveOrders(orderBatchDTO.getOrders()));
+        return new ResponseEntity<>(createdOrders, HttpStatus.CREATED);
     }
 
     @PutMapping("/{id}")
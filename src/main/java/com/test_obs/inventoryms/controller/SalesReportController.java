@@ -0,0 +1,26 @@
+package com.test_obs.inventoryms.controller;
+
+import com.test_obs.inventoryms.dto.SalesReportDTO;
+import com.test_obs.inventoryms.service.SalesReportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/api/reports")
+@RequiredArgsConstructor
+public class SalesReportController {
+    private final SalesReportService salesReportService;
+
+    @GetMapping("/sales")
+    public ResponseEntity<SalesReportDTO> getSalesReport(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "DAY") SalesReportService.Bucket bucket,
+            @RequestParam(required = false) Long itemId) {
+        return ResponseEntity.ok(salesReportService.getSalesReport(from, to, bucket, itemId));
+    }
+}
@@ -0,0 +1,42 @@
+package com.test_obs.inventoryms.controller;
+
+import com.test_obs.inventoryms.dto.StockAlertDTO;
+import com.test_obs.inventoryms.dto.StockThresholdDTO;
+import com.test_obs.inventoryms.service.StockAlertService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.validation.Valid;
+
+@RestController
+@RequestMapping("/api")
+@RequiredArgsConstructor
+public class StockAlertController {
+    private final StockAlertService stockAlertService;
+
+    @GetMapping("/items/{itemId}/threshold")
+    public ResponseEntity<StockThresholdDTO> getThreshold(@PathVariable Long itemId) {
+        return ResponseEntity.ok(stockAlertService.getThreshold(itemId));
+    }
+
+    @PutMapping("/items/{itemId}/threshold")
+    public ResponseEntity<StockThresholdDTO> setThreshold(@PathVariable Long itemId,
+                                                          @Valid @RequestBody StockThresholdDTO thresholdDTO) {
+        return ResponseEntity.ok(stockAlertService.setThreshold(itemId, thresholdDTO));
+    }
+
+    @DeleteMapping("/items/{itemId}/threshold")
+    public ResponseEntity<Void> deleteThreshold(@PathVariable Long itemId) {
+        stockAlertService.deleteThreshold(itemId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/alerts")
+    public ResponseEntity<Page<StockAlertDTO>> getAlerts(@RequestParam(required = false) Long itemId,
+                                                         Pageable pageable) {
+        return ResponseEntity.ok(stockAlertService.getAlerts(itemId, pageable));
+    }
+}
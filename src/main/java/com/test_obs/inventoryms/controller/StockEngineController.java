@@ -0,0 +1,35 @@
+package com.test_obs.inventoryms.controller;
+
+import com.test_obs.inventoryms.dto.StockEngineConsistencyDTO;
+import com.test_obs.inventoryms.dto.StockEngineStatsDTO;
+import com.test_obs.inventoryms.service.StockEngine;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/stock-engine")
+@RequiredArgsConstructor
+public class StockEngineController {
+    private final StockEngine stockEngine;
+
+    @GetMapping("/stats")
+    public ResponseEntity<StockEngineStatsDTO> getStats() {
+        return ResponseEntity.ok(stockEngine.getStats());
+    }
+
+    @GetMapping("/consistency")
+    public ResponseEntity<StockEngineConsistencyDTO> checkConsistency() {
+        return ResponseEntity.ok(stockEngine.checkConsistency());
+    }
+
+    @PostMapping("/rebuild")
+    public ResponseEntity<StockEngineStatsDTO> rebuild() {
+        if (!stockEngine.isEnabled()) {
+            return new ResponseEntity<>(stockEngine.getStats(), HttpStatus.CONFLICT);
+        }
+        stockEngine.rebuild();
+        return ResponseEntity.ok(stockEngine.getStats());
+    }
+}
@@ -0,0 +1,42 @@
+package com.test_obs.inventoryms.controller;
+
+import com.test_obs.inventoryms.dto.OrderDTO;
+import com.test_obs.inventoryms.dto.StockHoldDTO;
+import com.test_obs.inventoryms.service.StockHoldService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.validation.Valid;
+
+@RestController
+@RequestMapping("/api/holds")
+@RequiredArgsConstructor
+public class StockHoldController {
+    private final StockHoldService stockHoldService;
+
+    @GetMapping("/{id}")
+    public ResponseEntity<StockHoldDTO> getHoldById(@PathVariable Long id) {
+        StockHoldDTO hold = stockHoldService.getHoldById(id);
+        return ResponseEntity.ok(hold);
+    }
+
+    @PostMapping
+    public ResponseEntity<StockHoldDTO> createHold(@Valid @RequestBody StockHoldDTO holdDTO) {
+        StockHoldDTO createdHold = stockHoldService.placeHold(holdDTO);
+        return new ResponseEntity<>(createdHold, HttpStatus.CREATED);
+    }
+
+    @PostMapping("/{id}/confirm")
+    public ResponseEntity<OrderDTO> confirmHold(@PathVariable Long id) {
+        OrderDTO order = stockHoldService.confirmHold(id);
+        return new ResponseEntity<>(order, HttpStatus.CREATED);
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> releaseHold(@PathVariable Long id) {
+        stockHoldService.releaseHold(id);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,38 @@
+package com.test_obs.inventoryms.dto;
+
+import com.test_obs.inventoryms.util.SeekCursor;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * One page of a keyset-paginated listing. {@code nextCursor} is null on the last page, and
+ * {@code totalElements} is only filled in when the client asks for it.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> content;
+    private int size;
+    private String nextCursor;
+    private boolean hasNext;
+    private Long totalElements;
+
+    /**
+     * Builds a page from rows fetched with a limit of {@code size + 1}; the extra row only
+     * tells whether another page follows.
+     */
+    public static <E, T> CursorPage<T> of(List<E> rows, int size, Function<E, SeekCursor> position,
+                                          Function<E, T> mapper, Long totalElements) {
+        boolean hasNext = rows.size() > size;
+        List<E> pageRows = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? position.apply(pageRows.get(pageRows.size() - 1)).encode() : null;
+        List<T> content = pageRows.stream().map(mapper).collect(Collectors.toList());
+        return new CursorPage<>(content, content.size(), nextCursor, hasNext, totalElements);
+    }
+}
@@ -0,0 +1,19 @@
+package com.test_obs.inventoryms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyRollupDTO {
+    private Long itemId;
+    private LocalDate day;
+    private Long topUps;
+    private Long withdrawals;
+    // topUps - withdrawals
+    private Long netChange;
+}
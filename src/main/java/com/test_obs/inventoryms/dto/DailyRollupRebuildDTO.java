@@ -0,0 +1,15 @@
+package com.test_obs.inventoryms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyRollupRebuildDTO {
+    private Integer items;
+    private Integer chunks;
+    private Long rollups;
+    private Long durationMillis;
+}
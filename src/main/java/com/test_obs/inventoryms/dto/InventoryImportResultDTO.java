@@ -0,0 +1,29 @@
+package com.test_obs.inventoryms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryImportResultDTO {
+    private long acceptedRows;
+    private long rejectedRows;
+    private int chunks;
+    private long durationMillis;
+    private double rowsPerSecond;
+    private List<RejectedRow> rejections;
+    private boolean rejectionsTruncated;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RejectedRow {
+        private long line;
+        private String content;
+        private String reason;
+    }
+}
@@ -0,0 +1,17 @@
+package com.test_obs.inventoryms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderBatchDTO {
+    @NotEmpty(message = "At least one order line is required")
+    private List<@Valid OrderDTO> orders;
+}
@@ -0,0 +1,24 @@
+package com.test_obs.inventoryms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesReportDTO {
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private String bucket;
+    // Orders up to this id are included; younger ones show up after the next refresh
+    private Long lastOrderId;
+    private Long orders;
+    private Long quantity;
+    private BigDecimal revenue;
+    private List<SalesReportRowDTO> rows;
+}
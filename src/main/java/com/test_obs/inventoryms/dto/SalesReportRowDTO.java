@@ -0,0 +1,19 @@
+package com.test_obs.inventoryms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesReportRowDTO {
+    private Long itemId;
+    private LocalDateTime bucketStart;
+    private Long orders;
+    private Long quantity;
+    private BigDecimal revenue;
+}
@@ -0,0 +1,19 @@
+package com.test_obs.inventoryms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAlertDTO {
+    private Long id;
+    private Long itemId;
+    private String type;
+    private Integer available;
+    private Integer reorderLevel;
+    private LocalDateTime createdAt;
+}
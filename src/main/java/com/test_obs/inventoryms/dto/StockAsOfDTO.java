@@ -0,0 +1,17 @@
+package com.test_obs.inventoryms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAsOfDTO {
+    private Long itemId;
+    private LocalDateTime asOf;
+    // Ledger stock at asOf, movements created at that instant included
+    private Integer stock;
+}
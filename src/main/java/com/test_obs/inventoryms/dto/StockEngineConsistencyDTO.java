@@ -0,0 +1,27 @@
+package com.test_obs.inventoryms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockEngineConsistencyDTO {
+    private boolean ready;
+    private boolean consistent;
+    private long checkedItems;
+    private long mismatchedItems;
+    private List<Mismatch> mismatches;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Mismatch {
+        private Long itemId;
+        private Integer databaseBalance;
+        private Integer engineBalance;
+    }
+}
@@ -0,0 +1,24 @@
+package com.test_obs.inventoryms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockEngineStatsDTO {
+    private boolean enabled;
+    private boolean ready;
+
+    private int items;
+    private int capacity;
+    private long footprintBytes;
+
+    // What the same entries would cost in a HashMap<Long, Integer>
+    private long boxedMapBytes;
+
+    private int projectedItems;
+    private long projectedFootprintBytes;
+    private long projectedBoxedMapBytes;
+}
@@ -0,0 +1,36 @@
+package com.test_obs.inventoryms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockHoldDTO {
+    private Long id;
+
+    @NotNull(message = "Item ID is required")
+    private Long itemId;
+
+    @NotNull(message = "Quantity is required")
+    @Positive(message = "Quantity must be a positive number")
+    private Integer quantity;
+
+    @NotNull(message = "Price is required")
+    @Positive(message = "Price must be a positive number")
+    private Double price;
+
+    // Requested hold time; the configured default applies when absent
+    @Positive(message = "TTL must be a positive number of seconds")
+    private Long ttlSeconds;
+
+    private String status;
+    private Long orderId;
+    private LocalDateTime expiresAt;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,26 @@
+package com.test_obs.inventoryms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.PositiveOrZero;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockThresholdDTO {
+    private Long itemId;
+
+    @NotNull(message = "Reorder level is required")
+    @PositiveOrZero(message = "Reorder level must not be negative")
+    private Integer reorderLevel;
+
+    // Defaults to one above the reorder level
+    private Integer rearmLevel;
+
+    private Boolean low;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,28 @@
+package com.test_obs.inventoryms.exception;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.List;
+
+@Getter
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class BatchOrderException extends RuntimeException {
+    private final List<LineError> errors;
+
+    public BatchOrderException(String message, List<LineError> errors) {
+        super(message);
+        this.errors = errors;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class LineError {
+        private int line;
+        private Long itemId;
+        private String message;
+    }
+}
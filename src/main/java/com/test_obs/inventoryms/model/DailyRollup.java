@@ -0,0 +1,45 @@
+package com.test_obs.inventoryms.model;
+
+import lombok.*;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import java.time.LocalDate;
+
+/**
+ * One item's ledger movements summed over one day.
+ */
+@Entity
+@Table(name = "stock_daily_rollups", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_stock_daily_rollups_item_id_day", columnNames = {"item_id", "rollup_day"})
+}, indexes = {
+        @Index(name = "idx_stock_daily_rollups_day_item_id", columnList = "rollup_day, item_id")
+})
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_daily_rollups_seq")
+    @SequenceGenerator(name = "stock_daily_rollups_seq", sequenceName = "stock_daily_rollups_seq", allocationSize = 50)
+    private Long id;
+
+    @NotNull
+    @Column(name = "item_id", nullable = false)
+    private Long itemId;
+
+    // DAY is a reserved word in H2
+    @NotNull
+    @Column(name = "rollup_day", nullable = false)
+    private LocalDate day;
+
+    @NotNull
+    @Column(name = "top_ups", nullable = false)
+    private Long topUps;
+
+    @NotNull
+    @Column(nullable = false)
+    private Long withdrawals;
+}
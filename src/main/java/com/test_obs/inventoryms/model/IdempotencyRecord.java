@@ -0,0 +1,49 @@
+package com.test_obs.inventoryms.model;
+
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "idempotency_keys", indexes = {
+        @Index(name = "idx_idempotency_keys_created_at", columnList = "created_at")
+})
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord implements Persistable<String> {
+    @Id
+    @Column(name = "idempotency_key")
+    private String idempotencyKey;
+
+    // Digest of the request the key was first used with, so a reused key with a different body is caught
+    @NotNull
+    @Column(name = "request_hash", nullable = false)
+    private String requestHash;
+
+    // JSON of the response returned to the first request, replayed as is
+    @NotNull
+    @Column(name = "response_body", nullable = false, length = 4000)
+    private String responseBody;
+
+    // Set by the writer; an expired key that is reused gets a fresh record with a new timestamp
+    @NotNull
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Override
+    public String getId() {
+        return idempotencyKey;
+    }
+
+    // Always saved as an INSERT, never merged, so a key recorded concurrently fails on the primary key
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
@@ -8,7 +8,13 @@ import javax.validation.constraints.Positive;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "inventory")
+@Table(name = "inventory", indexes = {
+        // Lets checkpointed stock sums seek straight to an item's rows after a given id
+        @Index(name = "idx_inventory_item_id_id", columnList = "item_id, id"),
+        @Index(name = "idx_inventory_created_at_id", columnList = "created_at, id"),
+        // Point-in-time stock sums the movements of one item inside one hour
+        @Index(name = "idx_inventory_item_id_created_at", columnList = "item_id, created_at")
+})
 @Getter
 @Setter
 @ToString
@@ -16,7 +22,8 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class Inventory {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inventory_seq")
+    @SequenceGenerator(name = "inventory_seq", sequenceName = "inventory_seq", allocationSize = 50) // pooled ids keep inserts batchable
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
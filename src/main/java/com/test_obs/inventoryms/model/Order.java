@@ -8,7 +8,11 @@ import javax.validation.constraints.Positive;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_created_at_id", columnList = "created_at, id"),
+        // An item's orders over a time range, and the lookup behind the item_id foreign key
+        @Index(name = "idx_orders_item_id_created_at", columnList = "item_id, created_at")
+})
 @Getter
 @Setter
 @ToString
@@ -16,13 +20,14 @@ import java.time.LocalDateTime;
 @AllArgsConstructor // Optional, remove if not needed
 public class Order {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "order_no", unique = true)
     private String orderNo; // O1, O2, etc.
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "item_id", nullable = false)
     @NotNull(message = "Item is required")
     private Item item;
@@ -35,7 +40,7 @@ public class Order {
     @Positive(message = "Price must be a positive number")
     private Double price;
 
-    @Column(name = "created_at")
+    @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
 
     @PrePersist
@@ -0,0 +1,56 @@
+package com.test_obs.inventoryms.model;
+
+import lombok.*;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "stock_alerts", indexes = {
+        @Index(name = "idx_stock_alerts_item_id_id", columnList = "item_id, id")
+})
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAlert {
+    public enum Type {
+        // Available stock fell to the reorder level
+        LOW,
+        // Available stock climbed back to the re-arm level
+        RESTOCKED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_alerts_seq")
+    @SequenceGenerator(name = "stock_alerts_seq", sequenceName = "stock_alerts_seq", allocationSize = 50)
+    private Long id;
+
+    @NotNull
+    @Column(name = "item_id", nullable = false)
+    private Long itemId;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Type type;
+
+    // Available stock when the crossing was seen
+    @NotNull
+    @Column(nullable = false)
+    private Integer available;
+
+    @NotNull
+    @Column(name = "reorder_level", nullable = false)
+    private Integer reorderLevel;
+
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
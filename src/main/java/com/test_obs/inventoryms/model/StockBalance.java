@@ -0,0 +1,34 @@
+package com.test_obs.inventoryms.model;
+
+import lombok.*;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+
+@Entity
+@Table(name = "stock_balance")
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockBalance {
+    @Id
+    @Column(name = "item_id")
+    private Long itemId;
+
+    // Running total of the ledger: sum of 'T' quantities minus sum of 'W' quantities
+    @NotNull
+    @Column(nullable = false)
+    private Integer balance;
+
+    // Quantity reserved by active stock holds; available stock is balance - held
+    @NotNull
+    @Column(nullable = false)
+    private Integer held = 0;
+
+    // Bumped on every movement so readers can tell whether the balance changed
+    @NotNull
+    @Column(nullable = false)
+    private Long version;
+}
@@ -0,0 +1,42 @@
+package com.test_obs.inventoryms.model;
+
+import lombok.*;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import java.time.LocalDateTime;
+
+/**
+ * An item's stock at the end of one hour of the ledger. Only hours with movements have a
+ * bucket; the stock at any instant is the closing balance of the last bucket before its hour
+ * plus the movements inside that hour.
+ */
+@Entity
+@Table(name = "stock_buckets", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_stock_buckets_item_id_bucket_start", columnNames = {"item_id", "bucket_start"})
+})
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockBucket {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_buckets_seq")
+    @SequenceGenerator(name = "stock_buckets_seq", sequenceName = "stock_buckets_seq", allocationSize = 50)
+    private Long id;
+
+    @NotNull
+    @Column(name = "item_id", nullable = false)
+    private Long itemId;
+
+    // Start of the hour, inclusive
+    @NotNull
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    // Sum of the item's ledger rows created before the end of the hour
+    @NotNull
+    @Column(name = "closing_balance", nullable = false)
+    private Integer closingBalance;
+}
@@ -0,0 +1,38 @@
+package com.test_obs.inventoryms.model;
+
+import lombok.*;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "stock_checkpoint")
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockCheckpoint {
+    @Id
+    @Column(name = "item_id")
+    private Long itemId;
+
+    // Sum of the item's ledger rows with id <= lastInventoryId
+    @NotNull
+    @Column(nullable = false)
+    private Integer balance;
+
+    @NotNull
+    @Column(name = "last_inventory_id", nullable = false)
+    private Long lastInventoryId;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        updatedAt = LocalDateTime.now();
+    }
+}
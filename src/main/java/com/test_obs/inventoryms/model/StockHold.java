@@ -0,0 +1,64 @@
+package com.test_obs.inventoryms.model;
+
+import lombok.*;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "stock_holds", indexes = {
+        @Index(name = "idx_stock_holds_status", columnList = "status")
+})
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockHold {
+    public enum Status {
+        ACTIVE, CONFIRMED, RELEASED, EXPIRED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_holds_seq")
+    @SequenceGenerator(name = "stock_holds_seq", sequenceName = "stock_holds_seq", allocationSize = 50)
+    private Long id;
+
+    @NotNull
+    @Column(name = "item_id", nullable = false)
+    private Long itemId;
+
+    @NotNull
+    @Positive
+    @Column(nullable = false)
+    private Integer quantity;
+
+    // Price the order is placed at when the hold is confirmed
+    @NotNull
+    @Positive
+    @Column(nullable = false)
+    private Double price;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status;
+
+    @NotNull
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    // Set once the hold is confirmed
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
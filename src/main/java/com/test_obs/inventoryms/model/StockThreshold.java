@@ -0,0 +1,44 @@
+package com.test_obs.inventoryms.model;
+
+import lombok.*;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "stock_thresholds")
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockThreshold {
+    @Id
+    @Column(name = "item_id")
+    private Long itemId;
+
+    // Alert once available stock falls to this level or below
+    @NotNull
+    @Column(name = "reorder_level", nullable = false)
+    private Integer reorderLevel;
+
+    // Available stock needed before the threshold can fire again
+    @NotNull
+    @Column(name = "rearm_level", nullable = false)
+    private Integer rearmLevel;
+
+    // Whether the item is below its reorder level, i.e. the threshold has fired and not re-armed yet
+    @NotNull
+    @Column(nullable = false)
+    private Boolean low;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        updatedAt = LocalDateTime.now();
+    }
+}
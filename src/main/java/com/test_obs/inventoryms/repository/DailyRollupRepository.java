@@ -0,0 +1,28 @@
+package com.test_obs.inventoryms.repository;
+
+import com.test_obs.inventoryms.model.DailyRollup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface DailyRollupRepository extends JpaRepository<DailyRollup, Long> {
+    // May return more rows than asked for when several items and days are passed; callers match them up
+    List<DailyRollup> findByItemIdInAndDayIn(Collection<Long> itemIds, Collection<LocalDate> days);
+
+    @Modifying
+    @Query("DELETE FROM DailyRollup r WHERE r.itemId IN :itemIds")
+    int deleteByItemIdIn(@Param("itemIds") Collection<Long> itemIds);
+
+    Page<DailyRollup> findByDayBetween(LocalDate from, LocalDate to, Pageable pageable);
+
+    Page<DailyRollup> findByItemIdAndDayBetween(Long itemId, LocalDate from, LocalDate to, Pageable pageable);
+}
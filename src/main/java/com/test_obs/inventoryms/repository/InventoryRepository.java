@@ -1,9 +1,94 @@
 package com.test_obs.inventoryms.repository;
 
+import com.test_obs.inventoryms.dto.InventoryDTO;
 import com.test_obs.inventoryms.model.Inventory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
 @Repository
 public interface InventoryRepository extends JpaRepository<Inventory, Long> {
+    // Listing pages are built straight from a join with items, without managing any entity
+    @Query(value = "SELECT new com.test_obs.inventoryms.dto.InventoryDTO(i.id, it.id, it.name, i.quantity, i.type, i.createdAt) " +
+            "FROM Inventory i JOIN i.item it",
+            countQuery = "SELECT COUNT(i) FROM Inventory i")
+    Page<InventoryDTO> findAllProjected(Pageable pageable);
+
+    @Query("SELECT i FROM Inventory i JOIN FETCH i.item ORDER BY i.createdAt, i.id")
+    List<Inventory> findFirstByCreatedAt(Pageable limit);
+
+    // Written as a range plus tie-break so the (created_at, id) index can seek to the cursor
+    @Query("SELECT i FROM Inventory i JOIN FETCH i.item " +
+            "WHERE i.createdAt >= :createdAt AND (i.createdAt > :createdAt OR i.id > :id) " +
+            "ORDER BY i.createdAt, i.id")
+    List<Inventory> findAfterByCreatedAt(@Param("createdAt") LocalDateTime createdAt,
+                                         @Param("id") Long id,
+                                         Pageable limit);
+
+    @Query("SELECT MAX(i.id) FROM Inventory i WHERE i.id > :afterId AND i.createdAt <= :cutoff")
+    Long findMaxIdCreatedBefore(@Param("afterId") Long afterId, @Param("cutoff") LocalDateTime cutoff);
+
+    @Query("SELECT DISTINCT i.item.id FROM Inventory i WHERE i.id > :afterId AND i.id <= :upToId")
+    List<Long> findItemIdsWithMovementsBetween(@Param("afterId") Long afterId, @Param("upToId") Long upToId);
+
+    // Export streams build DTOs straight from the result set, so no entity is ever managed
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.test_obs.inventoryms.dto.InventoryDTO(i.id, it.id, it.name, i.quantity, i.type, i.createdAt) " +
+            "FROM Inventory i JOIN i.item it " +
+            "WHERE i.createdAt >= :from AND i.createdAt < :to ORDER BY i.createdAt, i.id")
+    Stream<InventoryDTO> streamForExport(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.test_obs.inventoryms.dto.InventoryDTO(i.id, it.id, it.name, i.quantity, i.type, i.createdAt) " +
+            "FROM Inventory i JOIN i.item it " +
+            "WHERE it.id = :itemId AND i.createdAt >= :from AND i.createdAt < :to ORDER BY i.id")
+    Stream<InventoryDTO> streamForExportByItem(@Param("itemId") Long itemId,
+                                               @Param("from") LocalDateTime from,
+                                               @Param("to") LocalDateTime to);
+
+    // Every movement in bucket order, for rebuilding stock buckets without managing entities
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT i.item.id AS itemId, i.createdAt AS createdAt, i.quantity AS quantity, i.type AS type " +
+            "FROM Inventory i ORDER BY i.item.id, i.createdAt")
+    Stream<LedgerMovement> streamMovements();
+
+    // Daily totals straight from the ledger, for rebuilding rollups
+    @Query("SELECT i.item.id AS itemId, CAST(i.createdAt AS date) AS day, " +
+            "SUM(CASE WHEN i.type = 'T' THEN i.quantity ELSE 0 END) AS topUps, " +
+            "SUM(CASE WHEN i.type = 'T' THEN 0 ELSE i.quantity END) AS withdrawals " +
+            "FROM Inventory i WHERE i.item.id IN :itemIds GROUP BY i.item.id, CAST(i.createdAt AS date)")
+    List<DailyTotals> sumDailyByItemIdIn(@Param("itemIds") Collection<Long> itemIds);
+
+    interface DailyTotals {
+        Long getItemId();
+
+        LocalDate getDay();
+
+        Long getTopUps();
+
+        Long getWithdrawals();
+    }
+
+    interface LedgerMovement {
+        Long getItemId();
+
+        LocalDateTime getCreatedAt();
+
+        Integer getQuantity();
+
+        String getType();
+    }
 }
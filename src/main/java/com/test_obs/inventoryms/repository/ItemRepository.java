@@ -6,9 +6,47 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Long> {
     @Query("SELECT COALESCE(SUM(CASE WHEN i.type = 'T' THEN i.quantity ELSE -i.quantity END), 0) " +
             "FROM Inventory i WHERE i.item.id = :itemId")
     Integer findRemainingStockByItemId(@Param("itemId") Long itemId);
+
+    @Query("SELECT i.item.id AS itemId, " +
+            "COALESCE(SUM(CASE WHEN i.type = 'T' THEN i.quantity ELSE -i.quantity END), 0) AS remainingStock " +
+            "FROM Inventory i WHERE i.item.id IN :itemIds GROUP BY i.item.id")
+    List<ItemStock> findRemainingStockByItemIds(@Param("itemIds") Collection<Long> itemIds);
+
+    @Query("SELECT COALESCE(SUM(CASE WHEN i.type = 'T' THEN i.quantity ELSE -i.quantity END), 0) " +
+            "FROM Inventory i WHERE i.item.id = :itemId AND i.id > :afterId AND i.id <= :upToId")
+    Integer findRemainingStockByItemIdBetween(@Param("itemId") Long itemId,
+                                              @Param("afterId") Long afterId,
+                                              @Param("upToId") Long upToId);
+
+    @Query("SELECT i.item.id AS itemId, " +
+            "COALESCE(SUM(CASE WHEN i.type = 'T' THEN i.quantity ELSE -i.quantity END), 0) AS remainingStock " +
+            "FROM Inventory i WHERE i.item.id IN :itemIds AND i.id > :afterId AND i.id <= :upToId " +
+            "GROUP BY i.item.id")
+    List<ItemStock> findRemainingStockByItemIdsBetween(@Param("itemIds") Collection<Long> itemIds,
+                                                       @Param("afterId") Long afterId,
+                                                       @Param("upToId") Long upToId);
+
+    @Query("SELECT COALESCE(SUM(CASE WHEN i.type = 'T' THEN i.quantity ELSE -i.quantity END), 0) " +
+            "FROM Inventory i WHERE i.item.id = :itemId AND i.createdAt >= :from AND i.createdAt <= :upTo")
+    Integer findRemainingStockByItemIdCreatedBetween(@Param("itemId") Long itemId,
+                                                     @Param("from") LocalDateTime from,
+                                                     @Param("upTo") LocalDateTime upTo);
+
+    @Query("SELECT i.id FROM Item i ORDER BY i.id")
+    List<Long> findAllIds();
+
+    interface ItemStock {
+        Long getItemId();
+
+        Long getRemainingStock();
+    }
 }
@@ -1,12 +1,61 @@
 package com.test_obs.inventoryms.repository;
 
+import com.test_obs.inventoryms.dto.OrderDTO;
 import com.test_obs.inventoryms.model.Order;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
-    @Query("SELECT COUNT(o) FROM Order o")
-    Long countOrders();
+    @Query(value = "SELECT new com.test_obs.inventoryms.dto.OrderDTO(o.id, o.orderNo, it.id, it.name, o.quantity, o.price, o.createdAt) " +
+            "FROM Order o JOIN o.item it",
+            countQuery = "SELECT COUNT(o) FROM Order o")
+    Page<OrderDTO> findAllProjected(Pageable pageable);
+
+    @Query("SELECT o FROM Order o JOIN FETCH o.item ORDER BY o.createdAt, o.id")
+    List<Order> findFirstByCreatedAt(Pageable limit);
+
+    @Query("SELECT o FROM Order o JOIN FETCH o.item " +
+            "WHERE o.createdAt >= :createdAt AND (o.createdAt > :createdAt OR o.id > :id) " +
+            "ORDER BY o.createdAt, o.id")
+    List<Order> findAfterByCreatedAt(@Param("createdAt") LocalDateTime createdAt,
+                                     @Param("id") Long id,
+                                     Pageable limit);
+
+    @Query("SELECT MAX(o.id) FROM Order o WHERE o.id > :afterId AND o.createdAt <= :cutoff")
+    Long findMaxIdCreatedBefore(@Param("afterId") Long afterId, @Param("cutoff") LocalDateTime cutoff);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT o.id AS id, o.item.id AS itemId, o.createdAt AS createdAt, o.quantity AS quantity, o.price AS price " +
+            "FROM Order o WHERE o.id > :afterId AND o.id <= :upToId ORDER BY o.id")
+    Stream<OrderFact> streamFactsBetween(@Param("afterId") Long afterId, @Param("upToId") Long upToId);
+
+    @Query("SELECT o.id AS id, o.item.id AS itemId, o.createdAt AS createdAt, o.quantity AS quantity, o.price AS price " +
+            "FROM Order o WHERE o.id IN :ids")
+    List<OrderFact> findFactsByIdIn(@Param("ids") Collection<Long> ids);
+
+    interface OrderFact {
+        Long getId();
+
+        Long getItemId();
+
+        LocalDateTime getCreatedAt();
+
+        Integer getQuantity();
+
+        Double getPrice();
+    }
 }
@@ -0,0 +1,87 @@
+package com.test_obs.inventoryms.repository;
+
+import com.test_obs.inventoryms.model.StockBalance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
+@Repository
+public interface StockBalanceRepository extends JpaRepository<StockBalance, Long> {
+    @Query("SELECT s.balance - s.held FROM StockBalance s WHERE s.itemId = :itemId")
+    Integer findAvailableByItemId(@Param("itemId") Long itemId);
+
+    @Query("SELECT s.held FROM StockBalance s WHERE s.itemId = :itemId")
+    Integer findHeldByItemId(@Param("itemId") Long itemId);
+
+    List<StockBalance> findByItemIdIn(Collection<Long> itemIds);
+
+    // Holds off ledger writers for these items until the caller's transaction ends
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM StockBalance s WHERE s.itemId IN :itemIds")
+    List<StockBalance> findByItemIdInForUpdate(@Param("itemIds") Collection<Long> itemIds);
+
+    @Query("SELECT s.version FROM StockBalance s WHERE s.itemId = :itemId")
+    Long findVersionByItemId(@Param("itemId") Long itemId);
+
+    @Query("SELECT s.itemId AS itemId, s.version AS version FROM StockBalance s WHERE s.itemId IN :itemIds")
+    List<ItemVersion> findVersionsByItemIdIn(@Param("itemIds") Collection<Long> itemIds);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    // Balances as seen by readers, i.e. net of held stock
+    @Query("SELECT s.itemId AS itemId, s.balance - s.held AS balance FROM StockBalance s")
+    Stream<ItemBalance> streamAllBalances();
+
+    interface ItemBalance {
+        Long getItemId();
+
+        Integer getBalance();
+    }
+
+    interface ItemVersion {
+        Long getItemId();
+
+        Long getVersion();
+    }
+
+    @Modifying
+    @Query("UPDATE StockBalance s SET s.balance = s.balance + :delta, s.version = s.version + 1 " +
+            "WHERE s.itemId = :itemId")
+    int adjustBalance(@Param("itemId") Long itemId, @Param("delta") Integer delta);
+
+    @Modifying
+    @Query("UPDATE StockBalance s SET s.balance = s.balance - :quantity, s.version = s.version + 1 " +
+            "WHERE s.itemId = :itemId AND s.balance - s.held >= :quantity")
+    int withdrawIfAvailable(@Param("itemId") Long itemId, @Param("quantity") Integer quantity);
+
+    @Modifying
+    @Query("UPDATE StockBalance s SET s.held = s.held + :quantity, s.version = s.version + 1 " +
+            "WHERE s.itemId = :itemId AND s.balance - s.held >= :quantity")
+    int holdIfAvailable(@Param("itemId") Long itemId, @Param("quantity") Integer quantity);
+
+    @Modifying
+    @Query("UPDATE StockBalance s SET s.held = s.held - :quantity, s.version = s.version + 1 " +
+            "WHERE s.itemId = :itemId")
+    int releaseHeld(@Param("itemId") Long itemId, @Param("quantity") Integer quantity);
+
+    // Turns held stock into a withdrawal: both the balance and the held quantity go down
+    @Modifying
+    @Query("UPDATE StockBalance s SET s.balance = s.balance - :quantity, s.held = s.held - :quantity, " +
+            "s.version = s.version + 1 WHERE s.itemId = :itemId")
+    int consumeHeld(@Param("itemId") Long itemId, @Param("quantity") Integer quantity);
+
+    @Modifying
+    @Query("UPDATE StockBalance s SET s.balance = :balance, s.version = s.version + 1 WHERE s.itemId = :itemId")
+    int overwriteBalance(@Param("itemId") Long itemId, @Param("balance") Integer balance);
+}
@@ -0,0 +1,32 @@
+package com.test_obs.inventoryms.repository;
+
+import com.test_obs.inventoryms.model.StockBucket;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface StockBucketRepository extends JpaRepository<StockBucket, Long> {
+    boolean existsByItemIdAndBucketStart(Long itemId, LocalDateTime bucketStart);
+
+    // Scalar on purpose: a managed bucket could be stale after shiftFrom
+    @Query("SELECT b.closingBalance FROM StockBucket b " +
+            "WHERE b.itemId = :itemId AND b.bucketStart < :before ORDER BY b.bucketStart DESC")
+    List<Integer> findClosingBalancesBefore(@Param("itemId") Long itemId,
+                                            @Param("before") LocalDateTime before,
+                                            Pageable limit);
+
+    // Moves the bucket at bucketStart, and every later one, by delta
+    @Modifying
+    @Query("UPDATE StockBucket b SET b.closingBalance = b.closingBalance + :delta " +
+            "WHERE b.itemId = :itemId AND b.bucketStart >= :bucketStart")
+    int shiftFrom(@Param("itemId") Long itemId,
+                  @Param("bucketStart") LocalDateTime bucketStart,
+                  @Param("delta") int delta);
+}
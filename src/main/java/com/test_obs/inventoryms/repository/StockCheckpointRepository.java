@@ -0,0 +1,12 @@
+package com.test_obs.inventoryms.repository;
+
+import com.test_obs.inventoryms.model.StockCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface StockCheckpointRepository extends JpaRepository<StockCheckpoint, Long> {
+    @Query("SELECT MAX(c.lastInventoryId) FROM StockCheckpoint c")
+    Long findMaxLastInventoryId();
+}
@@ -0,0 +1,46 @@
+package com.test_obs.inventoryms.repository;
+
+import com.test_obs.inventoryms.model.StockHold;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
+@Repository
+public interface StockHoldRepository extends JpaRepository<StockHold, Long> {
+    @Query("SELECT h.itemId FROM StockHold h WHERE h.id = :id")
+    Optional<Long> findItemIdById(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT h FROM StockHold h WHERE h.id = :id")
+    Optional<StockHold> findByIdForUpdate(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT h FROM StockHold h WHERE h.id IN :ids AND h.status = 'ACTIVE'")
+    List<StockHold> findActiveByIdInForUpdate(@Param("ids") Collection<Long> ids);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT h.id AS id, h.itemId AS itemId, h.expiresAt AS expiresAt FROM StockHold h " +
+            "WHERE h.status = 'ACTIVE'")
+    Stream<ActiveHold> streamActiveHolds();
+
+    interface ActiveHold {
+        Long getId();
+
+        Long getItemId();
+
+        LocalDateTime getExpiresAt();
+    }
+}
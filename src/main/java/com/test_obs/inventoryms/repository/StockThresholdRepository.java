@@ -0,0 +1,22 @@
+package com.test_obs.inventoryms.repository;
+
+import com.test_obs.inventoryms.model.StockThreshold;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.LockModeType;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface StockThresholdRepository extends JpaRepository<StockThreshold, Long> {
+    @Query("SELECT t.itemId FROM StockThreshold t")
+    List<Long> findAllItemIds();
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM StockThreshold t WHERE t.itemId = :itemId")
+    Optional<StockThreshold> findByIdForUpdate(@Param("itemId") Long itemId);
+}
@@ -0,0 +1,231 @@
+package com.test_obs.inventoryms.service;
+
+import com.test_obs.inventoryms.config.InventoryProperties;
+import com.test_obs.inventoryms.dto.DailyRollupDTO;
+import com.test_obs.inventoryms.dto.DailyRollupRebuildDTO;
+import com.test_obs.inventoryms.exception.InvalidDateRangeException;
+import com.test_obs.inventoryms.model.DailyRollup;
+import com.test_obs.inventoryms.model.Inventory;
+import com.test_obs.inventoryms.repository.DailyRollupRepository;
+import com.test_obs.inventoryms.repository.InventoryRepository;
+import com.test_obs.inventoryms.repository.ItemRepository;
+import com.test_obs.inventoryms.repository.StockBalanceRepository;
+import lombok.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-item daily totals of the ledger: top-ups, withdrawals and the net change, one row per
+ * item and day with movements. Range queries for dashboards read only these rows and never
+ * touch the ledger.
+ * <p>
+ * Like the hourly stock buckets, rollups are maintained by the ledger writers in the same
+ * transaction as the rows they write, after the item's stock balance has been updated, so the
+ * balance row lock orders concurrent rollup updates for one item. Edited and deleted
+ * movements are applied as corrections to the day they were created on.
+ */
+@Service
+public class DailyRollupService {
+    private final DailyRollupRepository dailyRollupRepository;
+    private final InventoryRepository inventoryRepository;
+    private final ItemRepository itemRepository;
+    private final StockBalanceRepository stockBalanceRepository;
+    private final ItemCatalog itemCatalog;
+    private final InventoryProperties.Rollups settings;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+
+    public DailyRollupService(DailyRollupRepository dailyRollupRepository,
+                              InventoryRepository inventoryRepository,
+                              ItemRepository itemRepository,
+                              StockBalanceRepository stockBalanceRepository,
+                              ItemCatalog itemCatalog,
+                              InventoryProperties properties,
+                              PlatformTransactionManager transactionManager,
+                              EntityManager entityManager) {
+        this.dailyRollupRepository = dailyRollupRepository;
+        this.inventoryRepository = inventoryRepository;
+        this.itemRepository = itemRepository;
+        this.stockBalanceRepository = stockBalanceRepository;
+        this.itemCatalog = itemCatalog;
+        this.settings = properties.getRollups();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Rollups of days in {@code [from, to]}, ordered by day, for one item or for all items.
+     * Days without movements have no row.
+     */
+    @Transactional(readOnly = true)
+    public Page<DailyRollupDTO> getRollups(Long itemId, LocalDate from, LocalDate to, Pageable pageable) {
+        if (to.isBefore(from)) {
+            throw new InvalidDateRangeException("Range end " + to + " is before its start " + from);
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= settings.getMaxRangeDays()) {
+            throw new InvalidDateRangeException("Range covers more than " + settings.getMaxRangeDays() + " days");
+        }
+        Pageable byDay = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by("day", "itemId"));
+        Page<DailyRollup> rollups;
+        if (itemId != null) {
+            itemCatalog.getItem(itemId);
+            rollups = dailyRollupRepository.findByItemIdAndDayBetween(itemId, from, to, byDay);
+        } else {
+            rollups = dailyRollupRepository.findByDayBetween(from, to, byDay);
+        }
+        return rollups.map(this::convertToDTO);
+    }
+
+    /**
+     * Adds newly persisted ledger rows to their days. The rollups touched are read with one
+     * query and written back as one JDBC batch, whatever the number of rows.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Collection<Inventory> inventories) {
+        Map<RollupKey, long[]> totals = new LinkedHashMap<>();
+        for (Inventory inventory : inventories) {
+            long[] dayTotals = totals.computeIfAbsent(
+                    new RollupKey(inventory.getItem().getId(), inventory.getCreatedAt().toLocalDate()), key -> new long[2]);
+            dayTotals["T".equals(inventory.getType()) ? 0 : 1] += inventory.getQuantity();
+        }
+        apply(totals);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Inventory inventory) {
+        record(Collections.singletonList(inventory));
+    }
+
+    /**
+     * Applies a change of {@code quantity} to a movement of {@code type} created at
+     * {@code createdAt}; a negative quantity takes a removed or edited movement back out.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCorrection(Long itemId, LocalDateTime createdAt, String type, int quantity) {
+        long[] dayTotals = new long[2];
+        dayTotals["T".equals(type) ? 0 : 1] = quantity;
+        apply(Collections.singletonMap(new RollupKey(itemId, createdAt.toLocalDate()), dayTotals));
+    }
+
+    /**
+     * Recomputes every rollup from the ledger. Items are split into chunks that are rebuilt in
+     * parallel, each in its own transaction: a chunk locks its items' stock balances, which
+     * keeps ledger writers for those items waiting, drops their rollups and regroups their
+     * movements by day. Writes to other items carry on meanwhile.
+     */
+    public DailyRollupRebuildDTO rebuild() {
+        long started = System.nanoTime();
+        List<Long> itemIds = itemRepository.findAllIds();
+        int chunkSize = settings.getRebuildChunkSize();
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < itemIds.size(); from += chunkSize) {
+            chunks.add(itemIds.subList(from, Math.min(from + chunkSize, itemIds.size())));
+        }
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(Math.max(1, settings.getRebuildThreads()), task -> {
+            Thread thread = new Thread(task, "rollup-rebuild-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        long written = 0;
+        try {
+            List<CompletableFuture<Integer>> results = new ArrayList<>(chunks.size());
+            for (List<Long> chunk : chunks) {
+                results.add(CompletableFuture.supplyAsync(
+                        () -> transactionTemplate.execute(status -> rebuildChunk(chunk)), workers));
+            }
+            for (CompletableFuture<Integer> result : results) {
+                written += result.join();
+            }
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw ex;
+        } finally {
+            workers.shutdown();
+        }
+        return new DailyRollupRebuildDTO(itemIds.size(), chunks.size(), written,
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private int rebuildChunk(List<Long> itemIds) {
+        stockBalanceRepository.findByItemIdInForUpdate(itemIds);
+        dailyRollupRepository.deleteByItemIdIn(itemIds);
+        List<InventoryRepository.DailyTotals> days = inventoryRepository.sumDailyByItemIdIn(itemIds);
+        for (InventoryRepository.DailyTotals day : days) {
+            entityManager.persist(new DailyRollup(null, day.getItemId(), day.getDay(), day.getTopUps(), day.getWithdrawals()));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return days.size();
+    }
+
+    // Rollups are updated through the persistence context, so changes made earlier in the
+    // same transaction are seen and the flush batches the writes
+    private void apply(Map<RollupKey, long[]> totals) {
+        Set<Long> itemIds = new HashSet<>();
+        Set<LocalDate> days = new HashSet<>();
+        totals.keySet().forEach(key -> {
+            itemIds.add(key.getItemId());
+            days.add(key.getDay());
+        });
+        Map<RollupKey, DailyRollup> existing = new HashMap<>();
+        for (DailyRollup rollup : dailyRollupRepository.findByItemIdInAndDayIn(itemIds, days)) {
+            existing.put(new RollupKey(rollup.getItemId(), rollup.getDay()), rollup);
+        }
+
+        totals.forEach((key, dayTotals) -> {
+            DailyRollup rollup = existing.get(key);
+            if (rollup == null) {
+                dailyRollupRepository.save(new DailyRollup(null, key.getItemId(), key.getDay(), dayTotals[0], dayTotals[1]));
+            } else {
+                rollup.setTopUps(rollup.getTopUps() + dayTotals[0]);
+                rollup.setWithdrawals(rollup.getWithdrawals() + dayTotals[1]);
+            }
+        });
+    }
+
+    private DailyRollupDTO convertToDTO(DailyRollup rollup) {
+        DailyRollupDTO dto = new DailyRollupDTO();
+        dto.setItemId(rollup.getItemId());
+        dto.setDay(rollup.getDay());
+        dto.setTopUps(rollup.getTopUps());
+        dto.setWithdrawals(rollup.getWithdrawals());
+        dto.setNetChange(rollup.getTopUps() - rollup.getWithdrawals());
+        return dto;
+    }
+
+    @Value
+    private static class RollupKey {
+        Long itemId;
+        LocalDate day;
+    }
+}
@@ -0,0 +1,255 @@
+package com.test_obs.inventoryms.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.test_obs.inventoryms.config.InventoryProperties;
+import com.test_obs.inventoryms.dto.InventoryImportResultDTO;
+import com.test_obs.inventoryms.model.Inventory;
+import com.test_obs.inventoryms.model.Item;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Imports warehouse receipts, i.e. files of top-up movements, without holding the file or the
+ * written rows in memory.
+ * <p>
+ * The body is read line by line and cut into chunks. Each chunk resolves its items with one
+ * query, adjusts the stock balances, persists its rows as JDBC batches and commits on its own,
+ * after which the persistence context is cleared. A chunk that fails to commit is reported as
+ * rejected; chunks committed before it stay in place.
+ */
+@Service
+@RequiredArgsConstructor
+public class InventoryImportService {
+    private static final MediaType APPLICATION_NDJSON = MediaType.valueOf("application/x-ndjson");
+    private static final String CSV_HEADER = "itemId,quantity";
+    private static final int MAX_REPORTED_CONTENT_LENGTH = 200;
+
+    private final ItemCatalog itemCatalog;
+    private final StockService stockService;
+    private final StripedItemLock itemLock;
+    private final StockBucketService stockBucketService;
+    private final DailyRollupService dailyRollupService;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+    private final InventoryProperties properties;
+
+    public enum Format {
+        CSV, NDJSON;
+
+        public static Format of(MediaType contentType) {
+            return APPLICATION_NDJSON.isCompatibleWith(contentType) ? NDJSON : CSV;
+        }
+    }
+
+    public InventoryImportResultDTO importTopUps(InputStream body, Format format) throws IOException {
+        long started = System.nanoTime();
+        int chunkSize = properties.getBulkImport().getChunkSize();
+        ImportReport report = new ImportReport(properties.getBulkImport().getMaxReportedRejections());
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        List<ImportRow> chunk = new ArrayList<>(chunkSize);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            String content;
+            long line = 0;
+            while ((content = reader.readLine()) != null) {
+                line++;
+                if (content.trim().isEmpty() || (line == 1 && format == Format.CSV && isCsvHeader(content))) {
+                    continue;
+                }
+                try {
+                    chunk.add(parse(line, content, format));
+                } catch (IllegalArgumentException ex) {
+                    report.reject(line, content, ex.getMessage());
+                }
+                if (chunk.size() == chunkSize) {
+                    writeChunk(transactionTemplate, chunk, report);
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(transactionTemplate, chunk, report);
+        }
+
+        return report.toResult(System.nanoTime() - started);
+    }
+
+    private void writeChunk(TransactionTemplate transactionTemplate, List<ImportRow> rows, ImportReport report) {
+        List<ImportRow> unknownItems = new ArrayList<>();
+        try {
+            int written = transactionTemplate.execute(status -> {
+                Set<Long> itemIds = rows.stream().map(ImportRow::getItemId).collect(Collectors.toSet());
+                Map<Long, Item> items = itemCatalog.getItems(itemIds);
+
+                // Sorted, so balances are updated in item id order like the stripes are locked
+                Map<Long, Integer> deltas = new TreeMap<>();
+                List<Inventory> topUps = new ArrayList<>(rows.size());
+                for (ImportRow row : rows) {
+                    Item item = items.get(row.getItemId());
+                    if (item == null) {
+                        unknownItems.add(row);
+                        continue;
+                    }
+                    deltas.merge(item.getId(), row.getQuantity(), Integer::sum);
+
+                    Inventory topUp = new Inventory();
+                    topUp.setItem(item);
+                    topUp.setQuantity(row.getQuantity());
+                    topUp.setType("T");
+                    topUps.add(topUp);
+                }
+
+                // Balances before ledger rows, one adjustment per item rather than per row
+                itemLock.lockUntilCompletion(deltas.keySet().toArray(new Long[0]));
+                deltas.forEach(stockService::adjust);
+                for (Inventory topUp : topUps) {
+                    entityManager.persist(topUp);
+                }
+                stockBucketService.record(topUps);
+                dailyRollupService.record(topUps);
+                entityManager.flush();
+                entityManager.clear();
+                return topUps.size();
+            });
+
+            report.accept(written);
+            for (ImportRow row : unknownItems) {
+                report.reject(row.getLine(), row.getContent(), "Item not found with id: " + row.getItemId());
+            }
+        } catch (DataAccessException | TransactionException | PersistenceException ex) {
+            // Flushing the shared EntityManager throws untranslated JPA exceptions
+            String cause = NestedExceptionUtils.getMostSpecificCause(ex).getMessage();
+            for (ImportRow row : rows) {
+                report.reject(row.getLine(), row.getContent(), "Chunk rolled back: " + cause);
+            }
+        } finally {
+            report.chunkDone();
+        }
+    }
+
+    private ImportRow parse(long line, String content, Format format) {
+        String itemId;
+        String quantity;
+        String type = null;
+        if (format == Format.NDJSON) {
+            JsonNode node;
+            try {
+                node = objectMapper.readTree(content);
+            } catch (JsonProcessingException ex) {
+                throw new IllegalArgumentException("Malformed JSON: " + ex.getOriginalMessage());
+            }
+            if (node == null || !node.isObject()) {
+                throw new IllegalArgumentException("Expected a JSON object per line");
+            }
+            itemId = node.hasNonNull("itemId") ? node.get("itemId").asText() : null;
+            quantity = node.hasNonNull("quantity") ? node.get("quantity").asText() : null;
+            type = node.hasNonNull("type") ? node.get("type").asText() : null;
+        } else {
+            String[] columns = content.split(",", -1);
+            if (columns.length < 2 || columns.length > 3) {
+                throw new IllegalArgumentException("Expected columns itemId,quantity[,type]");
+            }
+            itemId = columns[0].trim();
+            quantity = columns[1].trim();
+            type = columns.length == 3 ? columns[2].trim() : null;
+        }
+
+        if (type != null && !"T".equals(type)) {
+            throw new IllegalArgumentException("Only top-up (T) movements can be imported");
+        }
+        long parsedQuantity = parsePositiveLong(quantity, "Quantity");
+        if (parsedQuantity > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Quantity is too large");
+        }
+        return new ImportRow(line, content, parsePositiveLong(itemId, "Item ID"), (int) parsedQuantity);
+    }
+
+    private static long parsePositiveLong(String value, String field) {
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException(field + " is required");
+        }
+        long parsed;
+        try {
+            parsed = Long.parseLong(value);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException(field + " must be a number");
+        }
+        if (parsed <= 0) {
+            throw new IllegalArgumentException(field + " must be a positive number");
+        }
+        return parsed;
+    }
+
+    private static boolean isCsvHeader(String content) {
+        return content.replace(" ", "").toLowerCase().startsWith(CSV_HEADER.toLowerCase());
+    }
+
+    @Value
+    private static class ImportRow {
+        long line;
+        String content;
+        Long itemId;
+        int quantity;
+    }
+
+    // Running totals for one import; only the first few rejections are kept
+    private static class ImportReport {
+        private final int maxRejections;
+        private final List<InventoryImportResultDTO.RejectedRow> rejections = new ArrayList<>();
+        private long accepted;
+        private long rejected;
+        private int chunks;
+
+        ImportReport(int maxRejections) {
+            this.maxRejections = maxRejections;
+        }
+
+        void accept(int rows) {
+            accepted += rows;
+        }
+
+        void reject(long line, String content, String reason) {
+            rejected++;
+            if (rejections.size() < maxRejections) {
+                String reported = content.length() > MAX_REPORTED_CONTENT_LENGTH
+                        ? content.substring(0, MAX_REPORTED_CONTENT_LENGTH) : content;
+                rejections.add(new InventoryImportResultDTO.RejectedRow(line, reported, reason));
+            }
+        }
+
+        void chunkDone() {
+            chunks++;
+        }
+
+        InventoryImportResultDTO toResult(long elapsedNanos) {
+            long durationMillis = elapsedNanos / 1_000_000;
+            double rowsPerSecond = elapsedNanos == 0 ? 0 : (accepted + rejected) * 1_000_000_000.0 / elapsedNanos;
+            return new InventoryImportResultDTO(accepted, rejected, chunks, durationMillis, rowsPerSecond,
+                    rejections, rejected > rejections.size());
+        }
+    }
+}
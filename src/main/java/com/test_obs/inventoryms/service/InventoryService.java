@@ -1,22 +1,49 @@
 package com.test_obs.inventoryms.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.test_obs.inventoryms.dto.CursorPage;
 import com.test_obs.inventoryms.dto.InventoryDTO;
 import com.test_obs.inventoryms.exception.ResourceNotFoundException;
 import com.test_obs.inventoryms.model.Inventory;
 import com.test_obs.inventoryms.model.Item;
 import com.test_obs.inventoryms.repository.InventoryRepository;
-import com.test_obs.inventoryms.repository.ItemRepository;
+import com.test_obs.inventoryms.util.SeekCursor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
 @Service
 @RequiredArgsConstructor
 public class InventoryService {
+    // Open bounds for exports without a time range
+    private static final LocalDateTime EXPORT_FROM = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime EXPORT_TO = LocalDateTime.of(9999, 12, 31, 0, 0);
+
     private final InventoryRepository inventoryRepository;
-    private final ItemRepository itemRepository;
+    private final ItemCatalog itemCatalog;
+    private final StockService stockService;
+    private final StockCheckpointService stockCheckpointService;
+    private final StripedItemLock itemLock;
+    private final StockBucketService stockBucketService;
+    private final DailyRollupService dailyRollupService;
+    private final ObjectMapper objectMapper;
 
     @Transactional(readOnly = true)
     public InventoryDTO getInventoryById(Long id) {
@@ -27,25 +54,122 @@ public class InventoryService {
 
     @Transactional(readOnly = true)
     public Page<InventoryDTO> getAllInventory(Pageable pageable) {
-        Page<Inventory> inventories = inventoryRepository.findAll(pageable);
-        return inventories.map(this::convertToDTO);
+        return inventoryRepository.findAllProjected(pageable);
+    }
+
+    /**
+     * Keyset page of the ledger in {@code (createdAt, id)} order, starting after {@code cursor}
+     * (or at the beginning when it is null). The cost does not depend on how deep the page is.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<InventoryDTO> getInventoryPage(String cursor, int size, boolean includeTotal) {
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<Inventory> rows;
+        if (cursor == null) {
+            rows = inventoryRepository.findFirstByCreatedAt(limit);
+        } else {
+            SeekCursor after = SeekCursor.decode(cursor);
+            rows = inventoryRepository.findAfterByCreatedAt(after.getCreatedAt(), after.getId(), limit);
+        }
+        return CursorPage.of(rows, size,
+                inventory -> new SeekCursor(inventory.getCreatedAt(), inventory.getId()),
+                this::convertToDTO,
+                includeTotal ? inventoryRepository.count() : null);
+    }
+
+    /**
+     * Writes the ledger, optionally narrowed to one item and a {@code [from, to)} time range, as
+     * one JSON object per line. Rows are read through a forward-only cursor straight into DTOs,
+     * so memory use does not grow with the size of the export.
+     */
+    @Transactional(readOnly = true)
+    public long exportInventory(Long itemId, LocalDateTime from, LocalDateTime to, OutputStream out) throws IOException {
+        LocalDateTime lower = from != null ? from : EXPORT_FROM;
+        LocalDateTime upper = to != null ? to : EXPORT_TO;
+        ObjectWriter writer = objectMapper.writerFor(InventoryDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        long rows = 0;
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // Lines are ended below; the default separator would start every later line with a space
+        generator.setRootValueSeparator(null);
+        try (Stream<InventoryDTO> stream = itemId != null
+                ? inventoryRepository.streamForExportByItem(itemId, lower, upper)
+                : inventoryRepository.streamForExport(lower, upper)) {
+            Iterator<InventoryDTO> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                writer.writeValue(generator, iterator.next());
+                generator.writeRaw('\n');
+                rows++;
+            }
+        } finally {
+            generator.close();
+        }
+        return rows;
     }
 
     @Transactional
     public InventoryDTO saveInventory(InventoryDTO inventoryDTO) {
         Inventory inventory = convertToEntity(inventoryDTO);
+        itemLock.lockUntilCompletion(inventory.getItem().getId());
+        stockService.adjust(inventory.getItem().getId(),
+                StockService.signedQuantity(inventory.getType(), inventory.getQuantity()));
         Inventory savedInventory = inventoryRepository.save(inventory);
+        stockBucketService.record(savedInventory);
+        dailyRollupService.record(savedInventory);
         return convertToDTO(savedInventory);
     }
 
+    /**
+     * Writes several ledger rows in one transaction. Each item's balance is adjusted once with
+     * the net movement of its rows, and the rows go out as JDBC batches.
+     */
     @Transactional
-    public InventoryDTO updateInventory(Long id, InventoryDTO inventoryDTO) {
-        if (!inventoryRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Inventory record not found with id: " + id);
+    public List<InventoryDTO> saveInventoryBatch(List<InventoryDTO> inventoryDTOs) {
+        List<Inventory> inventories = new ArrayList<>(inventoryDTOs.size());
+        // Sorted, so balances are updated in item id order like the stripes are locked
+        Map<Long, Integer> deltas = new TreeMap<>();
+        for (InventoryDTO inventoryDTO : inventoryDTOs) {
+            Inventory inventory = convertToEntity(inventoryDTO);
+            deltas.merge(inventory.getItem().getId(),
+                    StockService.signedQuantity(inventory.getType(), inventory.getQuantity()), Integer::sum);
+            inventories.add(inventory);
         }
 
+        // Balances before ledger rows, like a single save
+        itemLock.lockUntilCompletion(deltas.keySet().toArray(new Long[0]));
+        deltas.forEach(stockService::adjust);
+        List<Inventory> savedInventories = inventoryRepository.saveAll(inventories);
+        stockBucketService.record(savedInventories);
+        dailyRollupService.record(savedInventories);
+        return savedInventories.stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional
+    public InventoryDTO updateInventory(Long id, InventoryDTO inventoryDTO) {
+        Inventory existing = inventoryRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Inventory record not found with id: " + id));
+        Long previousItemId = existing.getItem().getId();
+        LocalDateTime createdAt = existing.getCreatedAt();
+        int previousQuantity = StockService.signedQuantity(existing.getType(), existing.getQuantity());
+
         Inventory inventory = convertToEntity(inventoryDTO);
         inventory.setId(id); // ✅ Now works because of @Setter
+        int newQuantity = StockService.signedQuantity(inventory.getType(), inventory.getQuantity());
+
+        // Reverse the old movement and apply the new one
+        itemLock.lockUntilCompletion(previousItemId, inventory.getItem().getId());
+        stockService.adjust(previousItemId, -previousQuantity);
+        stockService.adjust(inventory.getItem().getId(), newQuantity);
+        stockCheckpointService.adjustCoveredRow(previousItemId, id, -previousQuantity);
+        stockCheckpointService.adjustCoveredRow(inventory.getItem().getId(), id, newQuantity);
+        stockBucketService.recordCorrection(previousItemId, createdAt, -previousQuantity);
+        stockBucketService.recordCorrection(inventory.getItem().getId(), createdAt, newQuantity);
+        dailyRollupService.recordCorrection(previousItemId, createdAt, existing.getType(), -existing.getQuantity());
+        dailyRollupService.recordCorrection(inventory.getItem().getId(), createdAt, inventory.getType(), inventory.getQuantity());
 
         Inventory updatedInventory = inventoryRepository.save(inventory);
         return convertToDTO(updatedInventory);
@@ -53,9 +177,15 @@ public class InventoryService {
 
     @Transactional
     public void deleteInventory(Long id) {
-        if (!inventoryRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Inventory record not found with id: " + id);
-        }
+        Inventory inventory = inventoryRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Inventory record not found with id: " + id));
+        int quantity = StockService.signedQuantity(inventory.getType(), inventory.getQuantity());
+        itemLock.lockUntilCompletion(inventory.getItem().getId());
+        stockService.adjust(inventory.getItem().getId(), -quantity);
+        stockCheckpointService.adjustCoveredRow(inventory.getItem().getId(), id, -quantity);
+        stockBucketService.recordCorrection(inventory.getItem().getId(), inventory.getCreatedAt(), -quantity);
+        dailyRollupService.recordCorrection(inventory.getItem().getId(), inventory.getCreatedAt(),
+                inventory.getType(), -inventory.getQuantity());
         inventoryRepository.deleteById(id);
     }
 
@@ -71,8 +201,7 @@ public class InventoryService {
     }
 
     private Inventory convertToEntity(InventoryDTO dto) {
-        Item item = itemRepository.findById(dto.getItemId())
-                .orElseThrow(() -> new ResourceNotFoundException("Item not found with id: " + dto.getItemId()));
+        Item item = itemCatalog.getItem(dto.getItemId());
 
         Inventory inventory = new Inventory();
         inventory.setId(dto.getId());
@@ -0,0 +1,121 @@
+package com.test_obs.inventoryms.service;
+
+import com.test_obs.inventoryms.exception.ResourceNotFoundException;
+import com.test_obs.inventoryms.model.Item;
+import com.test_obs.inventoryms.repository.ItemRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read-through cache of item rows for the order and inventory write paths, so that placing
+ * orders and booking stock do not hit the {@code items} table once the catalog is warm.
+ * <p>
+ * Cached items are detached and shared between threads: they may be referenced from new
+ * {@code Order} and {@code Inventory} rows, but must never be modified. {@link ItemService}
+ * evicts an item whenever it is updated or deleted.
+ * <p>
+ * The catalog times its cache writes itself rather than through the transaction-aware cache:
+ * evictions wait until the writing transaction has completed, and a loaded row is cached at
+ * once but dropped again if anything was evicted while it was being read, since it may predate
+ * that update.
+ */
+@Component
+@RequiredArgsConstructor
+public class ItemCatalog {
+    public static final String CACHE_NAME = "items";
+
+    private final ItemRepository itemRepository;
+    private final CacheManager cacheManager;
+    private final AtomicLong evictions = new AtomicLong();
+
+    public Item getItem(Long id) {
+        Item item = items().get(id, Item.class);
+        if (item != null) {
+            return item;
+        }
+        long evictionsBefore = evictions.get();
+        item = itemRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Item not found with id: " + id));
+        return cache(item, evictionsBefore);
+    }
+
+    /**
+     * Resolves several items at once, loading all cache misses with a single query. Ids that
+     * do not exist are left out of the result.
+     */
+    public Map<Long, Item> getItems(Collection<Long> ids) {
+        Cache items = items();
+        Map<Long, Item> result = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            Item item = items.get(id, Item.class);
+            if (item != null) {
+                result.put(id, item);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            long evictionsBefore = evictions.get();
+            for (Item item : itemRepository.findAllById(missing)) {
+                result.put(item.getId(), cache(item, evictionsBefore));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Evicts the item once the surrounding transaction has completed, or right away outside of
+     * one. Evicting before the commit would let a concurrent read cache the old row again.
+     */
+    public void evict(Long id) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evictNow(id);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                evictNow(id);
+            }
+        });
+    }
+
+    private void evictNow(Long id) {
+        // Counted before evicting: a load racing with this either sees the count change or has
+        // its put removed here
+        evictions.incrementAndGet();
+        items().evict(id);
+    }
+
+    private Item cache(Item item, long evictionsBefore) {
+        // Cache a copy, never the managed instance (or lazy proxy) of the loading session
+        Item copy = new Item(item.getId(), item.getName(), item.getPrice(), item.getDescription(), null);
+        Cache items = items();
+        items.put(copy.getId(), copy);
+        if (evictions.get() != evictionsBefore) {
+            items.evict(copy.getId());
+        }
+        return copy;
+    }
+
+    // The target cache, so that puts are not deferred to the end of the caller's transaction
+    private Cache items() {
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        return cache instanceof TransactionAwareCacheDecorator
+                ? ((TransactionAwareCacheDecorator) cache).getTargetCache()
+                : cache;
+    }
+}
@@ -9,18 +9,26 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ItemService {
     private final ItemRepository itemRepository;
+    private final StockService stockService;
+    private final ItemCatalog itemCatalog;
 
     @Transactional(readOnly = true)
     public ItemDTO getItemById(Long id) {
         Item item = itemRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Item not found with id: " + id));
 
-        Integer remainingStock = itemRepository.findRemainingStockByItemId(id);
+        Integer remainingStock = stockService.getRemainingStock(id);
         item.setRemainingStock(remainingStock);
 
         return convertToDTO(item);
@@ -29,17 +37,55 @@ public class ItemService {
     @Transactional(readOnly = true)
     public Page<ItemDTO> getAllItems(Pageable pageable) {
         Page<Item> items = itemRepository.findAll(pageable);
+        List<Long> itemIds = items.getContent().stream()
+                .map(Item::getId)
+                .collect(Collectors.toList());
+        Map<Long, Integer> remainingStock = stockService.getRemainingStockByItemIds(itemIds);
         return items.map(item -> {
-            Integer remainingStock = itemRepository.findRemainingStockByItemId(item.getId());
-            item.setRemainingStock(remainingStock);
+            item.setRemainingStock(remainingStock.getOrDefault(item.getId(), 0));
             return convertToDTO(item);
         });
     }
 
+    /**
+     * Entity tag of {@link #getItemById(Long)}, derived from the item's fields and the version
+     * of its stock balance. Cheap enough to answer conditional requests with: the item comes
+     * from the catalog cache and no ledger sum is computed.
+     */
+    @Transactional(readOnly = true)
+    public String getItemETag(Long id) {
+        Item item = itemCatalog.getItem(id);
+        StringBuilder state = new StringBuilder();
+        appendState(state, item, stockService.getBalanceVersion(id));
+        return digest(state);
+    }
+
+    /**
+     * Entity tag of the {@link #getAllItems(Pageable)} page, covering the page position and
+     * totals as well as every item on it.
+     */
+    @Transactional(readOnly = true)
+    public String getItemsETag(Pageable pageable) {
+        Page<Item> items = itemRepository.findAll(pageable);
+        List<Long> itemIds = items.getContent().stream()
+                .map(Item::getId)
+                .collect(Collectors.toList());
+        Map<Long, Long> versions = stockService.getBalanceVersions(itemIds);
+
+        StringBuilder state = new StringBuilder()
+                .append(pageable).append('|')
+                .append(items.getTotalElements()).append('\n');
+        for (Item item : items) {
+            appendState(state, item, versions.get(item.getId()));
+        }
+        return digest(state);
+    }
+
     @Transactional
     public ItemDTO saveItem(ItemDTO itemDTO) {
         Item item = convertToEntity(itemDTO);
         Item savedItem = itemRepository.save(item);
+        stockService.initializeBalance(savedItem.getId());
         // New items have no stock yet
         savedItem.setRemainingStock(0);
         return convertToDTO(savedItem);
@@ -54,8 +100,9 @@ public class ItemService {
         Item item = convertToEntity(itemDTO);
         item.setId(id);
         Item updatedItem = itemRepository.save(item);
+        itemCatalog.evict(id);
 
-        Integer remainingStock = itemRepository.findRemainingStockByItemId(id);
+        Integer remainingStock = stockService.getRemainingStock(id);
         updatedItem.setRemainingStock(remainingStock);
 
         return convertToDTO(updatedItem);
@@ -66,7 +113,32 @@ public class ItemService {
         if (!itemRepository.existsById(id)) {
             throw new ResourceNotFoundException("Item not found with id: " + id);
         }
+        stockService.removeBalance(id);
         itemRepository.deleteById(id);
+        itemCatalog.evict(id);
+    }
+
+    @Transactional
+    public ItemDTO recalculateStock(Long id) {
+        Item item = itemRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Item not found with id: " + id));
+
+        Integer remainingStock = stockService.recalculate(id);
+        item.setRemainingStock(remainingStock);
+
+        return convertToDTO(item);
+    }
+
+    private static void appendState(StringBuilder state, Item item, Long balanceVersion) {
+        state.append(item.getId()).append('|')
+                .append(item.getName()).append('|')
+                .append(item.getPrice()).append('|')
+                .append(item.getDescription()).append('|')
+                .append(balanceVersion).append('\n');
+    }
+
+    private static String digest(StringBuilder state) {
+        return DigestUtils.md5DigestAsHex(state.toString().getBytes(StandardCharsets.UTF_8));
     }
 
     private ItemDTO convertToDTO(Item item) {
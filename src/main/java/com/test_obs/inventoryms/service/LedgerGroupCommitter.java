@@ -0,0 +1,198 @@
+package com.test_obs.inventoryms.service;
+
+import com.test_obs.inventoryms.config.InventoryProperties;
+import com.test_obs.inventoryms.dto.InventoryDTO;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group commit for single ledger inserts. With {@code inventory.group-commit.enabled} set,
+ * {@link #saveInventory(InventoryDTO)} queues the row and a single writer thread commits the
+ * queued rows together, as soon as {@code max-batch-size} rows are waiting or {@code linger}
+ * has passed since the first of them. Each caller blocks until the transaction holding its
+ * row has committed, so a returned row is as durable as one saved on its own.
+ * <p>
+ * If a shared transaction fails, its rows are retried one per transaction, so a bad row only
+ * fails its own caller. An {@code Error} stops the writer: the rows waiting get it and later
+ * calls are refused. When the mode is off, rows are saved directly.
+ */
+@Service
+public class LedgerGroupCommitter {
+    // How often an idle writer checks whether it has been stopped
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final InventoryService inventoryService;
+    private final ItemCatalog itemCatalog;
+    private final InventoryProperties.GroupCommit settings;
+    private final BlockingQueue<PendingRow> queue;
+    private final DistributionSummary batchSizes;
+    private final Thread writer;
+    private volatile boolean running;
+
+    public LedgerGroupCommitter(InventoryService inventoryService,
+                                ItemCatalog itemCatalog,
+                                InventoryProperties properties,
+                                MeterRegistry meterRegistry) {
+        this.inventoryService = inventoryService;
+        this.itemCatalog = itemCatalog;
+        this.settings = properties.getGroupCommit();
+        this.queue = new ArrayBlockingQueue<>(settings.getQueueCapacity());
+        this.batchSizes = DistributionSummary.builder("inventory.ledger.group_commit.rows")
+                .description("Ledger rows committed per group commit transaction")
+                .register(meterRegistry);
+        Gauge.builder("inventory.ledger.group_commit.queued", queue, BlockingQueue::size)
+                .description("Ledger rows waiting for the group commit writer")
+                .register(meterRegistry);
+
+        this.running = settings.isEnabled();
+        this.writer = new Thread(this::run, "ledger-group-commit");
+        writer.setDaemon(true);
+        if (running) {
+            writer.start();
+        }
+    }
+
+    @Value
+    private static class PendingRow {
+        InventoryDTO row;
+        CompletableFuture<InventoryDTO> saved = new CompletableFuture<>();
+    }
+
+    public InventoryDTO saveInventory(InventoryDTO inventoryDTO) {
+        if (!settings.isEnabled()) {
+            return inventoryService.saveInventory(inventoryDTO);
+        }
+        // Unknown items fail here, rather than taking a shared transaction down with them
+        itemCatalog.getItem(inventoryDTO.getItemId());
+
+        PendingRow pending = new PendingRow(inventoryDTO);
+        enqueue(pending);
+        try {
+            return pending.getSaved().join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw ex;
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        try {
+            // Rows already queued are still committed before the writer exits
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void enqueue(PendingRow pending) {
+        if (!running) {
+            throw new IllegalStateException("Ledger group commit is stopped");
+        }
+        try {
+            queue.put(pending);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for room in the ledger queue", ex);
+        }
+        // The writer may have drained the queue and exited in the meantime; if the row is still
+        // queued nobody will commit it, otherwise the writer took it and completes it
+        if (!running && queue.remove(pending)) {
+            throw new IllegalStateException("Ledger group commit is stopped");
+        }
+    }
+
+    private void run() {
+        List<PendingRow> batch = new ArrayList<>(settings.getMaxBatchSize());
+        try {
+            while (running || !queue.isEmpty()) {
+                try {
+                    collect(batch);
+                } catch (InterruptedException ex) {
+                    // Only stop() ends the writer; commit whatever was collected
+                }
+                if (!batch.isEmpty()) {
+                    commit(batch);
+                    batch.clear();
+                }
+            }
+        } catch (Throwable ex) {
+            // Errors are not retried row by row; nothing would commit the rows waiting now or later
+            running = false;
+            queue.drainTo(batch);
+            for (PendingRow pending : batch) {
+                pending.getSaved().completeExceptionally(ex);
+            }
+            throw ex;
+        }
+    }
+
+    // Waits for a first row, then gathers more until the batch is full or the linger time is up
+    private void collect(List<PendingRow> batch) throws InterruptedException {
+        PendingRow first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+
+        int maxBatchSize = settings.getMaxBatchSize();
+        long deadline = System.nanoTime() + settings.getLinger().toNanos();
+        while (batch.size() < maxBatchSize) {
+            queue.drainTo(batch, maxBatchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= maxBatchSize || remaining <= 0) {
+                return;
+            }
+            PendingRow next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void commit(List<PendingRow> batch) {
+        List<InventoryDTO> rows = new ArrayList<>(batch.size());
+        for (PendingRow pending : batch) {
+            rows.add(pending.getRow());
+        }
+
+        List<InventoryDTO> saved;
+        try {
+            saved = inventoryService.saveInventoryBatch(rows);
+        } catch (RuntimeException ex) {
+            commitOneByOne(batch);
+            return;
+        }
+        batchSizes.record(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).getSaved().complete(saved.get(i));
+        }
+    }
+
+    private void commitOneByOne(List<PendingRow> batch) {
+        for (PendingRow pending : batch) {
+            try {
+                pending.getSaved().complete(inventoryService.saveInventory(pending.getRow()));
+                batchSizes.record(1);
+            } catch (RuntimeException ex) {
+                pending.getSaved().completeExceptionally(ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.test_obs.inventoryms.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published by {@link OrderService} when an existing order is edited or deleted. New orders
+ * are not announced; readers pick them up by id.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class OrderChangedEvent {
+    private final Long orderId;
+}
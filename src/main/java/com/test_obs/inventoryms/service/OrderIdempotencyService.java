@@ -0,0 +1,196 @@
+package com.test_obs.inventoryms.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.test_obs.inventoryms.config.InventoryProperties;
+import com.test_obs.inventoryms.dto.OrderDTO;
+import com.test_obs.inventoryms.exception.IdempotencyKeyConflictException;
+import com.test_obs.inventoryms.exception.InvalidIdempotencyKeyException;
+import com.test_obs.inventoryms.model.IdempotencyRecord;
+import com.test_obs.inventoryms.repository.IdempotencyRecordRepository;
+import lombok.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.DigestUtils;
+
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Makes order creation safe to retry. The first request with a given {@code Idempotency-Key}
+ * places the order and records its response in the same transaction; later requests with
+ * the same key get that response back without touching stock.
+ * <p>
+ * Keys are tracked in a bounded in-memory map of futures, so a duplicate that arrives while
+ * the first request is still running waits for it instead of placing a second order. The
+ * database record covers restarts, keys evicted from memory and other instances. A request
+ * that fails leaves no trace, and the key can be used again.
+ */
+@Service
+public class OrderIdempotencyService {
+    static final int MAX_KEY_LENGTH = 255;
+
+    private final OrderService orderService;
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ObjectMapper objectMapper;
+    private final InventoryProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final Cache<String, CompletableFuture<Outcome>> outcomes;
+
+    public OrderIdempotencyService(OrderService orderService,
+                                   IdempotencyRecordRepository idempotencyRecordRepository,
+                                   ObjectMapper objectMapper,
+                                   InventoryProperties properties,
+                                   PlatformTransactionManager transactionManager) {
+        this.orderService = orderService;
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.outcomes = Caffeine.newBuilder()
+                .maximumSize(properties.getIdempotency().getMaximumSize())
+                .expireAfterWrite(properties.getIdempotency().getRetention())
+                .build();
+    }
+
+    @Value
+    public static class Result {
+        OrderDTO order;
+        boolean replayed;
+    }
+
+    @Value
+    private static class Outcome {
+        String requestHash;
+        OrderDTO order;
+    }
+
+    public Result saveOrder(String key, OrderDTO orderDTO) {
+        if (key.trim().isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            throw new InvalidIdempotencyKeyException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        String requestHash = requestHash(orderDTO);
+
+        while (true) {
+            CompletableFuture<Outcome> placing = new CompletableFuture<>();
+            CompletableFuture<Outcome> existing = outcomes.asMap().putIfAbsent(key, placing);
+            if (existing == null) {
+                return place(key, requestHash, orderDTO, placing);
+            }
+
+            Outcome outcome;
+            try {
+                outcome = existing.join();
+            } catch (CompletionException | CancellationException ex) {
+                // The first request failed and placed nothing, so this one takes its turn
+                continue;
+            }
+            return replay(key, requestHash, outcome);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.idempotency.purge-interval}",
+            initialDelayString = "${inventory.idempotency.purge-interval}")
+    @Transactional
+    public int purgeExpired() {
+        return idempotencyRecordRepository.deleteCreatedBefore(expiredBefore());
+    }
+
+    private Result place(String key, String requestHash, OrderDTO orderDTO, CompletableFuture<Outcome> placing) {
+        try {
+            IdempotencyRecord record = idempotencyRecordRepository.findById(key).orElse(null);
+            Outcome outcome = record != null && !isExpired(record) ? toOutcome(record) : null;
+            boolean replayed = outcome != null;
+            if (!replayed) {
+                try {
+                    outcome = placeAndRecord(key, requestHash, orderDTO, record != null);
+                } catch (DataIntegrityViolationException ex) {
+                    // Another instance recorded the key first; our order was rolled back along with the record
+                    outcome = loadRecord(key);
+                    if (outcome == null) {
+                        throw ex;
+                    }
+                    replayed = true;
+                }
+            }
+            placing.complete(outcome);
+            return replayed ? replay(key, requestHash, outcome) : new Result(outcome.getOrder(), false);
+        } catch (RuntimeException ex) {
+            outcomes.asMap().remove(key, placing);
+            placing.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    // Inserts the record, so a key recorded concurrently by another instance fails the whole transaction
+    private Outcome placeAndRecord(String key, String requestHash, OrderDTO orderDTO, boolean replaceExpired) {
+        return transactionTemplate.execute(status -> {
+            if (replaceExpired) {
+                // Only while still expired, a fresh record of another instance must win
+                idempotencyRecordRepository.deleteExpired(key, expiredBefore());
+            }
+            OrderDTO created = orderService.saveOrder(orderDTO);
+            idempotencyRecordRepository.saveAndFlush(
+                    new IdempotencyRecord(key, requestHash, write(created), LocalDateTime.now()));
+            return new Outcome(requestHash, created);
+        });
+    }
+
+    private Outcome loadRecord(String key) {
+        return idempotencyRecordRepository.findById(key)
+                .filter(record -> !isExpired(record))
+                .map(this::toOutcome)
+                .orElse(null);
+    }
+
+    private boolean isExpired(IdempotencyRecord record) {
+        return !record.getCreatedAt().isAfter(expiredBefore());
+    }
+
+    private Outcome toOutcome(IdempotencyRecord record) {
+        return new Outcome(record.getRequestHash(), read(record.getResponseBody()));
+    }
+
+    private Result replay(String key, String requestHash, Outcome outcome) {
+        if (!outcome.getRequestHash().equals(requestHash)) {
+            throw new IdempotencyKeyConflictException(
+                    "Idempotency-Key " + key + " was already used for a different order request");
+        }
+        return new Result(outcome.getOrder(), true);
+    }
+
+    private LocalDateTime expiredBefore() {
+        return LocalDateTime.now().minus(properties.getIdempotency().getRetention());
+    }
+
+    private static String requestHash(OrderDTO orderDTO) {
+        String request = orderDTO.getItemId() + "|" + orderDTO.getQuantity() + "|" + orderDTO.getPrice();
+        return DigestUtils.md5DigestAsHex(request.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String write(OrderDTO orderDTO) {
+        try {
+            return objectMapper.writeValueAsString(orderDTO);
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private OrderDTO read(String responseBody) {
+        try {
+            return objectMapper.readValue(responseBody, OrderDTO.class);
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.test_obs.inventoryms.service;
+
+import com.test_obs.inventoryms.config.InventoryProperties;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.TypedQuery;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+/**
+ * Hands out {@code O<n>} order numbers in blocks.
+ * <p>
+ * The {@value #SEQUENCE_NAME} sequence counts in steps of
+ * {@code inventory.order.number-block-size}, and each value it returns is the first number of
+ * a block which is then handed out from memory with a single atomic increment. Numbers are
+ * unique across threads and instances; blocks left unused at shutdown simply leave gaps. When
+ * the block size is changed the sequence is restarted past every block already reserved, so
+ * all instances must be restarted together.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderNumberAllocator {
+    static final String SEQUENCE_NAME = "order_no_seq";
+    // Order numbers this allocator could have handed out; the digits fit in a long
+    private static final Pattern NUMBERED = Pattern.compile("O[1-9][0-9]{0,17}");
+    private static final int SCAN_PAGE_SIZE = 100;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final InventoryProperties properties;
+
+    private final ReentrantLock refillLock = new ReentrantLock();
+    private volatile Block block = new Block(0, 0);
+    private int blockSize;
+    private String nextBlockSql;
+
+    @PostConstruct
+    void createSequence() {
+        blockSize = properties.getOrder().getNumberBlockSize();
+        nextBlockSql = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices()
+                .getDialect()
+                .getSequenceNextValString(SEQUENCE_NAME);
+
+        long maxOrderNo = maxOrderNo();
+        List<Long> increment = jdbcTemplate.queryForList(
+                "SELECT increment FROM information_schema.sequences WHERE UPPER(sequence_name) = ?",
+                Long.class, SEQUENCE_NAME.toUpperCase(Locale.ROOT));
+        if (increment.isEmpty()) {
+            // Start past any number handed out by the old count-based scheme
+            jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + SEQUENCE_NAME
+                    + " START WITH " + (maxOrderNo + 1) + " INCREMENT BY " + blockSize);
+        } else if (increment.get(0) != blockSize) {
+            restartSequence(maxOrderNo);
+        }
+    }
+
+    // Blocks reserved with the old size may still be in use, so continue past all of them
+    private void restartSequence(long maxOrderNo) {
+        long next = jdbcTemplate.queryForObject(nextBlockSql, Long.class);
+        long start = Math.max(next, maxOrderNo + 1);
+        jdbcTemplate.execute("ALTER SEQUENCE " + SEQUENCE_NAME
+                + " RESTART WITH " + start + " INCREMENT BY " + blockSize);
+    }
+
+    /**
+     * The highest {@code O<n>} order number stored, or 0. Longer numbers are larger, so the
+     * scan stops at the first one that matches; order numbers of any other form are skipped.
+     */
+    private long maxOrderNo() {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            TypedQuery<String> query = entityManager.createQuery("SELECT o.orderNo FROM Order o " +
+                            "WHERE o.orderNo LIKE 'O%' ORDER BY LENGTH(o.orderNo) DESC, o.orderNo DESC", String.class)
+                    .setMaxResults(SCAN_PAGE_SIZE);
+            for (int first = 0; ; first += SCAN_PAGE_SIZE) {
+                List<String> page = query.setFirstResult(first).getResultList();
+                for (String orderNo : page) {
+                    if (NUMBERED.matcher(orderNo).matches()) {
+                        return Long.parseLong(orderNo.substring(1));
+                    }
+                }
+                if (page.size() < SCAN_PAGE_SIZE) {
+                    return 0;
+                }
+            }
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    public String nextOrderNo() {
+        return "O" + next();
+    }
+
+    long next() {
+        while (true) {
+            Block current = block;
+            long value = current.next.getAndIncrement();
+            if (value < current.limit) {
+                return value;
+            }
+            refill(current);
+        }
+    }
+
+    private void refill(Block exhausted) {
+        refillLock.lock();
+        try {
+            // Another thread may have refilled while we were waiting
+            if (block == exhausted) {
+                long first = jdbcTemplate.queryForObject(nextBlockSql, Long.class);
+                block = new Block(first, first + blockSize);
+            }
+        } finally {
+            refillLock.unlock();
+        }
+    }
+
+    private static final class Block {
+        private final AtomicLong next;
+        private final long limit;
+
+        private Block(long first, long limit) {
+            this.next = new AtomicLong(first);
+            this.limit = limit;
+        }
+    }
+}
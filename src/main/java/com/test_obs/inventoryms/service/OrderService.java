@@ -1,26 +1,46 @@
 package com.test_obs.inventoryms.service;
 
+import com.test_obs.inventoryms.config.InventoryProperties;
+import com.test_obs.inventoryms.dto.CursorPage;
 import com.test_obs.inventoryms.dto.OrderDTO;
+import com.test_obs.inventoryms.exception.BatchOrderException;
+import com.test_obs.inventoryms.exception.BatchTooLargeException;
 import com.test_obs.inventoryms.exception.InsufficientStockException;
 import com.test_obs.inventoryms.exception.ResourceNotFoundException;
 import com.test_obs.inventoryms.model.Inventory;
 import com.test_obs.inventoryms.model.Item;
 import com.test_obs.inventoryms.model.Order;
 import com.test_obs.inventoryms.repository.InventoryRepository;
-import com.test_obs.inventoryms.repository.ItemRepository;
 import com.test_obs.inventoryms.repository.OrderRepository;
+import com.test_obs.inventoryms.util.SeekCursor;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
 @Service
 @RequiredArgsConstructor
 public class OrderService {
     private final OrderRepository orderRepository;
-    private final ItemRepository itemRepository;
+    private final ItemCatalog itemCatalog;
     private final InventoryRepository inventoryRepository;
+    private final StockService stockService;
+    private final StockBucketService stockBucketService;
+    private final DailyRollupService dailyRollupService;
+    private final StripedItemLock itemLock;
+    private final OrderNumberAllocator orderNumberAllocator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final InventoryProperties properties;
 
     @Transactional(readOnly = true)
     public OrderDTO getOrderById(Long id) {
@@ -31,29 +51,43 @@ public class OrderService {
 
     @Transactional(readOnly = true)
     public Page<OrderDTO> getAllOrders(Pageable pageable) {
-        Page<Order> orders = orderRepository.findAll(pageable);
-        return orders.map(this::convertToDTO);
+        return orderRepository.findAllProjected(pageable);
+    }
+
+    /**
+     * Keyset page of orders in {@code (createdAt, id)} order, starting after {@code cursor}
+     * (or at the beginning when it is null).
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<OrderDTO> getOrderPage(String cursor, int size, boolean includeTotal) {
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<Order> rows;
+        if (cursor == null) {
+            rows = orderRepository.findFirstByCreatedAt(limit);
+        } else {
+            SeekCursor after = SeekCursor.decode(cursor);
+            rows = orderRepository.findAfterByCreatedAt(after.getCreatedAt(), after.getId(), limit);
+        }
+        return CursorPage.of(rows, size,
+                order -> new SeekCursor(order.getCreatedAt(), order.getId()),
+                this::convertToDTO,
+                includeTotal ? orderRepository.count() : null);
     }
 
     @Transactional
     public OrderDTO saveOrder(OrderDTO orderDTO) {
         // Get the item and check stock
-        Item item = itemRepository.findById(orderDTO.getItemId())
-                .orElseThrow(() -> new ResourceNotFoundException("Item not found with id: " + orderDTO.getItemId()));
-
-        Integer remainingStock = itemRepository.findRemainingStockByItemId(item.getId());
+        Item item = itemCatalog.getItem(orderDTO.getItemId());
 
-        if (remainingStock < orderDTO.getQuantity()) {
-            throw new InsufficientStockException("Insufficient stock for item: " + item.getName() +
-                    " (Available: " + remainingStock + ", Requested: " + orderDTO.getQuantity() + ")");
-        }
+        // Reserve the stock: check and decrement in one conditional update
+        itemLock.lockUntilCompletion(item.getId());
+        stockService.withdraw(item, orderDTO.getQuantity());
 
         // Create the order
         Order order = convertToEntity(orderDTO);
 
         // Generate order number (O + sequential number)
-        long orderCount = orderRepository.countOrders() + 1;
-        order.setOrderNo("O" + orderCount);
+        order.setOrderNo(orderNumberAllocator.nextOrderNo());
 
         Order savedOrder = orderRepository.save(order);
 
@@ -63,10 +97,133 @@ public class OrderService {
         withdrawal.setQuantity(orderDTO.getQuantity());
         withdrawal.setType("W"); // Withdrawal for order
         inventoryRepository.save(withdrawal);
+        stockBucketService.record(withdrawal);
+        dailyRollupService.record(withdrawal);
 
         return convertToDTO(savedOrder);
     }
 
+    /**
+     * Places an order for stock that was already reserved by a stock hold, turning the held
+     * quantity into a withdrawal instead of checking the available stock again.
+     */
+    @Transactional
+    public OrderDTO saveHeldOrder(Long itemId, int quantity, Double price) {
+        Item item = itemCatalog.getItem(itemId);
+
+        itemLock.lockUntilCompletion(item.getId());
+        stockService.consumeHold(item.getId(), quantity);
+
+        Order order = new Order();
+        order.setOrderNo(orderNumberAllocator.nextOrderNo());
+        order.setItem(item);
+        order.setQuantity(quantity);
+        order.setPrice(price);
+        Order savedOrder = orderRepository.save(order);
+
+        Inventory withdrawal = new Inventory();
+        withdrawal.setItem(item);
+        withdrawal.setQuantity(quantity);
+        withdrawal.setType("W"); // Withdrawal for order
+        inventoryRepository.save(withdrawal);
+        stockBucketService.record(withdrawal);
+        dailyRollupService.record(withdrawal);
+
+        return convertToDTO(savedOrder);
+    }
+
+    /**
+     * Places every line of a cart in one transaction. Items and stock for all lines are read
+     * with a couple of set-based queries, and the orders and their withdrawals are inserted as
+     * JDBC batches. Either every line is placed or, if any line fails, none is. Batches longer
+     * than {@code inventory.order.max-batch-lines} are refused up front.
+     */
+    @Transactional
+    public List<OrderDTO> saveOrders(List<OrderDTO> orderDTOs) {
+        int maxBatchLines = properties.getOrder().getMaxBatchLines();
+        if (orderDTOs.size() > maxBatchLines) {
+            throw new BatchTooLargeException("A batch may have at most " + maxBatchLines + " order lines, got "
+                    + orderDTOs.size());
+        }
+        List<Long> itemIds = orderDTOs.stream()
+                .map(OrderDTO::getItemId)
+                .distinct()
+                .collect(Collectors.toList());
+        Map<Long, Item> items = itemCatalog.getItems(itemIds);
+
+        itemLock.lockUntilCompletion(itemIds.toArray(new Long[0]));
+        Map<Long, Integer> available = stockService.getRemainingStockByItemIds(items.keySet());
+
+        // Lines for the same item draw on the same stock, so check them cumulatively. Sorted by
+        // item id, so the withdrawals below take row locks in the same order as the stripes
+        Map<Long, Integer> requested = new TreeMap<>();
+        Map<Long, Integer> lastLines = new HashMap<>();
+        List<BatchOrderException.LineError> errors = new ArrayList<>();
+        for (int line = 0; line < orderDTOs.size(); line++) {
+            OrderDTO orderDTO = orderDTOs.get(line);
+            Item item = items.get(orderDTO.getItemId());
+            if (item == null) {
+                errors.add(new BatchOrderException.LineError(line, orderDTO.getItemId(),
+                        "Item not found with id: " + orderDTO.getItemId()));
+                continue;
+            }
+            int total = requested.merge(item.getId(), orderDTO.getQuantity(), Integer::sum);
+            lastLines.put(item.getId(), line);
+            int stock = available.getOrDefault(item.getId(), 0);
+            if (total > stock) {
+                errors.add(new BatchOrderException.LineError(line, item.getId(),
+                        "Insufficient stock for item: " + item.getName() +
+                                " (Available: " + stock + ", Requested: " + total + ")"));
+            }
+        }
+        if (!errors.isEmpty()) {
+            throw batchRejected(errors, orderDTOs.size());
+        }
+
+        // One conditional withdrawal per item, still guarding against the balance going negative.
+        // The check above may have read a stale cached balance, so report a failure on the item's
+        // last line like the check would have
+        for (Map.Entry<Long, Integer> entry : requested.entrySet()) {
+            try {
+                stockService.withdraw(items.get(entry.getKey()), entry.getValue());
+            } catch (InsufficientStockException ex) {
+                errors.add(new BatchOrderException.LineError(lastLines.get(entry.getKey()), entry.getKey(),
+                        ex.getMessage()));
+            }
+        }
+        if (!errors.isEmpty()) {
+            throw batchRejected(errors, orderDTOs.size());
+        }
+
+        List<Order> orders = new ArrayList<>(orderDTOs.size());
+        List<Inventory> withdrawals = new ArrayList<>(orderDTOs.size());
+        for (OrderDTO orderDTO : orderDTOs) {
+            Item item = items.get(orderDTO.getItemId());
+
+            Order order = new Order();
+            order.setOrderNo(orderNumberAllocator.nextOrderNo());
+            order.setItem(item);
+            order.setQuantity(orderDTO.getQuantity());
+            order.setPrice(orderDTO.getPrice());
+            orders.add(order);
+
+            Inventory withdrawal = new Inventory();
+            withdrawal.setItem(item);
+            withdrawal.setQuantity(orderDTO.getQuantity());
+            withdrawal.setType("W"); // Withdrawal for order
+            withdrawals.add(withdrawal);
+        }
+
+        List<Order> savedOrders = orderRepository.saveAll(orders);
+        inventoryRepository.saveAll(withdrawals);
+        stockBucketService.record(withdrawals);
+        dailyRollupService.record(withdrawals);
+
+        return savedOrders.stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+    }
+
     @Transactional
     public OrderDTO updateOrder(Long id, OrderDTO orderDTO) {
         if (!orderRepository.existsById(id)) {
@@ -81,24 +238,22 @@ public class OrderService {
         // If the item or quantity changed, we need to check stock and adjust inventory
         if (!originalOrder.getItem().getId().equals(orderDTO.getItemId()) ||
                 !originalOrder.getQuantity().equals(orderDTO.getQuantity())) {
+            itemLock.lockUntilCompletion(originalOrder.getItem().getId(), orderDTO.getItemId());
 
             // Restore the original inventory by creating a top-up entry
+            stockService.adjust(originalOrder.getItem().getId(), originalOrder.getQuantity());
             Inventory topUp = new Inventory();
             topUp.setItem(originalOrder.getItem());
             topUp.setQuantity(originalOrder.getQuantity());
             topUp.setType("T"); // Top up for the returned items
             inventoryRepository.save(topUp);
+            stockBucketService.record(topUp);
+            dailyRollupService.record(topUp);
 
             // Check stock for the new order
-            Item newItem = itemRepository.findById(orderDTO.getItemId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Item not found with id: " + orderDTO.getItemId()));
-
-            Integer remainingStock = itemRepository.findRemainingStockByItemId(newItem.getId());
+            Item newItem = itemCatalog.getItem(orderDTO.getItemId());
 
-            if (remainingStock < orderDTO.getQuantity()) {
-                throw new InsufficientStockException("Insufficient stock for item: " + newItem.getName() +
-                        " (Available: " + remainingStock + ", Requested: " + orderDTO.getQuantity() + ")");
-            }
+            stockService.withdraw(newItem, orderDTO.getQuantity());
 
             // Create withdrawal for the new order
             Inventory withdrawal = new Inventory();
@@ -106,14 +261,18 @@ public class OrderService {
             withdrawal.setQuantity(orderDTO.getQuantity());
             withdrawal.setType("W"); // Withdrawal for order
             inventoryRepository.save(withdrawal);
+            stockBucketService.record(withdrawal);
+            dailyRollupService.record(withdrawal);
         }
 
         // Update the order
         Order order = convertToEntity(orderDTO);
         order.setId(id);
         order.setOrderNo(originalOrder.getOrderNo()); // Preserve the order number
+        order.setCreatedAt(originalOrder.getCreatedAt());
 
         Order updatedOrder = orderRepository.save(order);
+        eventPublisher.publishEvent(new OrderChangedEvent(id));
         return convertToDTO(updatedOrder);
     }
 
@@ -123,14 +282,23 @@ public class OrderService {
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + id));
 
         // Restore the inventory by creating a top-up entry
+        itemLock.lockUntilCompletion(order.getItem().getId());
+        stockService.adjust(order.getItem().getId(), order.getQuantity());
         Inventory topUp = new Inventory();
         topUp.setItem(order.getItem());
         topUp.setQuantity(order.getQuantity());
         topUp.setType("T"); // Top up for the returned items
         inventoryRepository.save(topUp);
+        stockBucketService.record(topUp);
+        dailyRollupService.record(topUp);
 
         // Delete the order
         orderRepository.deleteById(id);
+        eventPublisher.publishEvent(new OrderChangedEvent(id));
+    }
+
+    private static BatchOrderException batchRejected(List<BatchOrderException.LineError> errors, int lines) {
+        return new BatchOrderException("Batch rejected: " + errors.size() + " of " + lines + " lines failed", errors);
     }
 
     private OrderDTO convertToDTO(Order order) {
@@ -146,8 +314,7 @@ public class OrderService {
     }
 
     private Order convertToEntity(OrderDTO dto) {
-        Item item = itemRepository.findById(dto.getItemId())
-                .orElseThrow(() -> new ResourceNotFoundException("Item not found with id: " + dto.getItemId()));
+        Item item = itemCatalog.getItem(dto.getItemId());
 
         Order order = new Order();
         order.setId(dto.getId());
@@ -0,0 +1,186 @@
+package com.test_obs.inventoryms.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Order facts stored column by column in primitive arrays, ordered by order id: item, minute
+ * since the epoch, quantity and unit price in minor units. About 28 bytes per order and no
+ * object per row, so tens of millions of orders fit in memory and scan at memory speed.
+ * <p>
+ * Item ids are dictionary-encoded into dense {@code int} indexes. Deleted orders keep their
+ * row with a quantity of zero, which no live order can have. Not thread-safe; callers guard
+ * reads and writes with a read-write lock.
+ */
+class SalesColumns {
+    private static final int INITIAL_CAPACITY = 1024;
+    // Fewest rows scanned by one fork/join leaf
+    private static final int MIN_LEAF_ROWS = 1 << 15;
+    // Leaves per worker thread, enough to even out uneven leaves without merging many partial results
+    private static final int LEAVES_PER_THREAD = 4;
+
+    private long[] orderIds = new long[INITIAL_CAPACITY];
+    private int[] items = new int[INITIAL_CAPACITY];
+    private int[] minutes = new int[INITIAL_CAPACITY];
+    private int[] quantities = new int[INITIAL_CAPACITY];
+    private long[] prices = new long[INITIAL_CAPACITY];
+    private int size;
+
+    private final Map<Long, Integer> itemIndexes = new HashMap<>();
+    private long[] itemIds = new long[INITIAL_CAPACITY];
+
+    int size() {
+        return size;
+    }
+
+    long lastOrderId() {
+        return size == 0 ? 0 : orderIds[size - 1];
+    }
+
+    long itemId(int itemIndex) {
+        return itemIds[itemIndex];
+    }
+
+    /**
+     * @return the item's dense index, or -1 when no order of the item was ever added
+     */
+    int itemIndex(long itemId) {
+        Integer index = itemIndexes.get(itemId);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Adds an order with an id above every id added before.
+     */
+    void append(long orderId, long itemId, int minute, int quantity, long price) {
+        if (orderId <= lastOrderId()) {
+            throw new IllegalArgumentException("Order " + orderId + " is not after order " + lastOrderId());
+        }
+        if (size == orderIds.length) {
+            int capacity = size * 2;
+            orderIds = Arrays.copyOf(orderIds, capacity);
+            items = Arrays.copyOf(items, capacity);
+            minutes = Arrays.copyOf(minutes, capacity);
+            quantities = Arrays.copyOf(quantities, capacity);
+            prices = Arrays.copyOf(prices, capacity);
+        }
+        orderIds[size] = orderId;
+        set(size, itemId, minute, quantity, price);
+        size++;
+    }
+
+    /**
+     * @return false when the order was never added
+     */
+    boolean update(long orderId, long itemId, int minute, int quantity, long price) {
+        int row = Arrays.binarySearch(orderIds, 0, size, orderId);
+        if (row < 0) {
+            return false;
+        }
+        set(row, itemId, minute, quantity, price);
+        return true;
+    }
+
+    /**
+     * @return false when the order was never added
+     */
+    boolean remove(long orderId) {
+        int row = Arrays.binarySearch(orderIds, 0, size, orderId);
+        if (row < 0) {
+            return false;
+        }
+        quantities[row] = 0;
+        prices[row] = 0;
+        return true;
+    }
+
+    /**
+     * Sums orders, quantity and revenue per item and time bucket over the orders placed in
+     * {@code [fromMinute, toMinute)}, splitting the rows across the fork/join pool. Buckets are
+     * {@code bucketMinutes} wide and counted from {@code fromMinute}.
+     *
+     * @param itemIndex only this item, or -1 for all items
+     */
+    SalesGroups aggregate(int fromMinute, int toMinute, int bucketMinutes, int itemIndex) {
+        if (size == 0) {
+            return new SalesGroups();
+        }
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int leafRows = Math.max(MIN_LEAF_ROWS, size / (pool.getParallelism() * LEAVES_PER_THREAD));
+        return pool.invoke(new Aggregation(0, size, fromMinute, toMinute, bucketMinutes, itemIndex, leafRows));
+    }
+
+    private void set(int row, long itemId, int minute, int quantity, long price) {
+        items[row] = indexItem(itemId);
+        minutes[row] = minute;
+        quantities[row] = quantity;
+        prices[row] = price;
+    }
+
+    private int indexItem(long itemId) {
+        Integer index = itemIndexes.get(itemId);
+        if (index != null) {
+            return index;
+        }
+        int added = itemIndexes.size();
+        if (added == itemIds.length) {
+            itemIds = Arrays.copyOf(itemIds, added * 2);
+        }
+        itemIds[added] = itemId;
+        itemIndexes.put(itemId, added);
+        return added;
+    }
+
+    private class Aggregation extends RecursiveTask<SalesGroups> {
+        private final int from;
+        private final int to;
+        private final int fromMinute;
+        private final int toMinute;
+        private final int bucketMinutes;
+        private final int itemIndex;
+        private final int leafRows;
+
+        Aggregation(int from, int to, int fromMinute, int toMinute, int bucketMinutes, int itemIndex, int leafRows) {
+            this.from = from;
+            this.to = to;
+            this.fromMinute = fromMinute;
+            this.toMinute = toMinute;
+            this.bucketMinutes = bucketMinutes;
+            this.itemIndex = itemIndex;
+            this.leafRows = leafRows;
+        }
+
+        @Override
+        protected SalesGroups compute() {
+            if (to - from <= leafRows) {
+                return scan();
+            }
+            int middle = (from + to) >>> 1;
+            Aggregation left = new Aggregation(from, middle, fromMinute, toMinute, bucketMinutes, itemIndex, leafRows);
+            left.fork();
+            SalesGroups right = new Aggregation(middle, to, fromMinute, toMinute, bucketMinutes, itemIndex, leafRows).compute();
+            return SalesGroups.merge(left.join(), right);
+        }
+
+        private SalesGroups scan() {
+            SalesGroups groups = new SalesGroups();
+            for (int row = from; row < to; row++) {
+                int quantity = quantities[row];
+                int minute = minutes[row];
+                if (quantity == 0 || minute < fromMinute || minute >= toMinute) {
+                    continue;
+                }
+                int item = items[row];
+                if (itemIndex >= 0 && item != itemIndex) {
+                    continue;
+                }
+                int bucket = (minute - fromMinute) / bucketMinutes;
+                groups.add(SalesGroups.key(item, bucket), quantity, quantity * prices[row]);
+            }
+            return groups;
+        }
+    }
+}
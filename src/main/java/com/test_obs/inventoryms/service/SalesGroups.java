@@ -0,0 +1,120 @@
+package com.test_obs.inventoryms.service;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from an (item index, bucket) key to order count, quantity and
+ * revenue, so the hot loop of a sales aggregation allocates nothing per row.
+ */
+class SalesGroups {
+    private static final long EMPTY = -1;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private long[] keys = newKeys(INITIAL_CAPACITY);
+    private long[] orders = new long[INITIAL_CAPACITY];
+    private long[] quantities = new long[INITIAL_CAPACITY];
+    private long[] revenues = new long[INITIAL_CAPACITY];
+    private int size;
+
+    static long key(int itemIndex, int bucket) {
+        return (long) itemIndex << 32 | bucket;
+    }
+
+    static int itemIndex(long key) {
+        return (int) (key >>> 32);
+    }
+
+    static int bucket(long key) {
+        return (int) key;
+    }
+
+    static SalesGroups merge(SalesGroups left, SalesGroups right) {
+        SalesGroups into = left.size >= right.size ? left : right;
+        SalesGroups from = into == left ? right : left;
+        for (int slot = 0; slot < from.keys.length; slot++) {
+            if (from.keys[slot] != EMPTY) {
+                into.add(from.keys[slot], from.orders[slot], from.quantities[slot], from.revenues[slot]);
+            }
+        }
+        return into;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void add(long key, int quantity, long revenue) {
+        add(key, 1, quantity, revenue);
+    }
+
+    /**
+     * Calls {@code visitor} once per group, in no particular order.
+     */
+    void forEach(Visitor visitor) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY) {
+                visitor.visit(keys[slot], orders[slot], quantities[slot], revenues[slot]);
+            }
+        }
+    }
+
+    interface Visitor {
+        void visit(long key, long orders, long quantity, long revenue);
+    }
+
+    private void add(long key, long orderCount, long quantity, long revenue) {
+        int slot = slot(key);
+        if (keys[slot] == EMPTY) {
+            keys[slot] = key;
+            if (++size * 2 > keys.length) {
+                grow();
+                slot = slot(key);
+            }
+        }
+        orders[slot] += orderCount;
+        quantities[slot] += quantity;
+        revenues[slot] += revenue;
+    }
+
+    // Slot holding the key, or the empty slot where it belongs
+    private int slot(long key) {
+        int mask = keys.length - 1;
+        int slot = (int) (mix(key) & mask);
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        long[] oldOrders = orders;
+        long[] oldQuantities = quantities;
+        long[] oldRevenues = revenues;
+        int capacity = oldKeys.length * 2;
+        keys = newKeys(capacity);
+        orders = new long[capacity];
+        quantities = new long[capacity];
+        revenues = new long[capacity];
+        for (int old = 0; old < oldKeys.length; old++) {
+            if (oldKeys[old] != EMPTY) {
+                int slot = slot(oldKeys[old]);
+                keys[slot] = oldKeys[old];
+                orders[slot] = oldOrders[old];
+                quantities[slot] = oldQuantities[old];
+                revenues[slot] = oldRevenues[old];
+            }
+        }
+    }
+
+    private static long mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 32);
+    }
+
+    private static long[] newKeys(int capacity) {
+        long[] keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        return keys;
+    }
+}
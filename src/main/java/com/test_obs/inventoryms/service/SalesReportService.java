@@ -0,0 +1,257 @@
+package com.test_obs.inventoryms.service;
+
+import com.test_obs.inventoryms.config.InventoryProperties;
+import com.test_obs.inventoryms.dto.SalesReportDTO;
+import com.test_obs.inventoryms.dto.SalesReportRowDTO;
+import com.test_obs.inventoryms.exception.InvalidDateRangeException;
+import com.test_obs.inventoryms.repository.OrderRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Sales and revenue reports grouped by item and time bucket, answered from an in-memory copy
+ * of the order facts instead of paging orders out of the database.
+ * <p>
+ * Facts are kept in {@link SalesColumns} and refreshed incrementally: each refresh appends
+ * the orders after the last loaded id, leaving the ones younger than
+ * {@code inventory.sales-report.lag} so that transactions still in flight cannot commit an
+ * order behind it, and re-reads orders that were edited or deleted since. Reports therefore
+ * trail the database by up to a refresh interval plus the lag. Queries scan the columns in
+ * parallel on the fork/join pool and never wait for the database; refreshes only hold the
+ * write lock while applying rows already read.
+ */
+@Service
+public class SalesReportService {
+    // Order prices are kept as whole cents
+    private static final int PRICE_SCALE = 2;
+    private static final long PRICE_FACTOR = 100;
+    // Orders appended per write lock
+    private static final int APPEND_CHUNK_SIZE = 10_000;
+    // Changed orders re-read per query
+    private static final int CHANGE_CHUNK_SIZE = 1000;
+
+    public enum Bucket {
+        HOUR(60), DAY(24 * 60), WEEK(7 * 24 * 60), TOTAL(0);
+
+        private final int minutes;
+
+        Bucket(int minutes) {
+            this.minutes = minutes;
+        }
+    }
+
+    private final OrderRepository orderRepository;
+    private final ItemCatalog itemCatalog;
+    private final InventoryProperties.SalesReport settings;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final SalesColumns columns = new SalesColumns();
+    private final ReentrantReadWriteLock columnsLock = new ReentrantReadWriteLock();
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    // Edited or deleted orders waiting for the next refresh
+    private final Set<Long> changed = ConcurrentHashMap.newKeySet();
+
+    // Highest order id loaded so far; orders up to it are in the columns unless deleted
+    private volatile long watermark;
+
+    public SalesReportService(OrderRepository orderRepository,
+                              ItemCatalog itemCatalog,
+                              InventoryProperties properties,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry) {
+        this.orderRepository = orderRepository;
+        this.itemCatalog = itemCatalog;
+        this.settings = properties.getSalesReport();
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        Gauge.builder("inventory.sales_report.orders", this, SalesReportService::loadedOrders)
+                .description("Order facts held in memory for sales reports")
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener
+    public void onOrderChanged(OrderChangedEvent event) {
+        if (settings.isEnabled()) {
+            changed.add(event.getOrderId());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.sales-report.refresh-interval}")
+    public void scheduledRefresh() {
+        if (settings.isEnabled()) {
+            refresh();
+        }
+    }
+
+    /**
+     * Applies changed orders and appends new ones.
+     *
+     * @return the number of orders added, updated or removed
+     */
+    public int refresh() {
+        refreshLock.lock();
+        try {
+            return applyChanges() + appendNewOrders();
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * Orders, quantity and revenue per item and bucket for orders placed in {@code [from, to)},
+     * at minute resolution. Buckets are counted from {@code from}.
+     *
+     * @param itemId only this item, or null for all items
+     */
+    public SalesReportDTO getSalesReport(LocalDateTime from, LocalDateTime to, Bucket bucket, Long itemId) {
+        int fromMinute = epochMinute(from);
+        int toMinute = epochMinute(to);
+        if (toMinute <= fromMinute) {
+            throw new InvalidDateRangeException("Report end " + to + " must be at least a minute after its start " + from);
+        }
+        int bucketMinutes = bucket == Bucket.TOTAL ? toMinute - fromMinute : bucket.minutes;
+        long buckets = ((long) toMinute - fromMinute + bucketMinutes - 1) / bucketMinutes;
+        if (buckets > settings.getMaxBuckets()) {
+            throw new InvalidDateRangeException("Report would have " + buckets + " buckets, at most "
+                    + settings.getMaxBuckets() + " are allowed");
+        }
+        if (itemId != null) {
+            itemCatalog.getItem(itemId);
+        }
+
+        List<SalesReportRowDTO> rows = new ArrayList<>();
+        long lastOrderId;
+        columnsLock.readLock().lock();
+        try {
+            lastOrderId = watermark;
+            int itemIndex = itemId != null ? columns.itemIndex(itemId) : -1;
+            if (itemId == null || itemIndex >= 0) {
+                SalesGroups groups = columns.aggregate(fromMinute, toMinute, bucketMinutes, itemIndex);
+                groups.forEach((key, orders, quantity, revenue) -> rows.add(new SalesReportRowDTO(
+                        columns.itemId(SalesGroups.itemIndex(key)),
+                        from.plusMinutes((long) SalesGroups.bucket(key) * bucketMinutes),
+                        orders, quantity, BigDecimal.valueOf(revenue, PRICE_SCALE))));
+            }
+        } finally {
+            columnsLock.readLock().unlock();
+        }
+        rows.sort(Comparator.comparing(SalesReportRowDTO::getBucketStart).thenComparing(SalesReportRowDTO::getItemId));
+
+        long orders = 0;
+        long quantity = 0;
+        BigDecimal revenue = BigDecimal.ZERO.setScale(PRICE_SCALE);
+        for (SalesReportRowDTO row : rows) {
+            orders += row.getOrders();
+            quantity += row.getQuantity();
+            revenue = revenue.add(row.getRevenue());
+        }
+        return new SalesReportDTO(from, to, bucket.name(), lastOrderId, orders, quantity, revenue, rows);
+    }
+
+    public int loadedOrders() {
+        columnsLock.readLock().lock();
+        try {
+            return columns.size();
+        } finally {
+            columnsLock.readLock().unlock();
+        }
+    }
+
+    private int applyChanges() {
+        // Orders above the watermark are picked up with their current values when appended
+        List<Long> orderIds = new ArrayList<>();
+        for (Iterator<Long> pending = changed.iterator(); pending.hasNext(); ) {
+            Long orderId = pending.next();
+            pending.remove();
+            if (orderId <= watermark) {
+                orderIds.add(orderId);
+            }
+        }
+
+        for (int start = 0; start < orderIds.size(); start += CHANGE_CHUNK_SIZE) {
+            List<Long> chunk = orderIds.subList(start, Math.min(start + CHANGE_CHUNK_SIZE, orderIds.size()));
+            List<OrderRepository.OrderFact> facts = orderRepository.findFactsByIdIn(chunk);
+            Set<Long> deleted = new HashSet<>(chunk);
+            columnsLock.writeLock().lock();
+            try {
+                for (OrderRepository.OrderFact fact : facts) {
+                    deleted.remove(fact.getId());
+                    columns.update(fact.getId(), fact.getItemId(), epochMinute(fact.getCreatedAt()),
+                            fact.getQuantity(), minorUnits(fact.getPrice()));
+                }
+                deleted.forEach(columns::remove);
+            } finally {
+                columnsLock.writeLock().unlock();
+            }
+        }
+        return orderIds.size();
+    }
+
+    private int appendNewOrders() {
+        long from = watermark;
+        LocalDateTime cutoff = LocalDateTime.now().minus(settings.getLag());
+        Long upTo = orderRepository.findMaxIdCreatedBefore(from, cutoff);
+        if (upTo == null) {
+            return 0;
+        }
+
+        Integer appended = readOnlyTransaction.execute(status -> {
+            int count = 0;
+            List<OrderRepository.OrderFact> chunk = new ArrayList<>(APPEND_CHUNK_SIZE);
+            try (Stream<OrderRepository.OrderFact> facts = orderRepository.streamFactsBetween(from, upTo)) {
+                for (Iterator<OrderRepository.OrderFact> iterator = facts.iterator(); iterator.hasNext(); ) {
+                    chunk.add(iterator.next());
+                    if (chunk.size() == APPEND_CHUNK_SIZE) {
+                        count += append(chunk);
+                    }
+                }
+            }
+            return count + append(chunk);
+        });
+        watermark = upTo;
+        return appended != null ? appended : 0;
+    }
+
+    private int append(List<OrderRepository.OrderFact> chunk) {
+        int count = chunk.size();
+        columnsLock.writeLock().lock();
+        try {
+            for (OrderRepository.OrderFact fact : chunk) {
+                columns.append(fact.getId(), fact.getItemId(), epochMinute(fact.getCreatedAt()),
+                        fact.getQuantity(), minorUnits(fact.getPrice()));
+            }
+        } finally {
+            columnsLock.writeLock().unlock();
+        }
+        chunk.clear();
+        return count;
+    }
+
+    private static int epochMinute(LocalDateTime time) {
+        return (int) TimeUnit.SECONDS.toMinutes(time.toEpochSecond(ZoneOffset.UTC));
+    }
+
+    private static long minorUnits(Double price) {
+        return Math.round(price * PRICE_FACTOR);
+    }
+}
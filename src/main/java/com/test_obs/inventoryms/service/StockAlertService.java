@@ -0,0 +1,215 @@
+package com.test_obs.inventoryms.service;
+
+import com.test_obs.inventoryms.dto.StockAlertDTO;
+import com.test_obs.inventoryms.dto.StockThresholdDTO;
+import com.test_obs.inventoryms.exception.InvalidThresholdException;
+import com.test_obs.inventoryms.exception.ResourceNotFoundException;
+import com.test_obs.inventoryms.model.StockAlert;
+import com.test_obs.inventoryms.model.StockThreshold;
+import com.test_obs.inventoryms.repository.StockAlertRepository;
+import com.test_obs.inventoryms.repository.StockThresholdRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-item reorder thresholds and the feed of alerts they raise.
+ * <p>
+ * Thresholds are evaluated incrementally: every committed {@link StockChangedEvent} for an
+ * item with a threshold marks the item dirty, and a single background thread re-reads its
+ * available stock and compares it with the threshold. Nothing ever scans all items, and the
+ * writer only pays for a set insert. Changes that arrive while an item is already waiting are
+ * folded into one evaluation.
+ * <p>
+ * A threshold fires a {@code LOW} alert when available stock falls to the reorder level, and
+ * stays quiet until stock is back at the re-arm level, when it records {@code RESTOCKED}. The
+ * gap between the two levels keeps stock that hovers around the reorder level from flooding
+ * the feed.
+ */
+@Service
+public class StockAlertService {
+    private final StockThresholdRepository stockThresholdRepository;
+    private final StockAlertRepository stockAlertRepository;
+    private final ItemCatalog itemCatalog;
+    private final StockService stockService;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService evaluator;
+
+    // Items with a threshold; changes to any other item are ignored without touching the database
+    private final Set<Long> watched = ConcurrentHashMap.newKeySet();
+    // Items waiting for an evaluation
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    public StockAlertService(StockThresholdRepository stockThresholdRepository,
+                             StockAlertRepository stockAlertRepository,
+                             ItemCatalog itemCatalog,
+                             StockService stockService,
+                             PlatformTransactionManager transactionManager) {
+        this.stockThresholdRepository = stockThresholdRepository;
+        this.stockAlertRepository = stockAlertRepository;
+        this.itemCatalog = itemCatalog;
+        this.stockService = stockService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.evaluator = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "stock-alerts");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadThresholds() {
+        watched.addAll(stockThresholdRepository.findAllItemIds());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        evaluator.shutdown();
+        evaluator.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @TransactionalEventListener
+    public void onStockChanged(StockChangedEvent event) {
+        if (watched.contains(event.getItemId())) {
+            scheduleEvaluation(event.getItemId());
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public StockThresholdDTO getThreshold(Long itemId) {
+        return stockThresholdRepository.findById(itemId)
+                .map(this::convertToDTO)
+                .orElseThrow(() -> new ResourceNotFoundException("Stock threshold not found for item: " + itemId));
+    }
+
+    @Transactional
+    public StockThresholdDTO setThreshold(Long itemId, StockThresholdDTO thresholdDTO) {
+        itemCatalog.getItem(itemId);
+        int reorderLevel = thresholdDTO.getReorderLevel();
+        int rearmLevel = thresholdDTO.getRearmLevel() != null ? thresholdDTO.getRearmLevel() : reorderLevel + 1;
+        if (rearmLevel <= reorderLevel) {
+            throw new InvalidThresholdException("Re-arm level must be above the reorder level " + reorderLevel);
+        }
+
+        StockThreshold threshold = stockThresholdRepository.findByIdForUpdate(itemId).orElseGet(() -> {
+            StockThreshold created = new StockThreshold();
+            created.setItemId(itemId);
+            created.setLow(false);
+            return created;
+        });
+        threshold.setReorderLevel(reorderLevel);
+        threshold.setRearmLevel(rearmLevel);
+        StockThreshold savedThreshold = stockThresholdRepository.save(threshold);
+
+        // The item may already be past the new levels, so evaluate it once right away
+        afterCommit(() -> {
+            watched.add(itemId);
+            scheduleEvaluation(itemId);
+        });
+        return convertToDTO(savedThreshold);
+    }
+
+    @Transactional
+    public void deleteThreshold(Long itemId) {
+        if (!stockThresholdRepository.existsById(itemId)) {
+            throw new ResourceNotFoundException("Stock threshold not found for item: " + itemId);
+        }
+        stockThresholdRepository.deleteById(itemId);
+        afterCommit(() -> watched.remove(itemId));
+    }
+
+    /**
+     * Alerts newest first, optionally for one item.
+     */
+    @Transactional(readOnly = true)
+    public Page<StockAlertDTO> getAlerts(Long itemId, Pageable pageable) {
+        Pageable newestFirst = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(),
+                Sort.by(Sort.Direction.DESC, "id"));
+        Page<StockAlert> alerts = itemId != null
+                ? stockAlertRepository.findByItemId(itemId, newestFirst)
+                : stockAlertRepository.findAll(newestFirst);
+        return alerts.map(this::convertToDTO);
+    }
+
+    public int pendingEvaluations() {
+        return dirty.size();
+    }
+
+    private void scheduleEvaluation(Long itemId) {
+        if (dirty.add(itemId)) {
+            evaluator.execute(() -> evaluate(itemId));
+        }
+    }
+
+    private void evaluate(Long itemId) {
+        // Cleared before reading stock, so a change committed from here on schedules another run
+        dirty.remove(itemId);
+        transactionTemplate.executeWithoutResult(status ->
+                stockThresholdRepository.findByIdForUpdate(itemId).ifPresent(threshold -> {
+                    int available = stockService.getRemainingStock(itemId);
+                    if (!threshold.getLow() && available <= threshold.getReorderLevel()) {
+                        threshold.setLow(true);
+                        raise(threshold, StockAlert.Type.LOW, available);
+                    } else if (threshold.getLow() && available >= threshold.getRearmLevel()) {
+                        threshold.setLow(false);
+                        raise(threshold, StockAlert.Type.RESTOCKED, available);
+                    }
+                }));
+    }
+
+    private void raise(StockThreshold threshold, StockAlert.Type type, int available) {
+        StockAlert alert = new StockAlert();
+        alert.setItemId(threshold.getItemId());
+        alert.setType(type);
+        alert.setAvailable(available);
+        alert.setReorderLevel(threshold.getReorderLevel());
+        stockAlertRepository.save(alert);
+    }
+
+    private static void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private StockThresholdDTO convertToDTO(StockThreshold threshold) {
+        StockThresholdDTO dto = new StockThresholdDTO();
+        dto.setItemId(threshold.getItemId());
+        dto.setReorderLevel(threshold.getReorderLevel());
+        dto.setRearmLevel(threshold.getRearmLevel());
+        dto.setLow(threshold.getLow());
+        dto.setUpdatedAt(threshold.getUpdatedAt());
+        return dto;
+    }
+
+    private StockAlertDTO convertToDTO(StockAlert alert) {
+        StockAlertDTO dto = new StockAlertDTO();
+        dto.setId(alert.getId());
+        dto.setItemId(alert.getItemId());
+        dto.setType(alert.getType().name());
+        dto.setAvailable(alert.getAvailable());
+        dto.setReorderLevel(alert.getReorderLevel());
+        dto.setCreatedAt(alert.getCreatedAt());
+        return dto;
+    }
+}
@@ -0,0 +1,178 @@
+package com.test_obs.inventoryms.service;
+
+import com.test_obs.inventoryms.dto.StockAsOfDTO;
+import com.test_obs.inventoryms.model.Inventory;
+import com.test_obs.inventoryms.model.StockBucket;
+import com.test_obs.inventoryms.repository.InventoryRepository;
+import com.test_obs.inventoryms.repository.ItemRepository;
+import com.test_obs.inventoryms.repository.StockBucketRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Answers "what was the stock of this item at time T" from hourly buckets of cumulative
+ * ledger balance, instead of replaying the ledger. An as-of read is one bucket lookup plus a
+ * sum over the item's movements inside T's hour.
+ * <p>
+ * Buckets are kept current by the ledger writers, in the same transaction as the rows they
+ * write. A new row only touches its own hour; correcting an old row also shifts the later
+ * buckets of the item with one update. Writers have already updated the item's stock balance
+ * at that point, and that row lock keeps concurrent bucket updates for one item in order.
+ */
+@Service
+@RequiredArgsConstructor
+public class StockBucketService implements SmartInitializingSingleton {
+    private static final int REBUILD_FLUSH_SIZE = 1000;
+
+    private final StockBucketRepository stockBucketRepository;
+    private final InventoryRepository inventoryRepository;
+    private final ItemRepository itemRepository;
+    private final ItemCatalog itemCatalog;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+
+    public static LocalDateTime bucketStart(LocalDateTime time) {
+        return time.truncatedTo(ChronoUnit.HOURS);
+    }
+
+    @Transactional(readOnly = true)
+    public StockAsOfDTO getStockAsOf(Long itemId, LocalDateTime asOf) {
+        itemCatalog.getItem(itemId);
+        LocalDateTime hour = bucketStart(asOf);
+        int stock = closingBalanceBefore(itemId, hour)
+                + itemRepository.findRemainingStockByItemIdCreatedBetween(itemId, hour, asOf);
+        return new StockAsOfDTO(itemId, asOf, stock);
+    }
+
+    /**
+     * Adds newly persisted ledger rows to their buckets, one update per item and hour.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Collection<Inventory> inventories) {
+        Map<BucketKey, Integer> deltas = new LinkedHashMap<>();
+        for (Inventory inventory : inventories) {
+            deltas.merge(new BucketKey(inventory.getItem().getId(), bucketStart(inventory.getCreatedAt())),
+                    StockService.signedQuantity(inventory.getType(), inventory.getQuantity()), Integer::sum);
+        }
+        deltas.forEach((key, delta) -> apply(key.getItemId(), key.getBucketStart(), delta));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Inventory inventory) {
+        record(Collections.singletonList(inventory));
+    }
+
+    /**
+     * Applies a change to a ledger row created at {@code createdAt}, such as an edited or
+     * deleted movement.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCorrection(Long itemId, LocalDateTime createdAt, int delta) {
+        apply(itemId, bucketStart(createdAt), delta);
+    }
+
+    /**
+     * Buckets ledgers written before buckets existed, once, on the first start. Runs before the
+     * web server is started, so no ledger writes can interleave with the rebuild.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            if (stockBucketRepository.count() == 0 && inventoryRepository.count() > 0) {
+                rebuild();
+            }
+        });
+    }
+
+    /**
+     * Recomputes every bucket from the ledger in one pass over the movements, in item and time
+     * order. Not meant to run while the ledger is being written.
+     *
+     * @return the number of buckets written
+     */
+    @Transactional
+    public long rebuild() {
+        stockBucketRepository.deleteAllInBatch();
+
+        long written = 0;
+        StockBucket current = null;
+        try (Stream<InventoryRepository.LedgerMovement> movements = inventoryRepository.streamMovements()) {
+            Iterator<InventoryRepository.LedgerMovement> iterator = movements.iterator();
+            while (iterator.hasNext()) {
+                InventoryRepository.LedgerMovement movement = iterator.next();
+                LocalDateTime hour = bucketStart(movement.getCreatedAt());
+                int delta = StockService.signedQuantity(movement.getType(), movement.getQuantity());
+
+                if (current != null && current.getItemId().equals(movement.getItemId())
+                        && current.getBucketStart().equals(hour)) {
+                    current.setClosingBalance(current.getClosingBalance() + delta);
+                    continue;
+                }
+                int opening = current != null && current.getItemId().equals(movement.getItemId())
+                        ? current.getClosingBalance() : 0;
+                if (current != null) {
+                    written = persist(current, written);
+                }
+                current = new StockBucket(null, movement.getItemId(), hour, opening + delta);
+            }
+        }
+        if (current != null) {
+            written = persist(current, written);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return written;
+    }
+
+    private long persist(StockBucket bucket, long written) {
+        entityManager.persist(bucket);
+        if (++written % REBUILD_FLUSH_SIZE == 0) {
+            entityManager.flush();
+            entityManager.clear();
+        }
+        return written;
+    }
+
+    private void apply(Long itemId, LocalDateTime bucketStart, int delta) {
+        if (delta == 0) {
+            return;
+        }
+        if (stockBucketRepository.existsByItemIdAndBucketStart(itemId, bucketStart)) {
+            stockBucketRepository.shiftFrom(itemId, bucketStart, delta);
+            return;
+        }
+        int opening = closingBalanceBefore(itemId, bucketStart);
+        // Only finds buckets when an earlier hour is being corrected
+        stockBucketRepository.shiftFrom(itemId, bucketStart, delta);
+        stockBucketRepository.save(new StockBucket(null, itemId, bucketStart, opening + delta));
+    }
+
+    private int closingBalanceBefore(Long itemId, LocalDateTime bucketStart) {
+        List<Integer> closing = stockBucketRepository.findClosingBalancesBefore(itemId, bucketStart, PageRequest.of(0, 1));
+        return closing.isEmpty() ? 0 : closing.get(0);
+    }
+
+    @Value
+    private static class BucketKey {
+        Long itemId;
+        LocalDateTime bucketStart;
+    }
+}
@@ -0,0 +1,37 @@
+package com.test_obs.inventoryms.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published by {@link StockService} whenever an item's balance changes. Either carries the
+ * signed {@code delta} that was applied, or the new absolute {@code balance} when the balance
+ * was reset (item created or recalculated), or marks the balance as {@code removed} along with
+ * its item.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class StockChangedEvent {
+    private final Long itemId;
+    private final int delta;
+    private final Integer balance;
+    private final boolean removed;
+
+    public static StockChangedEvent delta(Long itemId, int delta) {
+        return new StockChangedEvent(itemId, delta, null, false);
+    }
+
+    public static StockChangedEvent reset(Long itemId, int balance) {
+        return new StockChangedEvent(itemId, 0, balance, false);
+    }
+
+    public static StockChangedEvent removed(Long itemId) {
+        return new StockChangedEvent(itemId, 0, null, true);
+    }
+
+    public boolean isReset() {
+        return balance != null;
+    }
+}
@@ -0,0 +1,169 @@
+package com.test_obs.inventoryms.service;
+
+import com.test_obs.inventoryms.config.InventoryProperties;
+import com.test_obs.inventoryms.model.StockCheckpoint;
+import com.test_obs.inventoryms.repository.InventoryRepository;
+import com.test_obs.inventoryms.repository.ItemRepository;
+import com.test_obs.inventoryms.repository.StockCheckpointRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Periodic per-item checkpoints of the inventory ledger, so a ledger balance is the
+ * checkpointed sum plus the few rows written after it instead of a scan of the item's whole
+ * history.
+ * <p>
+ * Each run only looks at ledger rows written since the previous run, and only at rows older
+ * than {@code inventory.checkpoint.lag} so that transactions still in flight cannot commit a
+ * row behind the watermark. Rows that are later edited or deleted while covered by a checkpoint
+ * are corrected through {@link #adjustCoveredRow(Long, Long, int)}. Both paths hold the
+ * {@link StripedItemLock} of the items involved.
+ * <p>
+ * The scheduled job is off by default ({@code inventory.checkpoint.enabled}). Its only reader
+ * is {@link #ledgerBalance(Long)}, the fallback for items without a stock balance row, which
+ * every ledger write now creates; {@link StockService#recalculate(Long)} deliberately sums the
+ * whole ledger. Enable it for ledgers with many items that predate the balance table.
+ */
+@Service
+@RequiredArgsConstructor
+public class StockCheckpointService {
+    private final StockCheckpointRepository stockCheckpointRepository;
+    private final InventoryRepository inventoryRepository;
+    private final ItemRepository itemRepository;
+    private final StripedItemLock itemLock;
+    private final InventoryProperties properties;
+    private final PlatformTransactionManager transactionManager;
+
+    private final ReentrantLock runLock = new ReentrantLock();
+
+    // Highest ledger id examined by the previous run; -1 until first read from the checkpoints
+    private long watermark = -1;
+
+    /**
+     * Sum of the item's ledger: its checkpoint plus every row after it.
+     */
+    @Transactional(readOnly = true)
+    public Integer ledgerBalance(Long itemId) {
+        StockCheckpoint checkpoint = stockCheckpointRepository.findById(itemId).orElse(null);
+        if (checkpoint == null) {
+            return itemRepository.findRemainingStockByItemId(itemId);
+        }
+        return checkpoint.getBalance() +
+                itemRepository.findRemainingStockByItemIdBetween(itemId, checkpoint.getLastInventoryId(), Long.MAX_VALUE);
+    }
+
+    /**
+     * Keeps a checkpoint right when a ledger row it already covers changes. Must run in the
+     * transaction that changes the row, with the item locked.
+     */
+    @Transactional
+    public void adjustCoveredRow(Long itemId, Long inventoryId, int delta) {
+        stockCheckpointRepository.findById(itemId)
+                .filter(checkpoint -> inventoryId <= checkpoint.getLastInventoryId())
+                .ifPresent(checkpoint -> checkpoint.setBalance(checkpoint.getBalance() + delta));
+    }
+
+    @Transactional
+    public void removeCheckpoint(Long itemId) {
+        if (stockCheckpointRepository.existsById(itemId)) {
+            stockCheckpointRepository.deleteById(itemId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.checkpoint.interval}",
+            initialDelayString = "${inventory.checkpoint.interval}")
+    public void scheduledCheckpoint() {
+        if (properties.getCheckpoint().isEnabled()) {
+            checkpoint();
+        }
+    }
+
+    /**
+     * Moves the checkpoint of every item with new ledger rows up to the newest row older than
+     * the configured lag.
+     *
+     * @return the number of items checkpointed
+     */
+    public int checkpoint() {
+        runLock.lock();
+        try {
+            return checkpointSinceWatermark();
+        } finally {
+            runLock.unlock();
+        }
+    }
+
+    private int checkpointSinceWatermark() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        if (watermark < 0) {
+            Long highest = stockCheckpointRepository.findMaxLastInventoryId();
+            watermark = highest != null ? highest : 0L;
+        }
+        long from = watermark;
+
+        LocalDateTime cutoff = LocalDateTime.now().minus(properties.getCheckpoint().getLag());
+        Long upTo = inventoryRepository.findMaxIdCreatedBefore(from, cutoff);
+        if (upTo == null) {
+            return 0;
+        }
+
+        List<Long> itemIds = inventoryRepository.findItemIdsWithMovementsBetween(from, upTo);
+        int chunkSize = properties.getCheckpoint().getItemChunkSize();
+        for (int start = 0; start < itemIds.size(); start += chunkSize) {
+            List<Long> chunk = itemIds.subList(start, Math.min(start + chunkSize, itemIds.size()));
+            transactionTemplate.executeWithoutResult(status -> checkpointItems(chunk, from, upTo));
+        }
+
+        // Checkpoints carry their own position, so an interrupted run only leaves longer tails
+        watermark = upTo;
+        return itemIds.size();
+    }
+
+    private void checkpointItems(List<Long> itemIds, long from, long upTo) {
+        itemLock.lockUntilCompletion(itemIds.toArray(new Long[0]));
+
+        Map<Long, StockCheckpoint> checkpoints = stockCheckpointRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(StockCheckpoint::getItemId, Function.identity()));
+
+        // Items already checkpointed up to the last watermark share one grouped sum over the new rows
+        Map<Long, Integer> newMovements = new HashMap<>();
+        List<Long> upToDate = itemIds.stream()
+                .filter(itemId -> checkpoints.containsKey(itemId) && checkpoints.get(itemId).getLastInventoryId() == from)
+                .collect(Collectors.toList());
+        if (!upToDate.isEmpty()) {
+            for (ItemRepository.ItemStock itemStock : itemRepository.findRemainingStockByItemIdsBetween(upToDate, from, upTo)) {
+                newMovements.put(itemStock.getItemId(), itemStock.getRemainingStock().intValue());
+            }
+        }
+
+        for (Long itemId : itemIds) {
+            StockCheckpoint checkpoint = checkpoints.get(itemId);
+            if (checkpoint == null) {
+                checkpoint = new StockCheckpoint();
+                checkpoint.setItemId(itemId);
+                checkpoint.setBalance(itemRepository.findRemainingStockByItemIdBetween(itemId, 0L, upTo));
+            } else if (checkpoint.getLastInventoryId() >= upTo) {
+                continue;
+            } else if (checkpoint.getLastInventoryId() == from) {
+                checkpoint.setBalance(checkpoint.getBalance() + newMovements.getOrDefault(itemId, 0));
+            } else {
+                checkpoint.setBalance(checkpoint.getBalance() + itemRepository.findRemainingStockByItemIdBetween(
+                        itemId, checkpoint.getLastInventoryId(), upTo));
+            }
+            checkpoint.setLastInventoryId(upTo);
+            stockCheckpointRepository.save(checkpoint);
+        }
+    }
+}
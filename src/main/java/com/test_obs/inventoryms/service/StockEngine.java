@@ -0,0 +1,332 @@
+package com.test_obs.inventoryms.service;
+
+import com.test_obs.inventoryms.config.InventoryProperties;
+import com.test_obs.inventoryms.dto.StockEngineConsistencyDTO;
+import com.test_obs.inventoryms.dto.StockEngineStatsDTO;
+import com.test_obs.inventoryms.model.StockBalance;
+import com.test_obs.inventoryms.repository.StockBalanceRepository;
+import com.test_obs.inventoryms.util.LongIntHashMap;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Optional in-process copy of every materialized stock balance, keyed by item id in a
+ * primitive {@link LongIntHashMap}.
+ * <p>
+ * Loaded from {@code stock_balance} once the application is ready and kept current from
+ * {@link StockChangedEvent}s after each transaction commits. Items the engine does not know
+ * about are left to the database, so a miss is always safe.
+ * <p>
+ * A load reads the table without blocking readers or writers, so it cannot tell whether a
+ * change committed while it was reading is part of what it read. Writers are therefore counted
+ * as in flight per item from their change until their transaction completes, and items changed
+ * during a load are read again once nothing is writing them, or else left to the database
+ * until their balance is next reset. Only the swap itself blocks readers.
+ */
+@Component
+@RequiredArgsConstructor
+public class StockEngine {
+    // Rough cost of one HashMap<Long, Integer> entry: node, boxed key, boxed value and table slot
+    private static final int BOXED_ENTRY_BYTES = 32 + 16 + 16 + 8;
+    private static final int MAX_REPORTED_MISMATCHES = 100;
+    // Passes over items that were being written during a load, before leaving them to the database
+    private static final int RELOAD_ATTEMPTS = 10;
+    private static final long RELOAD_BACKOFF_MILLIS = 20;
+
+    private final StockBalanceRepository stockBalanceRepository;
+    private final InventoryProperties properties;
+    private final PlatformTransactionManager transactionManager;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private LongIntHashMap balances;
+    private volatile boolean ready;
+
+    // Guards inFlight and touched; taken before lock when both are needed
+    private final ReentrantLock trackingLock = new ReentrantLock();
+    private final Map<Long, Integer> inFlight = new HashMap<>();
+    // Items changed since the running load started, null when no load is running
+    private Set<Long> touched;
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    public boolean isEnabled() {
+        return properties.getStockEngine().isEnabled();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        if (isEnabled()) {
+            rebuild();
+        }
+    }
+
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            trackingLock.lock();
+            try {
+                touched = new HashSet<>(inFlight.keySet());
+            } finally {
+                trackingLock.unlock();
+            }
+
+            try {
+                // One connection for all reads, taken before writers can be made to wait
+                readOnlyTransaction().executeWithoutResult(status -> swap(load()));
+            } finally {
+                trackingLock.lock();
+                touched = null;
+                trackingLock.unlock();
+            }
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    // Reads and commit-time updates carry on against the current table meanwhile
+    private LongIntHashMap load() {
+        LongIntHashMap loaded = new LongIntHashMap(properties.getStockEngine().getExpectedItems());
+        try (Stream<StockBalanceRepository.ItemBalance> stream = stockBalanceRepository.streamAllBalances()) {
+            stream.forEach(balance -> loaded.put(balance.getItemId(), balance.getBalance()));
+        }
+        return loaded;
+    }
+
+    private void swap(LongIntHashMap loaded) {
+        Set<Long> pending;
+        trackingLock.lock();
+        try {
+            // What the load read for these items may be missing changes or about to get them twice
+            lock.writeLock().lock();
+            try {
+                for (Long itemId : touched) {
+                    loaded.remove(itemId);
+                }
+                balances = loaded;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            pending = touched;
+            touched = null;
+        } finally {
+            trackingLock.unlock();
+        }
+
+        for (int attempt = 1; !pending.isEmpty() && attempt <= RELOAD_ATTEMPTS; attempt++) {
+            if (attempt > 1) {
+                try {
+                    Thread.sleep(RELOAD_BACKOFF_MILLIS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            pending = reload(pending);
+        }
+    }
+
+    /**
+     * Reads the balances of the given items that no transaction is writing. Like a full load it
+     * runs without holding up writers, and an item changed while it was being read is left out.
+     *
+     * @return the items being written before or during the read, left out for now
+     */
+    private Set<Long> reload(Set<Long> itemIds) {
+        Set<Long> writing = new HashSet<>();
+        Set<Long> idle = new HashSet<>();
+        trackingLock.lock();
+        try {
+            for (Long itemId : itemIds) {
+                if (inFlight.containsKey(itemId)) {
+                    writing.add(itemId);
+                } else {
+                    idle.add(itemId);
+                }
+            }
+            if (idle.isEmpty()) {
+                return writing;
+            }
+            touched = new HashSet<>();
+        } finally {
+            trackingLock.unlock();
+        }
+
+        // On failure rebuild() stops tracking
+        List<StockBalance> reloaded = stockBalanceRepository.findByItemIdIn(idle);
+
+        trackingLock.lock();
+        try {
+            lock.writeLock().lock();
+            try {
+                for (StockBalance stockBalance : reloaded) {
+                    if (!touched.contains(stockBalance.getItemId())) {
+                        balances.put(stockBalance.getItemId(), stockBalance.getBalance() - stockBalance.getHeld());
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            writing.addAll(touched);
+            touched = null;
+            return writing;
+        } finally {
+            trackingLock.unlock();
+        }
+    }
+
+    public OptionalInt getBalance(Long itemId) {
+        if (!ready) {
+            return OptionalInt.empty();
+        }
+        lock.readLock().lock();
+        try {
+            return balances.containsKey(itemId)
+                    ? OptionalInt.of(balances.get(itemId, 0))
+                    : OptionalInt.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Inside the writing transaction, right after the balance row was changed
+    @EventListener
+    public void onStockChanging(StockChangedEvent event) {
+        if (!isEnabled() || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        Long itemId = event.getItemId();
+        trackingLock.lock();
+        try {
+            inFlight.merge(itemId, 1, Integer::sum);
+            if (touched != null) {
+                touched.add(itemId);
+            }
+        } finally {
+            trackingLock.unlock();
+        }
+        // After completion runs after every after-commit listener, so the change has been applied
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                trackingLock.lock();
+                try {
+                    inFlight.computeIfPresent(itemId, (id, count) -> count == 1 ? null : count - 1);
+                } finally {
+                    trackingLock.unlock();
+                }
+            }
+        });
+    }
+
+    // Ahead of other listeners, so anything reacting to the change reads the new balance
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener
+    public void onStockChanged(StockChangedEvent event) {
+        // Before the first load the item is counted as in flight instead
+        if (!ready) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (event.isRemoved()) {
+                balances.remove(event.getItemId());
+            } else if (event.isReset()) {
+                balances.put(event.getItemId(), event.getBalance());
+            } else if (balances.containsKey(event.getItemId())) {
+                balances.addTo(event.getItemId(), event.getDelta());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public StockEngineStatsDTO getStats() {
+        StockEngineStatsDTO stats = new StockEngineStatsDTO();
+        stats.setEnabled(isEnabled());
+        stats.setReady(ready);
+        stats.setProjectedItems(1_000_000);
+        stats.setProjectedFootprintBytes(LongIntHashMap.footprintBytesFor(1_000_000));
+        stats.setProjectedBoxedMapBytes(1_000_000L * BOXED_ENTRY_BYTES);
+        if (ready) {
+            lock.readLock().lock();
+            try {
+                stats.setItems(balances.size());
+                stats.setCapacity(balances.capacity());
+                stats.setFootprintBytes(balances.footprintBytes());
+                stats.setBoxedMapBytes((long) balances.size() * BOXED_ENTRY_BYTES);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * Compares every materialized balance with the engine's copy.
+     */
+    @Transactional(readOnly = true)
+    public StockEngineConsistencyDTO checkConsistency() {
+        StockEngineConsistencyDTO report = new StockEngineConsistencyDTO();
+        report.setReady(ready);
+        if (!ready) {
+            return report;
+        }
+
+        List<StockEngineConsistencyDTO.Mismatch> mismatches = new ArrayList<>();
+        long[] counts = new long[2]; // checked, mismatched
+        lock.readLock().lock();
+        try (Stream<StockBalanceRepository.ItemBalance> stream = stockBalanceRepository.streamAllBalances()) {
+            stream.forEach(balance -> {
+                counts[0]++;
+                int engineBalance = balances.get(balance.getItemId(), Integer.MIN_VALUE);
+                if (engineBalance != balance.getBalance()) {
+                    counts[1]++;
+                    if (mismatches.size() < MAX_REPORTED_MISMATCHES) {
+                        mismatches.add(new StockEngineConsistencyDTO.Mismatch(balance.getItemId(),
+                                balance.getBalance(),
+                                engineBalance == Integer.MIN_VALUE ? null : engineBalance));
+                    }
+                }
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        report.setCheckedItems(counts[0]);
+        report.setMismatchedItems(counts[1]);
+        report.setMismatches(mismatches);
+        report.setConsistent(counts[1] == 0);
+        return report;
+    }
+
+    private TransactionTemplate readOnlyTransaction() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        return transactionTemplate;
+    }
+}
@@ -0,0 +1,269 @@
+package com.test_obs.inventoryms.service;
+
+import com.test_obs.inventoryms.config.InventoryProperties;
+import com.test_obs.inventoryms.dto.OrderDTO;
+import com.test_obs.inventoryms.dto.StockHoldDTO;
+import com.test_obs.inventoryms.exception.HoldNotActiveException;
+import com.test_obs.inventoryms.exception.ResourceNotFoundException;
+import com.test_obs.inventoryms.model.Item;
+import com.test_obs.inventoryms.model.StockHold;
+import com.test_obs.inventoryms.repository.StockHoldRepository;
+import com.test_obs.inventoryms.util.HashedTimerWheel;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Soft stock reservations for checkouts. A hold takes its quantity out of the available
+ * stock for a limited time; it is then either confirmed into an order or released, by the
+ * client or by expiry.
+ * <p>
+ * Expiry is driven by an in-process {@link HashedTimerWheel} instead of polling the
+ * {@code stock_holds} table, so pending holds cost memory but no CPU until they fall due.
+ * The table is the source of truth: active holds are put back on the wheel at startup, and
+ * every state change claims the hold row with a locking read, so a hold is confirmed,
+ * released or expired exactly once. Confirming or releasing a hold cancels its expiry.
+ */
+@Slf4j
+@Service
+public class StockHoldService {
+    // Delay before expiring a batch again after its transaction failed
+    private static final Duration EXPIRY_RETRY_DELAY = Duration.ofSeconds(5);
+
+    private final StockHoldRepository stockHoldRepository;
+    private final ItemCatalog itemCatalog;
+    private final StockService stockService;
+    private final OrderService orderService;
+    private final StripedItemLock itemLock;
+    private final InventoryProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final HashedTimerWheel<HoldExpiry> expiryWheel;
+    // The scheduled expiry of every hold on the wheel, by hold id
+    private final Map<Long, HashedTimerWheel.Timeout<HoldExpiry>> expiries = new ConcurrentHashMap<>();
+
+    public StockHoldService(StockHoldRepository stockHoldRepository,
+                            ItemCatalog itemCatalog,
+                            StockService stockService,
+                            OrderService orderService,
+                            StripedItemLock itemLock,
+                            InventoryProperties properties,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry) {
+        this.stockHoldRepository = stockHoldRepository;
+        this.itemCatalog = itemCatalog;
+        this.stockService = stockService;
+        this.orderService = orderService;
+        this.itemLock = itemLock;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.expiryWheel = new HashedTimerWheel<>("stock-hold-expiry",
+                properties.getHolds().getTimerTick(), properties.getHolds().getWheelSize(), this::expire);
+        Gauge.builder("inventory.holds.pending", expiryWheel, HashedTimerWheel::pending)
+                .description("Stock holds waiting for their expiry")
+                .register(meterRegistry);
+    }
+
+    @Value
+    private static class HoldExpiry {
+        Long holdId;
+        Long itemId;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadActiveHolds() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            try (Stream<StockHoldRepository.ActiveHold> holds = stockHoldRepository.streamActiveHolds()) {
+                holds.forEach(hold -> scheduleExpiry(new HoldExpiry(hold.getId(), hold.getItemId()),
+                        Duration.between(now, hold.getExpiresAt())));
+            }
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        expiryWheel.close();
+    }
+
+    @Transactional(readOnly = true)
+    public StockHoldDTO getHoldById(Long id) {
+        StockHold hold = stockHoldRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Stock hold not found with id: " + id));
+        return convertToDTO(hold);
+    }
+
+    @Transactional
+    public StockHoldDTO placeHold(StockHoldDTO holdDTO) {
+        Item item = itemCatalog.getItem(holdDTO.getItemId());
+        Duration ttl = holdTime(holdDTO.getTtlSeconds());
+
+        itemLock.lockUntilCompletion(item.getId());
+        stockService.hold(item, holdDTO.getQuantity());
+
+        StockHold hold = new StockHold();
+        hold.setItemId(item.getId());
+        hold.setQuantity(holdDTO.getQuantity());
+        hold.setPrice(holdDTO.getPrice());
+        hold.setStatus(StockHold.Status.ACTIVE);
+        hold.setExpiresAt(LocalDateTime.now().plus(ttl));
+        StockHold savedHold = stockHoldRepository.save(hold);
+
+        // Only a committed hold can expire
+        HoldExpiry expiry = new HoldExpiry(savedHold.getId(), savedHold.getItemId());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                scheduleExpiry(expiry, ttl);
+            }
+        });
+        return convertToDTO(savedHold);
+    }
+
+    @Transactional
+    public OrderDTO confirmHold(Long id) {
+        StockHold hold = claimActiveHold(id);
+        OrderDTO order = orderService.saveHeldOrder(hold.getItemId(), hold.getQuantity(), hold.getPrice());
+        hold.setStatus(StockHold.Status.CONFIRMED);
+        hold.setOrderId(order.getId());
+        cancelExpiryAfterCommit(id);
+        return order;
+    }
+
+    @Transactional
+    public void releaseHold(Long id) {
+        StockHold hold = claimActiveHold(id);
+        hold.setStatus(StockHold.Status.RELEASED);
+        stockService.releaseHold(hold.getItemId(), hold.getQuantity());
+        cancelExpiryAfterCommit(id);
+    }
+
+    public int pendingExpiries() {
+        return expiryWheel.pending();
+    }
+
+    // Locks the hold's item and row, and fails unless the hold is still active and unexpired
+    private StockHold claimActiveHold(Long id) {
+        Long itemId = stockHoldRepository.findItemIdById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Stock hold not found with id: " + id));
+        itemLock.lockUntilCompletion(itemId);
+        StockHold hold = stockHoldRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Stock hold not found with id: " + id));
+        if (hold.getStatus() != StockHold.Status.ACTIVE) {
+            throw new HoldNotActiveException("Stock hold " + id + " is " + hold.getStatus().name().toLowerCase());
+        }
+        if (!hold.getExpiresAt().isAfter(LocalDateTime.now())) {
+            // Due but not reached by the timer wheel yet
+            throw new HoldNotActiveException("Stock hold " + id + " has expired");
+        }
+        return hold;
+    }
+
+    private void scheduleExpiry(HoldExpiry expiry, Duration delay) {
+        HashedTimerWheel.Timeout<HoldExpiry> timeout = expiryWheel.schedule(expiry, delay);
+        HashedTimerWheel.Timeout<HoldExpiry> previous = expiries.put(expiry.getHoldId(), timeout);
+        if (previous != null) {
+            previous.cancel();
+        }
+    }
+
+    // A settled hold needs no expiry, and would otherwise sit on the wheel until its time is up
+    private void cancelExpiryAfterCommit(Long holdId) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                HashedTimerWheel.Timeout<HoldExpiry> timeout = expiries.remove(holdId);
+                if (timeout != null) {
+                    timeout.cancel();
+                }
+            }
+        });
+    }
+
+    private Duration holdTime(Long ttlSeconds) {
+        InventoryProperties.Holds holds = properties.getHolds();
+        if (ttlSeconds == null) {
+            return holds.getDefaultTtl();
+        }
+        Duration requested = Duration.ofSeconds(ttlSeconds);
+        return requested.compareTo(holds.getMaxTtl()) > 0 ? holds.getMaxTtl() : requested;
+    }
+
+    // Runs on the timer wheel thread with every hold that fell due in one tick
+    private void expire(List<HoldExpiry> due) {
+        for (HoldExpiry expiry : due) {
+            expiries.remove(expiry.getHoldId());
+        }
+        int chunkSize = properties.getHolds().getExpiryChunkSize();
+        for (int from = 0; from < due.size(); from += chunkSize) {
+            List<HoldExpiry> chunk = due.subList(from, Math.min(from + chunkSize, due.size()));
+            try {
+                transactionTemplate.executeWithoutResult(status -> expireChunk(chunk));
+            } catch (RuntimeException ex) {
+                // The holds are still active in the table, so simply try them again later; the
+                // other chunks of this tick are no longer on the wheel and must still be expired
+                log.warn("Expiring {} stock holds failed, retrying in {}", chunk.size(), EXPIRY_RETRY_DELAY, ex);
+                for (HoldExpiry expiry : chunk) {
+                    scheduleExpiry(expiry, EXPIRY_RETRY_DELAY);
+                }
+            }
+        }
+    }
+
+    private void expireChunk(List<HoldExpiry> chunk) {
+        itemLock.lockUntilCompletion(chunk.stream().map(HoldExpiry::getItemId).toArray(Long[]::new));
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> holdIds = chunk.stream().map(HoldExpiry::getHoldId).collect(Collectors.toList());
+        Map<Long, Integer> released = new HashMap<>();
+        List<HoldExpiry> notDueYet = new ArrayList<>();
+        for (StockHold hold : stockHoldRepository.findActiveByIdInForUpdate(holdIds)) {
+            if (hold.getExpiresAt().isAfter(now)) {
+                // The wheel's clock ran slightly ahead of the wall clock
+                notDueYet.add(new HoldExpiry(hold.getId(), hold.getItemId()));
+                continue;
+            }
+            hold.setStatus(StockHold.Status.EXPIRED);
+            released.merge(hold.getItemId(), hold.getQuantity(), Integer::sum);
+        }
+        released.forEach(stockService::releaseHold);
+
+        for (HoldExpiry expiry : notDueYet) {
+            scheduleExpiry(expiry, properties.getHolds().getTimerTick());
+        }
+    }
+
+    private StockHoldDTO convertToDTO(StockHold hold) {
+        StockHoldDTO dto = new StockHoldDTO();
+        dto.setId(hold.getId());
+        dto.setItemId(hold.getItemId());
+        dto.setQuantity(hold.getQuantity());
+        dto.setPrice(hold.getPrice());
+        dto.setStatus(hold.getStatus().name());
+        dto.setOrderId(hold.getOrderId());
+        dto.setExpiresAt(hold.getExpiresAt());
+        dto.setCreatedAt(hold.getCreatedAt());
+        return dto;
+    }
+}
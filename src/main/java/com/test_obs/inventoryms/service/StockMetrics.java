@@ -0,0 +1,79 @@
+package com.test_obs.inventoryms.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Meters for the stock checks done by {@link StockService}: how long balance lookups,
+ * withdrawals and holds take, and how often an item runs out.
+ */
+@Component
+public class StockMetrics {
+    private final MeterRegistry meterRegistry;
+    private final Timer lookupTimer;
+    private final Timer batchLookupTimer;
+    private final Timer withdrawTimer;
+    private final Timer insufficientWithdrawTimer;
+    private final Timer holdTimer;
+    private final Timer insufficientHoldTimer;
+
+    public StockMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.lookupTimer = checkTimer("lookup", "ok");
+        this.batchLookupTimer = checkTimer("batch_lookup", "ok");
+        this.withdrawTimer = checkTimer("withdraw", "ok");
+        this.insufficientWithdrawTimer = checkTimer("withdraw", "insufficient");
+        this.holdTimer = checkTimer("hold", "ok");
+        this.insufficientHoldTimer = checkTimer("hold", "insufficient");
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(meterRegistry);
+    }
+
+    public void lookupDone(Timer.Sample sample) {
+        sample.stop(lookupTimer);
+    }
+
+    public void batchLookupDone(Timer.Sample sample) {
+        sample.stop(batchLookupTimer);
+    }
+
+    public void withdrawDone(Timer.Sample sample) {
+        sample.stop(withdrawTimer);
+    }
+
+    public void holdDone(Timer.Sample sample) {
+        sample.stop(holdTimer);
+    }
+
+    public void insufficientStock(Timer.Sample sample, Long itemId) {
+        sample.stop(insufficientWithdrawTimer);
+        countInsufficient(itemId, "withdraw");
+    }
+
+    public void insufficientStockForHold(Timer.Sample sample, Long itemId) {
+        sample.stop(insufficientHoldTimer);
+        countInsufficient(itemId, "hold");
+    }
+
+    private void countInsufficient(Long itemId, String operation) {
+        Counter.builder("inventory.stock.insufficient")
+                .description("Withdrawals and holds rejected for lack of stock")
+                .tag("operation", operation)
+                .tag("item", String.valueOf(itemId))
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private Timer checkTimer(String operation, String outcome) {
+        return Timer.builder("inventory.stock.check")
+                .description("Latency of stock balance lookups, withdrawals and holds")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
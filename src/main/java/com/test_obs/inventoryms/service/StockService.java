@@ -0,0 +1,277 @@
+package com.test_obs.inventoryms.service;
+
+import com.test_obs.inventoryms.exception.InsufficientStockException;
+import com.test_obs.inventoryms.model.Item;
+import com.test_obs.inventoryms.model.StockBalance;
+import com.test_obs.inventoryms.repository.ItemRepository;
+import com.test_obs.inventoryms.repository.StockBalanceRepository;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.Set;
+
+/**
+ * Keeps the materialized per-item stock balance in step with the inventory ledger.
+ * <p>
+ * Every ledger write must go through {@link #adjust(Long, int)} in the same transaction,
+ * before the {@code Inventory} row itself is saved. Items that predate the balance table
+ * are initialised lazily from the ledger the first time they are touched, under the
+ * {@link StripedItemLock}; writers lock their items up front so that only re-enters it. Every change is
+ * announced as a {@link StockChangedEvent}, and reads are served by the {@link StockEngine}
+ * when it is enabled.
+ * <p>
+ * Stock reserved by active holds is tracked next to the balance. Reads, withdrawals and new
+ * holds all see the available stock, which is the balance minus what is held.
+ */
+@Service
+@RequiredArgsConstructor
+public class StockService {
+    private final StockBalanceRepository stockBalanceRepository;
+    private final ItemRepository itemRepository;
+    private final StockEngine stockEngine;
+    private final ApplicationEventPublisher eventPublisher;
+    private final StockMetrics stockMetrics;
+    private final StockCheckpointService stockCheckpointService;
+    private final StripedItemLock itemLock;
+
+    public static int signedQuantity(String type, int quantity) {
+        return "T".equals(type) ? quantity : -quantity;
+    }
+
+    @Transactional(readOnly = true)
+    public Integer getRemainingStock(Long itemId) {
+        Timer.Sample sample = stockMetrics.start();
+        try {
+            return lookupRemainingStock(itemId);
+        } finally {
+            stockMetrics.lookupDone(sample);
+        }
+    }
+
+    private Integer lookupRemainingStock(Long itemId) {
+        OptionalInt cached = stockEngine.getBalance(itemId);
+        if (cached.isPresent()) {
+            return cached.getAsInt();
+        }
+
+        Integer available = stockBalanceRepository.findAvailableByItemId(itemId);
+        if (available != null) {
+            return available;
+        }
+        // Not materialized yet, fall back to the checkpointed ledger
+        return stockCheckpointService.ledgerBalance(itemId);
+    }
+
+    /**
+     * Looks up the balances of a whole page of items at once. Items without a materialized
+     * balance are resolved with a single grouped ledger query; items with no movements map to 0.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, Integer> getRemainingStockByItemIds(Collection<Long> itemIds) {
+        Timer.Sample sample = stockMetrics.start();
+        try {
+            return lookupRemainingStock(itemIds);
+        } finally {
+            stockMetrics.batchLookupDone(sample);
+        }
+    }
+
+    private Map<Long, Integer> lookupRemainingStock(Collection<Long> itemIds) {
+        Map<Long, Integer> remainingStock = new HashMap<>();
+        Set<Long> missing = new HashSet<>();
+        for (Long itemId : itemIds) {
+            OptionalInt cached = stockEngine.getBalance(itemId);
+            if (cached.isPresent()) {
+                remainingStock.put(itemId, cached.getAsInt());
+            } else {
+                missing.add(itemId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return remainingStock;
+        }
+
+        for (StockBalance stockBalance : stockBalanceRepository.findByItemIdIn(missing)) {
+            remainingStock.put(stockBalance.getItemId(), stockBalance.getBalance() - stockBalance.getHeld());
+        }
+
+        missing.removeAll(remainingStock.keySet());
+        if (!missing.isEmpty()) {
+            for (ItemRepository.ItemStock itemStock : itemRepository.findRemainingStockByItemIds(missing)) {
+                remainingStock.put(itemStock.getItemId(), itemStock.getRemainingStock().intValue());
+            }
+            for (Long itemId : missing) {
+                remainingStock.putIfAbsent(itemId, 0);
+            }
+        }
+        return remainingStock;
+    }
+
+    /**
+     * Version of the item's materialized balance, bumped on every movement, or null when the
+     * balance has not been materialized yet. Every ledger write materializes the balance, so
+     * an item without one has not moved since and its stock is unchanged.
+     */
+    @Transactional(readOnly = true)
+    public Long getBalanceVersion(Long itemId) {
+        return stockBalanceRepository.findVersionByItemId(itemId);
+    }
+
+    @Transactional(readOnly = true)
+    public Map<Long, Long> getBalanceVersions(Collection<Long> itemIds) {
+        Map<Long, Long> versions = new HashMap<>();
+        if (itemIds.isEmpty()) {
+            return versions;
+        }
+        for (StockBalanceRepository.ItemVersion itemVersion : stockBalanceRepository.findVersionsByItemIdIn(itemIds)) {
+            versions.put(itemVersion.getItemId(), itemVersion.getVersion());
+        }
+        return versions;
+    }
+
+    @Transactional
+    public void initializeBalance(Long itemId) {
+        createBalance(itemId, 0);
+        eventPublisher.publishEvent(StockChangedEvent.reset(itemId, 0));
+    }
+
+    @Transactional
+    public void adjust(Long itemId, int delta) {
+        if (stockBalanceRepository.adjustBalance(itemId, delta) == 1) {
+            eventPublisher.publishEvent(StockChangedEvent.delta(itemId, delta));
+            return;
+        }
+
+        // Materializing is check-then-insert, so do it under the item lock and check again
+        itemLock.lockUntilCompletion(itemId);
+        if (stockBalanceRepository.adjustBalance(itemId, delta) == 1) {
+            eventPublisher.publishEvent(StockChangedEvent.delta(itemId, delta));
+            return;
+        }
+        int balance = stockCheckpointService.ledgerBalance(itemId) + delta;
+        createBalance(itemId, balance);
+        eventPublisher.publishEvent(StockChangedEvent.reset(itemId, balance));
+    }
+
+    /**
+     * Atomically takes {@code quantity} out of the item's balance, failing instead of going
+     * negative. The check and the decrement are a single conditional update, so concurrent
+     * withdrawals can never oversell.
+     */
+    @Transactional
+    public void withdraw(Item item, int quantity) {
+        Timer.Sample sample = stockMetrics.start();
+        if (stockBalanceRepository.withdrawIfAvailable(item.getId(), quantity) == 1) {
+            eventPublisher.publishEvent(StockChangedEvent.delta(item.getId(), -quantity));
+            stockMetrics.withdrawDone(sample);
+            return;
+        }
+
+        Integer available = stockBalanceRepository.findAvailableByItemId(item.getId());
+        if (available == null) {
+            // Balance not materialized yet, build it from the ledger and try once more
+            available = recalculate(item.getId());
+            if (stockBalanceRepository.withdrawIfAvailable(item.getId(), quantity) == 1) {
+                eventPublisher.publishEvent(StockChangedEvent.delta(item.getId(), -quantity));
+                stockMetrics.withdrawDone(sample);
+                return;
+            }
+        }
+
+        stockMetrics.insufficientStock(sample, item.getId());
+        throw new InsufficientStockException("Insufficient stock for item: " + item.getName() +
+                " (Available: " + available + ", Requested: " + quantity + ")");
+    }
+
+    /**
+     * Reserves {@code quantity} of the item for a stock hold. Like {@link #withdraw(Item, int)}
+     * the check and the reservation are one conditional update.
+     */
+    @Transactional
+    public void hold(Item item, int quantity) {
+        Timer.Sample sample = stockMetrics.start();
+        if (stockBalanceRepository.holdIfAvailable(item.getId(), quantity) == 1) {
+            eventPublisher.publishEvent(StockChangedEvent.delta(item.getId(), -quantity));
+            stockMetrics.holdDone(sample);
+            return;
+        }
+
+        Integer available = stockBalanceRepository.findAvailableByItemId(item.getId());
+        if (available == null) {
+            available = recalculate(item.getId());
+            if (stockBalanceRepository.holdIfAvailable(item.getId(), quantity) == 1) {
+                eventPublisher.publishEvent(StockChangedEvent.delta(item.getId(), -quantity));
+                stockMetrics.holdDone(sample);
+                return;
+            }
+        }
+
+        stockMetrics.insufficientStockForHold(sample, item.getId());
+        throw new InsufficientStockException("Insufficient stock for item: " + item.getName() +
+                " (Available: " + available + ", Requested: " + quantity + ")");
+    }
+
+    /**
+     * Gives held stock back, for a hold that expired or was released.
+     */
+    @Transactional
+    public void releaseHold(Long itemId, int quantity) {
+        if (stockBalanceRepository.releaseHeld(itemId, quantity) == 1) {
+            eventPublisher.publishEvent(StockChangedEvent.delta(itemId, quantity));
+        }
+    }
+
+    /**
+     * Withdraws stock that was held for a confirmed hold. It was already taken out of the
+     * available stock when the hold was placed, so readers see no change.
+     */
+    @Transactional
+    public void consumeHold(Long itemId, int quantity) {
+        stockBalanceRepository.consumeHeld(itemId, quantity);
+    }
+
+    /**
+     * Rebuilds the item's balance from the ledger, keeping what is held. Takes the item lock,
+     * so two first touches of an item cannot both insert its balance row.
+     *
+     * @return the available stock
+     */
+    @Transactional
+    public Integer recalculate(Long itemId) {
+        itemLock.lockUntilCompletion(itemId);
+        Integer ledgerBalance = itemRepository.findRemainingStockByItemId(itemId);
+        if (stockBalanceRepository.overwriteBalance(itemId, ledgerBalance) == 0) {
+            createBalance(itemId, ledgerBalance);
+        }
+        Integer held = stockBalanceRepository.findHeldByItemId(itemId);
+        int available = ledgerBalance - (held == null ? 0 : held);
+        eventPublisher.publishEvent(StockChangedEvent.reset(itemId, available));
+        return available;
+    }
+
+    @Transactional
+    public void removeBalance(Long itemId) {
+        if (stockBalanceRepository.existsById(itemId)) {
+            stockBalanceRepository.deleteById(itemId);
+        }
+        stockCheckpointService.removeCheckpoint(itemId);
+        eventPublisher.publishEvent(StockChangedEvent.removed(itemId));
+    }
+
+    private void createBalance(Long itemId, int balance) {
+        StockBalance stockBalance = new StockBalance();
+        stockBalance.setItemId(itemId);
+        stockBalance.setBalance(balance);
+        stockBalance.setHeld(0);
+        stockBalance.setVersion(0L);
+        stockBalanceRepository.save(stockBalance);
+    }
+}
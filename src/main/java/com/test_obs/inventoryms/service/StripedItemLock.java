@@ -0,0 +1,62 @@
+package com.test_obs.inventoryms.service;
+
+import com.test_obs.inventoryms.config.InventoryProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Per-item lock stripes that serialize stock withdrawals for the same item inside this JVM.
+ * <p>
+ * Locks are held until the surrounding transaction completes, so the next writer for the
+ * item only sees the committed balance. Correctness across instances still comes from the
+ * conditional update in {@link StockService#withdraw}; the stripes just keep concurrent
+ * writers from piling up on the same database row lock.
+ */
+@Component
+public class StripedItemLock {
+    private final ReentrantLock[] stripes;
+
+    public StripedItemLock(InventoryProperties properties) {
+        int size = Integer.highestOneBit(Math.max(1, properties.getOrder().getLockStripes() - 1)) << 1;
+        stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Locks every item the transaction is about to withdraw from. Stripes are always taken in
+     * ascending order, so lock all items of a transaction in a single call to avoid deadlocks.
+     */
+    public void lockUntilCompletion(Long... itemIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Item locks can only be taken inside a transaction");
+        }
+
+        SortedSet<Integer> indexes = new TreeSet<>();
+        for (Long itemId : itemIds) {
+            indexes.add(stripeIndex(itemId));
+        }
+
+        for (Integer index : indexes) {
+            ReentrantLock lock = stripes[index];
+            lock.lock();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    lock.unlock();
+                }
+            });
+        }
+    }
+
+    private int stripeIndex(Long itemId) {
+        long hash = itemId * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 32) & (stripes.length - 1);
+    }
+}
@@ -0,0 +1,212 @@
+package com.test_obs.inventoryms.util;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timer wheel for large numbers of coarse-grained timeouts.
+ * <p>
+ * Deadlines are rounded to whole ticks and hashed into a ring of buckets. A single worker
+ * thread wakes up once per tick and only walks the bucket for that tick, so scheduling and
+ * cancelling are O(1) and the cost of an idle tick does not depend on how many timeouts are
+ * pending. Timeouts that fall due in the same tick are handed to the expiry callback as one
+ * batch, on the worker thread; a slow callback delays later ticks but never loses them.
+ */
+public class HashedTimerWheel<T> implements AutoCloseable {
+    // Upper bound on timeouts moved from the submission queue into the wheel per tick
+    private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+
+    private final long tickNanos;
+    private final List<Timeout<T>>[] buckets;
+    private final int mask;
+    private final Consumer<List<T>> onExpiry;
+    private final Queue<Timeout<T>> submitted = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final long startNanos;
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    // Only touched by the worker thread
+    private long tick;
+
+    @SuppressWarnings("unchecked")
+    public HashedTimerWheel(String name, Duration tickDuration, int wheelSize, Consumer<List<T>> onExpiry) {
+        if (tickDuration.isNegative() || tickDuration.isZero()) {
+            throw new IllegalArgumentException("Tick duration must be positive: " + tickDuration);
+        }
+        int size = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        this.tickNanos = tickDuration.toNanos();
+        this.buckets = new List[size];
+        for (int i = 0; i < size; i++) {
+            buckets[i] = new ArrayList<>();
+        }
+        this.mask = size - 1;
+        this.onExpiry = onExpiry;
+        this.startNanos = System.nanoTime();
+        this.worker = new Thread(this::run, name);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Schedules {@code task} to expire after {@code delay}, rounded up to the next tick.
+     * A zero or negative delay expires on the next tick.
+     */
+    public Timeout<T> schedule(T task, Duration delay) {
+        if (!running) {
+            throw new IllegalStateException("Timer wheel is closed");
+        }
+        long deadline = System.nanoTime() - startNanos + Math.max(0, delay.toNanos());
+        Timeout<T> timeout = new Timeout<>(task, deadline, pending);
+        pending.incrementAndGet();
+        submitted.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Timeouts scheduled and neither expired nor cancelled yet.
+     */
+    public int pending() {
+        return pending.get();
+    }
+
+    public int wheelSize() {
+        return buckets.length;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        worker.interrupt();
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        while (running) {
+            if (!sleepUntilNextTick()) {
+                return;
+            }
+            transferSubmitted();
+            List<T> expired = expireBucket(buckets[(int) (tick & mask)]);
+            tick++;
+            if (!expired.isEmpty()) {
+                try {
+                    onExpiry.accept(expired);
+                } catch (RuntimeException ex) {
+                    // Keep the wheel turning; report the failure like an uncaught exception would be
+                    worker.getUncaughtExceptionHandler().uncaughtException(worker, ex);
+                }
+            }
+        }
+    }
+
+    private boolean sleepUntilNextTick() {
+        long wakeUp = startNanos + (tick + 1) * tickNanos;
+        while (true) {
+            long sleepNanos = wakeUp - System.nanoTime();
+            if (sleepNanos <= 0) {
+                return true;
+            }
+            try {
+                TimeUnit.NANOSECONDS.sleep(sleepNanos);
+            } catch (InterruptedException ex) {
+                if (!running) {
+                    return false;
+                }
+            }
+        }
+    }
+
+    private void transferSubmitted() {
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+            Timeout<T> timeout = submitted.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.isCancelled()) {
+                continue;
+            }
+            long dueTick = timeout.deadline / tickNanos;
+            timeout.remainingRounds = (dueTick - tick) / buckets.length;
+            // Deadlines already in the past go into the bucket processed right now
+            buckets[(int) (Math.max(dueTick, tick) & mask)].add(timeout);
+        }
+    }
+
+    private List<T> expireBucket(List<Timeout<T>> bucket) {
+        List<T> expired = new ArrayList<>();
+        int i = 0;
+        while (i < bucket.size()) {
+            Timeout<T> timeout = bucket.get(i);
+            if (timeout.isCancelled() || timeout.remainingRounds <= 0) {
+                // Swap-remove, order within a bucket does not matter
+                bucket.set(i, bucket.get(bucket.size() - 1));
+                bucket.remove(bucket.size() - 1);
+                if (timeout.expire()) {
+                    expired.add(timeout.task);
+                }
+            } else {
+                timeout.remainingRounds--;
+                i++;
+            }
+        }
+        return expired;
+    }
+
+    public static final class Timeout<T> {
+        private static final int WAITING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final T task;
+        private final long deadline;
+        private final AtomicInteger pending;
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+
+        // Only touched by the worker thread
+        private long remainingRounds;
+
+        private Timeout(T task, long deadline, AtomicInteger pending) {
+            this.task = task;
+            this.deadline = deadline;
+            this.pending = pending;
+        }
+
+        public T getTask() {
+            return task;
+        }
+
+        /**
+         * @return false if the timeout already expired or was cancelled before
+         */
+        public boolean cancel() {
+            if (state.compareAndSet(WAITING, CANCELLED)) {
+                pending.decrementAndGet();
+                return true;
+            }
+            return false;
+        }
+
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        private boolean expire() {
+            if (state.compareAndSet(WAITING, EXPIRED)) {
+                pending.decrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    }
+}
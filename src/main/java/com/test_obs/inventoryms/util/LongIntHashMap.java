@@ -0,0 +1,223 @@
+package com.test_obs.inventoryms.util;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from primitive {@code long} keys to {@code int} values.
+ * <p>
+ * Keys and values live in two parallel arrays with linear probing, so an entry costs
+ * 12 bytes of table space instead of the ~70 bytes of a boxed {@code HashMap<Long, Integer>}
+ * entry, and lookups never allocate. Not thread-safe; callers guard access themselves.
+ */
+public class LongIntHashMap {
+    private static final long EMPTY = 0L;
+    private static final double LOAD_FACTOR = 0.75;
+    private static final int MIN_CAPACITY = 4;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int resizeAt;
+    private int size;
+
+    // Key 0 marks an empty slot, so it is stored on the side
+    private boolean hasZeroKey;
+    private int zeroValue;
+
+    public LongIntHashMap() {
+        this(16);
+    }
+
+    public LongIntHashMap(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    public int get(long key, int missingValue) {
+        if (key == EMPTY) {
+            return hasZeroKey ? zeroValue : missingValue;
+        }
+        int index = indexOf(key);
+        return index >= 0 ? values[index] : missingValue;
+    }
+
+    public boolean containsKey(long key) {
+        return key == EMPTY ? hasZeroKey : indexOf(key) >= 0;
+    }
+
+    public void put(long key, int value) {
+        if (key == EMPTY) {
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            zeroValue = value;
+            return;
+        }
+        int index = indexOf(key);
+        if (index >= 0) {
+            values[index] = value;
+        } else {
+            insert(-(index + 1), key, value);
+        }
+    }
+
+    /**
+     * Adds {@code delta} to the value of {@code key}, treating a missing key as 0.
+     *
+     * @return the new value
+     */
+    public int addTo(long key, int delta) {
+        if (key == EMPTY) {
+            put(key, (hasZeroKey ? zeroValue : 0) + delta);
+            return zeroValue;
+        }
+        int index = indexOf(key);
+        if (index >= 0) {
+            values[index] += delta;
+            return values[index];
+        }
+        insert(-(index + 1), key, delta);
+        return delta;
+    }
+
+    /**
+     * Removes {@code key}, shifting later entries of its probe run back so no tombstones are left.
+     *
+     * @return whether the key was present
+     */
+    public boolean remove(long key) {
+        if (key == EMPTY) {
+            if (!hasZeroKey) {
+                return false;
+            }
+            hasZeroKey = false;
+            zeroValue = 0;
+            size--;
+            return true;
+        }
+        int gap = indexOf(key);
+        if (gap < 0) {
+            return false;
+        }
+        int index = gap;
+        while (true) {
+            index = (index + 1) & mask;
+            long current = keys[index];
+            if (current == EMPTY) {
+                break;
+            }
+            // Move the entry into the gap unless its home slot lies cyclically in (gap, index]
+            int home = mix(current) & mask;
+            if (((index - home) & mask) >= ((index - gap) & mask)) {
+                keys[gap] = current;
+                values[gap] = values[index];
+                gap = index;
+            }
+        }
+        keys[gap] = EMPTY;
+        size--;
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return keys.length;
+    }
+
+    /**
+     * Bytes held by the backing arrays (object headers excluded).
+     */
+    public long footprintBytes() {
+        return (long) keys.length * Long.BYTES + (long) values.length * Integer.BYTES;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+        hasZeroKey = false;
+        zeroValue = 0;
+    }
+
+    public void forEach(EntryConsumer consumer) {
+        if (hasZeroKey) {
+            consumer.accept(EMPTY, zeroValue);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    public static long footprintBytesFor(int expectedSize) {
+        return (long) tableSizeFor(expectedSize) * (Long.BYTES + Integer.BYTES);
+    }
+
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(long key, int value);
+    }
+
+    // Returns the slot holding the key, or -(free slot + 1) when it is absent
+    private int indexOf(long key) {
+        int index = mix(key) & mask;
+        while (true) {
+            long current = keys[index];
+            if (current == EMPTY) {
+                return -(index + 1);
+            }
+            if (current == key) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    private void insert(int index, long key, int value) {
+        if (size + 1 > resizeAt) {
+            rehash(keys.length << 1);
+            index = -(indexOf(key) + 1);
+        }
+        keys[index] = key;
+        values[index] = value;
+        size++;
+    }
+
+    private void rehash(int newCapacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(newCapacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key != EMPTY) {
+                int index = -(indexOf(key) + 1);
+                keys[index] = key;
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        long required = (long) Math.ceil(Math.max(expectedSize, 1) / LOAD_FACTOR);
+        long capacity = Long.highestOneBit(Math.max(required, MIN_CAPACITY) - 1) << 1;
+        if (capacity > 1 << 30) {
+            throw new IllegalArgumentException("Too many entries: " + expectedSize);
+        }
+        return (int) capacity;
+    }
+
+    private static int mix(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+}
@@ -0,0 +1,76 @@
+package com.test_obs.inventoryms.config;
+
+import com.test_obs.inventoryms.dto.ItemDTO;
+import com.test_obs.inventoryms.dto.OrderDTO;
+import com.test_obs.inventoryms.exception.InsufficientStockException;
+import com.test_obs.inventoryms.service.ItemService;
+import com.test_obs.inventoryms.service.OrderService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+class MetricsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Test
+    void insufficientStock_ShouldBeCountedPerItemAndTimed() {
+        ItemDTO item = itemService.saveItem(new ItemDTO(null, "Metered Item", 10.0, null, null));
+
+        assertThrows(InsufficientStockException.class,
+                () -> orderService.saveOrder(new OrderDTO(null, null, item.getId(), null, 1, 10.0, null)));
+
+        assertEquals(1.0, meterRegistry.get("inventory.stock.insufficient")
+                .tag("item", String.valueOf(item.getId())).counter().count());
+        assertEquals(1, meterRegistry.get("inventory.stock.check")
+                .tag("operation", "withdraw").tag("outcome", "insufficient").timer().count());
+        assertEquals(1, meterRegistry.get("inventory.service.calls")
+                .tag("class", "OrderService").tag("method", "saveOrder")
+                .tag("exception", "InsufficientStockException").timer().count());
+    }
+
+    @Test
+    void apiRequests_ShouldRecordSqlStatementCountPerUriPattern() throws Exception {
+        ItemDTO item = itemService.saveItem(new ItemDTO(null, "Counted Item", 10.0, null, null));
+
+        mockMvc.perform(get("/api/items/{id}", item.getId())).andExpect(status().isOk());
+
+        double statements = meterRegistry.get("http.server.requests.sql")
+                .tag("method", "GET").tag("uri", "/api/items/{id}").summary().totalAmount();
+        assertTrue(statements >= 1, "statements: " + statements);
+    }
+
+    @Test
+    void prometheusEndpoint_ShouldExposeInventoryMeters() throws Exception {
+        itemService.getAllItems(PageRequest.of(0, 10));
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("inventory_service_calls_seconds_bucket")))
+                .andExpect(content().string(containsString("inventory_ledger_rows")));
+    }
+}
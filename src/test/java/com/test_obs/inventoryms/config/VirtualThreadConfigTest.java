@@ -0,0 +1,40 @@
+package com.test_obs.inventoryms.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class VirtualThreadConfigTest {
+
+    @Test
+    void newVirtualThreadPerTaskExecutor_ShouldRunTasksOnNamedVirtualThreads() throws Exception {
+        assumeTrue(runtimeVersion() >= 21, "needs Java 21");
+        ExecutorService executor = VirtualThreadConfig.newVirtualThreadPerTaskExecutor("test-vt-");
+        try {
+            Thread thread = executor.submit(Thread::currentThread).get(10, TimeUnit.SECONDS);
+
+            assertTrue((Boolean) Thread.class.getMethod("isVirtual").invoke(thread));
+            assertTrue(thread.getName().startsWith("test-vt-"));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void newVirtualThreadPerTaskExecutor_ShouldFailClearlyBeforeJava21() {
+        assumeFalse(runtimeVersion() >= 21, "runs on Java 21");
+
+        assertThrows(IllegalStateException.class,
+                () -> VirtualThreadConfig.newVirtualThreadPerTaskExecutor("test-vt-"));
+    }
+
+    private static int runtimeVersion() {
+        String version = System.getProperty("java.specification.version");
+        return version.startsWith("1.") ? Integer.parseInt(version.substring(2)) : Integer.parseInt(version);
+    }
+}
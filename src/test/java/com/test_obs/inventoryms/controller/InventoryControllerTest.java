@@ -1,7 +1,11 @@
 package com.test_obs.inventoryms.controller;
 
+import com.test_obs.inventoryms.dto.CursorPage;
 import com.test_obs.inventoryms.dto.InventoryDTO;
+import com.test_obs.inventoryms.dto.InventoryImportResultDTO;
+import com.test_obs.inventoryms.service.InventoryImportService;
 import com.test_obs.inventoryms.service.InventoryService;
+import com.test_obs.inventoryms.service.LedgerGroupCommitter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -12,8 +16,14 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
 import java.util.Collections;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -28,6 +38,12 @@ class InventoryControllerTest {
     @Mock
     private InventoryService inventoryService;
 
+    @Mock
+    private InventoryImportService inventoryImportService;
+
+    @Mock
+    private LedgerGroupCommitter ledgerGroupCommitter;
+
     @InjectMocks
     private InventoryController inventoryController;
 
@@ -69,13 +85,13 @@ class InventoryControllerTest {
 
     @Test
     void createInventory_ShouldReturnCreatedInventory() {
-        when(inventoryService.saveInventory(any(InventoryDTO.class))).thenReturn(inventoryDTO);
+        when(ledgerGroupCommitter.saveInventory(any(InventoryDTO.class))).thenReturn(inventoryDTO);
 
         ResponseEntity<InventoryDTO> response = inventoryController.createInventory(inventoryDTO);
 
         assertEquals(HttpStatus.CREATED, response.getStatusCode());
         assertEquals(inventoryDTO, response.getBody());
-        verify(inventoryService, times(1)).saveInventory(any(InventoryDTO.class));
+        verify(ledgerGroupCommitter, times(1)).saveInventory(any(InventoryDTO.class));
     }
 
     @Test
@@ -99,4 +115,41 @@ class InventoryControllerTest {
         assertNull(response.getBody());
         verify(inventoryService, times(1)).deleteInventory(1L);
     }
-}
\ No newline at end of file
+
+    @Test
+    void importInventory_ShouldPickFormatFromContentType() throws Exception {
+        InputStream body = new ByteArrayInputStream("{\"itemId\":1,\"quantity\":5}".getBytes());
+        InventoryImportResultDTO result = new InventoryImportResultDTO(1, 0, 1, 5, 200.0, Collections.emptyList(), false);
+        when(inventoryImportService.importTopUps(body, InventoryImportService.Format.NDJSON)).thenReturn(result);
+
+        ResponseEntity<InventoryImportResultDTO> response = inventoryController.importInventory(
+                MediaType.valueOf("application/x-ndjson"), body);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(result, response.getBody());
+    }
+
+    @Test
+    void getInventoryPage_ShouldClampPageSize() {
+        CursorPage<InventoryDTO> page = new CursorPage<>(Collections.singletonList(inventoryDTO), 1, "next", true, null);
+        when(inventoryService.getInventoryPage("abc", 500, false)).thenReturn(page);
+
+        ResponseEntity<CursorPage<InventoryDTO>> response = inventoryController.getInventoryPage("abc", 10_000, false);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(page, response.getBody());
+    }
+
+    @Test
+    void exportInventory_ShouldStreamFromServiceWhenBodyIsWritten() throws Exception {
+        ResponseEntity<StreamingResponseBody> response = inventoryController.exportInventory(1L, null, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.valueOf("application/x-ndjson"), response.getHeaders().getContentType());
+        verifyNoInteractions(inventoryService);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        verify(inventoryService, times(1)).exportInventory(1L, null, null, out);
+    }
+}
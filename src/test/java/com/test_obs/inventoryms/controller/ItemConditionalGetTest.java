@@ -0,0 +1,73 @@
+package com.test_obs.inventoryms.controller;
+
+import com.test_obs.inventoryms.dto.InventoryDTO;
+import com.test_obs.inventoryms.dto.ItemDTO;
+import com.test_obs.inventoryms.service.InventoryService;
+import com.test_obs.inventoryms.service.ItemService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ItemConditionalGetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Test
+    void getItemById_ShouldAnswerNotModifiedUntilTheStockMoves() throws Exception {
+        ItemDTO item = itemService.saveItem(new ItemDTO(null, "Polled Item", 10.0, null, null));
+
+        String eTag = mockMvc.perform(get("/api/items/{id}", item.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(eTag);
+
+        mockMvc.perform(get("/api/items/{id}", item.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(content().string(""));
+
+        inventoryService.saveInventory(new InventoryDTO(null, item.getId(), null, 5, "T", null));
+
+        String changed = mockMvc.perform(get("/api/items/{id}", item.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(eTag, changed);
+    }
+
+    @Test
+    void getAllItems_ShouldAnswerNotModifiedUntilAnItemChanges() throws Exception {
+        ItemDTO item = itemService.saveItem(new ItemDTO(null, "Listed Item", 10.0, null, null));
+
+        String eTag = mockMvc.perform(get("/api/items").param("size", "500"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(eTag);
+
+        mockMvc.perform(get("/api/items").param("size", "500").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        itemService.updateItem(item.getId(), new ItemDTO(null, "Renamed Listed Item", 10.0, null, null));
+
+        mockMvc.perform(get("/api/items").param("size", "500").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk());
+    }
+}
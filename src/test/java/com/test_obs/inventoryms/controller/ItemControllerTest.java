@@ -1,7 +1,9 @@
 package com.test_obs.inventoryms.controller;
 
 import com.test_obs.inventoryms.dto.ItemDTO;
+import com.test_obs.inventoryms.dto.StockAsOfDTO;
 import com.test_obs.inventoryms.service.ItemService;
+import com.test_obs.inventoryms.service.StockBucketService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -12,12 +14,18 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import java.time.LocalDateTime;
 import java.util.Collections;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
@@ -28,6 +36,9 @@ class ItemControllerTest {
     @Mock
     private ItemService itemService;
 
+    @Mock
+    private StockBucketService stockBucketService;
+
     @InjectMocks
     private ItemController itemController;
 
@@ -44,22 +55,37 @@ class ItemControllerTest {
 
     @Test
     void getItemById_ShouldReturnItem() {
+        when(itemService.getItemETag(1L)).thenReturn("abc");
         when(itemService.getItemById(anyLong())).thenReturn(itemDTO);
 
-        ResponseEntity<ItemDTO> response = itemController.getItemById(1L);
+        ResponseEntity<ItemDTO> response = itemController.getItemById(1L, webRequest(null));
 
         assertNotNull(response);
         assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"abc\"", response.getHeaders().getETag());
         assertEquals(itemDTO, response.getBody());
         verify(itemService, times(1)).getItemById(1L);
     }
 
+    @Test
+    void getItemById_ShouldReturnNotModifiedWithoutLoadingTheItem() {
+        when(itemService.getItemETag(1L)).thenReturn("abc");
+
+        ResponseEntity<ItemDTO> response = itemController.getItemById(1L, webRequest("\"abc\""));
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals("\"abc\"", response.getHeaders().getETag());
+        assertNull(response.getBody());
+        verify(itemService, never()).getItemById(anyLong());
+    }
+
     @Test
     void getAllItems_ShouldReturnPageOfItems() {
         Page<ItemDTO> page = new PageImpl<>(Collections.singletonList(itemDTO));
+        when(itemService.getItemsETag(any(Pageable.class))).thenReturn("abc");
         when(itemService.getAllItems(any(Pageable.class))).thenReturn(page);
 
-        ResponseEntity<Page<ItemDTO>> response = itemController.getAllItems(Pageable.unpaged());
+        ResponseEntity<Page<ItemDTO>> response = itemController.getAllItems(Pageable.unpaged(), webRequest("\"old\""));
 
         assertNotNull(response);
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -69,6 +95,17 @@ class ItemControllerTest {
         verify(itemService, times(1)).getAllItems(any(Pageable.class));
     }
 
+    @Test
+    void getAllItems_ShouldReturnNotModifiedWithoutBuildingThePage() {
+        when(itemService.getItemsETag(any(Pageable.class))).thenReturn("abc");
+
+        ResponseEntity<Page<ItemDTO>> response = itemController.getAllItems(Pageable.unpaged(), webRequest("\"abc\""));
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+        verify(itemService, never()).getAllItems(any(Pageable.class));
+    }
+
     @Test
     void createItem_ShouldReturnCreatedItem() {
         when(itemService.saveItem(any(ItemDTO.class))).thenReturn(itemDTO);
@@ -103,4 +140,24 @@ class ItemControllerTest {
         assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
         verify(itemService, times(1)).deleteItem(1L);
     }
-}
\ No newline at end of file
+
+    @Test
+    void getStockAsOf_ShouldReturnTheStockAtTheRequestedTime() {
+        LocalDateTime asOf = LocalDateTime.of(2024, 3, 31, 23, 59);
+        StockAsOfDTO stock = new StockAsOfDTO(1L, asOf, 42);
+        when(stockBucketService.getStockAsOf(1L, asOf)).thenReturn(stock);
+
+        ResponseEntity<StockAsOfDTO> response = itemController.getStockAsOf(1L, asOf);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(stock, response.getBody());
+    }
+
+    private static ServletWebRequest webRequest(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/items");
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return new ServletWebRequest(request, new MockHttpServletResponse());
+    }
+}
@@ -1,6 +1,9 @@
 package com.test_obs.inventoryms.controller;
 
+import com.test_obs.inventoryms.dto.OrderBatchDTO;
+import com.test_obs.inventoryms.dto.CursorPage;
 import com.test_obs.inventoryms.dto.OrderDTO;
+import com.test_obs.inventoryms.service.OrderIdempotencyService;
 import com.test_obs.inventoryms.service.OrderService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -18,6 +21,7 @@ import java.util.Collections;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
@@ -27,6 +31,9 @@ class OrderControllerTest {
     @Mock
     private OrderService orderService;
 
+    @Mock
+    private OrderIdempotencyService orderIdempotencyService;
+
     @InjectMocks
     private OrderController orderController;
 
@@ -74,12 +81,40 @@ class OrderControllerTest {
     void createOrder_ShouldReturnCreatedOrder() {
         when(orderService.saveOrder(any(OrderDTO.class))).thenReturn(orderDTO);
 
-        ResponseEntity<OrderDTO> response = orderController.createOrder(orderDTO);
+        ResponseEntity<OrderDTO> response = orderController.createOrder(orderDTO, null);
 
         assertNotNull(response);
         assertEquals(HttpStatus.CREATED, response.getStatusCode());
         assertEquals(orderDTO, response.getBody());
         verify(orderService, times(1)).saveOrder(any(OrderDTO.class));
+        verifyNoInteractions(orderIdempotencyService);
+    }
+
+    @Test
+    void createOrder_ShouldReplayStoredResponseForKnownIdempotencyKey() {
+        when(orderIdempotencyService.saveOrder("key-1", orderDTO))
+                .thenReturn(new OrderIdempotencyService.Result(orderDTO, true));
+
+        ResponseEntity<OrderDTO> response = orderController.createOrder(orderDTO, "key-1");
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals("true", response.getHeaders().getFirst(OrderController.IDEMPOTENT_REPLAYED));
+        assertEquals(orderDTO, response.getBody());
+        verify(orderService, never()).saveOrder(any(OrderDTO.class));
+    }
+
+    @Test
+    void createOrders_ShouldReturnCreatedOrders() {
+        when(orderService.saveOrders(anyList())).thenReturn(Collections.singletonList(orderDTO));
+
+        ResponseEntity<OrderBatchDTO> response = orderController.createOrders(
+                new OrderBatchDTO(Collections.singletonList(orderDTO)));
+
+        assertNotNull(response);
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals(Collections.singletonList(orderDTO), response.getBody().getOrders());
+        verify(orderService, times(1)).saveOrders(anyList());
     }
 
     @Test
@@ -129,4 +164,15 @@ class OrderControllerTest {
         // Actual validation testing would be better in integration tests
         assertTrue(true); // Placeholder assertion
     }
-}
\ No newline at end of file
+
+    @Test
+    void getOrderPage_ShouldClampPageSize() {
+        CursorPage<OrderDTO> page = new CursorPage<>(Collections.singletonList(orderDTO), 1, "next", true, null);
+        when(orderService.getOrderPage("abc", 500, false)).thenReturn(page);
+
+        ResponseEntity<CursorPage<OrderDTO>> response = orderController.getOrderPage("abc", 10_000, false);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(page, response.getBody());
+    }
+}
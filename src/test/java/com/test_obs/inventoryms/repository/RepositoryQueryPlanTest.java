@@ -0,0 +1,159 @@
+package com.test_obs.inventoryms.repository;
+
+import com.test_obs.inventoryms.config.SqlStatementCounter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs {@code EXPLAIN} on the SQL behind every query declared in the item, inventory and order
+ * repositories, and fails when any of them reads a table without an index. A query added to
+ * one of these repositories without a case here fails the test as well.
+ */
+@SpringBootTest
+class RepositoryQueryPlanTest {
+    private static final Pattern TABLE_SCAN = Pattern.compile("/\\* PUBLIC\\.(\\w+)\\.tableScan \\*/");
+
+    private static final LocalDateTime NOW = LocalDateTime.now();
+    private static final List<Long> IDS = Arrays.asList(1L, 2L);
+    // Listings are paged by creation time
+    private static final Pageable PAGE = PageRequest.of(1, 10, Sort.by("createdAt"));
+    private static final Pageable LIMIT = PageRequest.of(0, 10);
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private SqlStatementCounter sqlStatementCounter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void itemRepository_QueriesShouldUseIndexes() {
+        Map<String, Supplier<?>> queries = new LinkedHashMap<>();
+        queries.put("findRemainingStockByItemId", () -> itemRepository.findRemainingStockByItemId(1L));
+        queries.put("findRemainingStockByItemIds", () -> itemRepository.findRemainingStockByItemIds(IDS));
+        queries.put("findRemainingStockByItemIdBetween", () -> itemRepository.findRemainingStockByItemIdBetween(1L, 0L, 10L));
+        queries.put("findRemainingStockByItemIdsBetween", () -> itemRepository.findRemainingStockByItemIdsBetween(IDS, 0L, 10L));
+        queries.put("findRemainingStockByItemIdCreatedBetween",
+                () -> itemRepository.findRemainingStockByItemIdCreatedBetween(1L, NOW.minusHours(1), NOW));
+        queries.put("findAllIds", () -> itemRepository.findAllIds());
+
+        assertQueriesUseIndexes(ItemRepository.class, queries);
+    }
+
+    @Test
+    void inventoryRepository_QueriesShouldUseIndexes() {
+        Map<String, Supplier<?>> queries = new LinkedHashMap<>();
+        queries.put("findAllProjected", () -> inventoryRepository.findAllProjected(PAGE));
+        queries.put("findFirstByCreatedAt", () -> inventoryRepository.findFirstByCreatedAt(LIMIT));
+        queries.put("findAfterByCreatedAt", () -> inventoryRepository.findAfterByCreatedAt(NOW, 1L, LIMIT));
+        queries.put("findMaxIdCreatedBefore", () -> inventoryRepository.findMaxIdCreatedBefore(1L, NOW));
+        queries.put("findItemIdsWithMovementsBetween", () -> inventoryRepository.findItemIdsWithMovementsBetween(1L, 10L));
+        queries.put("streamForExport", () -> count(inventoryRepository.streamForExport(NOW.minusDays(1), NOW)));
+        queries.put("streamForExportByItem", () -> count(inventoryRepository.streamForExportByItem(1L, NOW.minusDays(1), NOW)));
+        queries.put("streamMovements", () -> count(inventoryRepository.streamMovements()));
+        queries.put("sumDailyByItemIdIn", () -> inventoryRepository.sumDailyByItemIdIn(IDS));
+
+        assertQueriesUseIndexes(InventoryRepository.class, queries);
+    }
+
+    @Test
+    void orderRepository_QueriesShouldUseIndexes() {
+        Map<String, Supplier<?>> queries = new LinkedHashMap<>();
+        queries.put("findAllProjected", () -> orderRepository.findAllProjected(PAGE));
+        queries.put("findFirstByCreatedAt", () -> orderRepository.findFirstByCreatedAt(LIMIT));
+        queries.put("findAfterByCreatedAt", () -> orderRepository.findAfterByCreatedAt(NOW, 1L, LIMIT));
+        queries.put("findMaxIdCreatedBefore", () -> orderRepository.findMaxIdCreatedBefore(1L, NOW));
+        queries.put("streamFactsBetween", () -> count(orderRepository.streamFactsBetween(1L, 10L)));
+        queries.put("findFactsByIdIn", () -> orderRepository.findFactsByIdIn(IDS));
+
+        assertQueriesUseIndexes(OrderRepository.class, queries);
+    }
+
+    private void assertQueriesUseIndexes(Class<?> repository, Map<String, Supplier<?>> queries) {
+        assertEquals(declaredQueries(repository), new TreeSet<>(queries.keySet()),
+                "Every query declared in " + repository.getSimpleName() + " needs a plan check");
+
+        List<String> failures = new ArrayList<>();
+        queries.forEach((name, query) -> {
+            List<String> plans = explain(query);
+            if (plans.isEmpty()) {
+                failures.add(name + " ran no SQL");
+            }
+            for (String plan : plans) {
+                Matcher tableScan = TABLE_SCAN.matcher(plan);
+                if (tableScan.find()) {
+                    failures.add(name + " scans " + tableScan.group(1) + ":\n" + plan);
+                }
+            }
+        });
+        assertTrue(failures.isEmpty(), String.join("\n\n", failures));
+    }
+
+    // Plans of the statements the query ran, parameters left unbound
+    private List<String> explain(Supplier<?> query) {
+        List<String> statements = new TransactionTemplate(transactionManager).execute(status -> {
+            sqlStatementCounter.beginRecording();
+            try {
+                query.get();
+            } finally {
+                status.setRollbackOnly();
+            }
+            return sqlStatementCounter.endRecording();
+        });
+        return statements.stream()
+                .map(sql -> jdbcTemplate.query(connection -> connection.prepareStatement("EXPLAIN " + sql), resultSet -> {
+                    resultSet.next();
+                    return resultSet.getString(1);
+                }))
+                .collect(Collectors.toList());
+    }
+
+    private static Set<String> declaredQueries(Class<?> repository) {
+        return Arrays.stream(repository.getDeclaredMethods())
+                .filter(method -> !method.isDefault() && !Modifier.isStatic(method.getModifiers()))
+                .map(Method::getName)
+                .collect(Collectors.toCollection(TreeSet::new));
+    }
+
+    private static long count(Stream<?> stream) {
+        try (Stream<?> rows = stream) {
+            return rows.count();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.test_obs.inventoryms.service;
+
+import com.test_obs.inventoryms.dto.CursorPage;
+import com.test_obs.inventoryms.dto.InventoryDTO;
+import com.test_obs.inventoryms.dto.ItemDTO;
+import com.test_obs.inventoryms.dto.OrderDTO;
+import com.test_obs.inventoryms.repository.InventoryRepository;
+import com.test_obs.inventoryms.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class CursorPaginationTest {
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private Long itemId;
+
+    @BeforeEach
+    void setUp() {
+        itemId = itemService.saveItem(new ItemDTO(null, "Paged Item", 10.0, null, null)).getId();
+        inventoryService.saveInventory(new InventoryDTO(null, itemId, null, 100, "T", null));
+        for (int i = 0; i < 12; i++) {
+            orderService.saveOrder(new OrderDTO(null, null, itemId, null, 1, 10.0, null));
+        }
+    }
+
+    @Test
+    void getInventoryPage_ShouldWalkTheWholeLedgerWithoutGapsOrDuplicates() {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        CursorPage<InventoryDTO> page;
+        do {
+            page = inventoryService.getInventoryPage(cursor, 5, false);
+            assertNull(page.getTotalElements());
+            page.getContent().forEach(dto -> ids.add(dto.getId()));
+            cursor = page.getNextCursor();
+        } while (page.isHasNext());
+
+        assertEquals(inventoryRepository.count(), ids.size());
+        assertEquals(ids.size(), new HashSet<>(ids).size());
+    }
+
+    @Test
+    void getOrderPage_ShouldReturnTotalOnlyWhenAsked() {
+        CursorPage<OrderDTO> first = orderService.getOrderPage(null, 5, true);
+        CursorPage<OrderDTO> second = orderService.getOrderPage(first.getNextCursor(), 5, false);
+
+        assertEquals(orderRepository.count(), first.getTotalElements());
+        assertNull(second.getTotalElements());
+        assertEquals(5, first.getSize());
+        assertTrue(first.isHasNext());
+        OrderDTO lastOfFirst = first.getContent().get(4);
+        OrderDTO firstOfSecond = second.getContent().get(0);
+        assertTrue(firstOfSecond.getCreatedAt().isAfter(lastOfFirst.getCreatedAt())
+                || (firstOfSecond.getCreatedAt().equals(lastOfFirst.getCreatedAt())
+                && firstOfSecond.getId() > lastOfFirst.getId()));
+    }
+
+    @Test
+    void updateOrder_ShouldKeepCreationTimeSoCursorsStayStable() {
+        Long orderId = orderService.saveOrder(new OrderDTO(null, null, itemId, null, 1, 10.0, null)).getId();
+        OrderDTO stored = orderService.getOrderById(orderId);
+
+        OrderDTO updated = orderService.updateOrder(orderId, new OrderDTO(null, null, itemId, null, 2, 12.0, null));
+
+        assertEquals(stored.getCreatedAt(), updated.getCreatedAt());
+        assertEquals(stored.getCreatedAt(), orderService.getOrderById(orderId).getCreatedAt());
+    }
+}
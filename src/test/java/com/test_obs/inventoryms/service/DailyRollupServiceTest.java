@@ -0,0 +1,127 @@
+package com.test_obs.inventoryms.service;
+
+import com.test_obs.inventoryms.dto.DailyRollupDTO;
+import com.test_obs.inventoryms.dto.DailyRollupRebuildDTO;
+import com.test_obs.inventoryms.dto.InventoryDTO;
+import com.test_obs.inventoryms.dto.ItemDTO;
+import com.test_obs.inventoryms.dto.OrderDTO;
+import com.test_obs.inventoryms.exception.InvalidDateRangeException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class DailyRollupServiceTest {
+    @Autowired
+    private DailyRollupService dailyRollupService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private ItemDTO item;
+
+    @BeforeEach
+    void setUp() {
+        item = itemService.saveItem(new ItemDTO(null, "Rolled Up Item", 10.0, null, null));
+    }
+
+    @Test
+    void record_ShouldKeepRollupsInStepWithLedgerWrites() {
+        inventoryService.saveInventory(new InventoryDTO(null, item.getId(), null, 10, "T", null));
+        orderService.saveOrder(new OrderDTO(null, null, item.getId(), null, 3, 10.0, null));
+        InventoryDTO topUp = inventoryService.saveInventory(new InventoryDTO(null, item.getId(), null, 5, "T", null));
+
+        // An edit that turns a top-up into a withdrawal moves it between the two totals
+        topUp.setQuantity(4);
+        topUp.setType("W");
+        inventoryService.updateInventory(topUp.getId(), topUp);
+        LocalDate today = LocalDate.now();
+        assertRollup(rollups(today.minusDays(1), today.plusDays(1)), 10, 7);
+
+        inventoryService.deleteInventory(topUp.getId());
+        assertRollup(rollups(today.minusDays(1), today.plusDays(1)), 10, 3);
+    }
+
+    @Test
+    void rebuild_ShouldRegroupTheLedgerByDay() {
+        // A few hours back, but still inside the last day that other tests treat as recent
+        LocalDateTime now = LocalDateTime.now();
+        Map<LocalDate, long[]> expected = new TreeMap<>();
+        insertMovement(now.minusHours(7), 100, "T", expected);
+        insertMovement(now.minusHours(5), 30, "W", expected);
+        insertMovement(now.minusHours(3), 20, "T", expected);
+        insertMovement(now.minusHours(1), 5, "W", expected);
+
+        DailyRollupRebuildDTO result = dailyRollupService.rebuild();
+        assertTrue(result.getItems() >= 1);
+        assertTrue(result.getChunks() >= 1);
+
+        List<DailyRollupDTO> rollups = rollups(now.minusHours(7).toLocalDate(), now.toLocalDate());
+        assertEquals(expected.size(), rollups.size());
+        int i = 0;
+        for (Map.Entry<LocalDate, long[]> day : expected.entrySet()) {
+            DailyRollupDTO rollup = rollups.get(i++);
+            assertEquals(day.getKey(), rollup.getDay());
+            assertEquals(day.getValue()[0], rollup.getTopUps());
+            assertEquals(day.getValue()[1], rollup.getWithdrawals());
+            assertEquals(day.getValue()[0] - day.getValue()[1], rollup.getNetChange());
+        }
+
+        // Writes after the rebuild are added on top
+        inventoryService.saveInventory(new InventoryDTO(null, item.getId(), null, 2, "T", null));
+        List<DailyRollupDTO> today = rollups(LocalDate.now(), LocalDate.now());
+        long[] todayExpected = expected.getOrDefault(LocalDate.now(), new long[2]);
+        assertRollup(today, todayExpected[0] + 2, todayExpected[1]);
+    }
+
+    @Test
+    void getRollups_ShouldRejectBadRanges() {
+        LocalDate today = LocalDate.now();
+        PageRequest page = PageRequest.of(0, 10);
+
+        assertThrows(InvalidDateRangeException.class,
+                () -> dailyRollupService.getRollups(item.getId(), today, today.minusDays(1), page));
+        assertThrows(InvalidDateRangeException.class,
+                () -> dailyRollupService.getRollups(item.getId(), today.minusYears(2), today, page));
+    }
+
+    private List<DailyRollupDTO> rollups(LocalDate from, LocalDate to) {
+        return dailyRollupService.getRollups(item.getId(), from, to, PageRequest.of(0, 100)).getContent();
+    }
+
+    private static void assertRollup(List<DailyRollupDTO> rollups, long topUps, long withdrawals) {
+        assertEquals(1, rollups.size());
+        assertEquals(topUps, rollups.get(0).getTopUps());
+        assertEquals(withdrawals, rollups.get(0).getWithdrawals());
+        assertEquals(topUps - withdrawals, rollups.get(0).getNetChange());
+    }
+
+    // Backdated rows can only be written in SQL, and have no rollups until a rebuild
+    private void insertMovement(LocalDateTime createdAt, int quantity, String type, Map<LocalDate, long[]> expected) {
+        long id = jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR inventory_seq", Long.class);
+        jdbcTemplate.update("INSERT INTO inventory (id, item_id, quantity, type, created_at) VALUES (?, ?, ?, ?, ?)",
+                id, item.getId(), quantity, type, Timestamp.valueOf(createdAt));
+        expected.computeIfAbsent(createdAt.toLocalDate(), day -> new long[2])["T".equals(type) ? 0 : 1] += quantity;
+    }
+}
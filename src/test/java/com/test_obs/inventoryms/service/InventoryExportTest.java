@@ -0,0 +1,86 @@
+package com.test_obs.inventoryms.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.test_obs.inventoryms.dto.InventoryDTO;
+import com.test_obs.inventoryms.dto.ItemDTO;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.persistence.EntityManagerFactory;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        // The background refresh would add its statements to the counts
+        "inventory.sales-report.enabled=false"
+})
+class InventoryExportTest {
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Long itemId;
+
+    @BeforeEach
+    void setUp() {
+        itemId = itemService.saveItem(new ItemDTO(null, "Exported", 10.0, null, null)).getId();
+        for (int i = 1; i <= 30; i++) {
+            inventoryService.saveInventory(new InventoryDTO(null, itemId, null, i, "T", null));
+        }
+    }
+
+    @Test
+    void exportInventory_ShouldWriteOneJsonObjectPerLineWithoutManagingEntities() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = inventoryService.exportInventory(itemId, null, null, out);
+
+        String body = new String(out.toByteArray(), StandardCharsets.UTF_8);
+        String[] lines = body.split("\n");
+        assertEquals(30, rows);
+        assertEquals(30, lines.length);
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < lines.length; i++) {
+            InventoryDTO row = objectMapper.readValue(lines[i], InventoryDTO.class);
+            assertEquals(itemId, row.getItemId());
+            assertEquals("Exported", row.getItemName());
+            assertEquals(i + 1, row.getQuantity());
+            expected.append(objectMapper.writeValueAsString(row)).append('\n');
+        }
+        // Exactly one compact object per line, no separators before or between them
+        assertEquals(expected.toString(), body);
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void exportInventory_ShouldApplyTimeRange() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long future = inventoryService.exportInventory(itemId, LocalDateTime.now().plusDays(1), null, out);
+        long past = inventoryService.exportInventory(null, null, LocalDateTime.now().minusDays(1), out);
+
+        assertEquals(0, future);
+        assertEquals(0, past);
+        assertEquals(0, out.size());
+    }
+}
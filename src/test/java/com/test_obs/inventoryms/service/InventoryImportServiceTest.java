@@ -0,0 +1,121 @@
+package com.test_obs.inventoryms.service;
+
+import com.test_obs.inventoryms.dto.InventoryImportResultDTO;
+import com.test_obs.inventoryms.dto.ItemDTO;
+import com.test_obs.inventoryms.repository.InventoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "inventory.bulk-import.chunk-size=3",
+        "inventory.bulk-import.max-reported-rejections=2"
+})
+class InventoryImportServiceTest {
+
+    @Autowired
+    private InventoryImportService inventoryImportService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private ItemCatalog itemCatalog;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long firstItemId;
+    private Long secondItemId;
+
+    @BeforeEach
+    void setUp() {
+        firstItemId = itemService.saveItem(new ItemDTO(null, "Pallet A", 10.0, null, null)).getId();
+        secondItemId = itemService.saveItem(new ItemDTO(null, "Pallet B", 10.0, null, null)).getId();
+    }
+
+    @Test
+    void importTopUps_ShouldWriteCsvInChunksAndUpdateBalances() throws Exception {
+        long ledgerBefore = inventoryRepository.count();
+        String csv = "itemId,quantity\n" +
+                firstItemId + ",5\n" +
+                secondItemId + ",7\n" +
+                "\n" +
+                firstItemId + ",3,T\n" +
+                secondItemId + ",1\n" +
+                firstItemId + ",2\n";
+
+        InventoryImportResultDTO result = inventoryImportService.importTopUps(body(csv),
+                InventoryImportService.Format.CSV);
+
+        assertEquals(5, result.getAcceptedRows());
+        assertEquals(0, result.getRejectedRows());
+        assertEquals(2, result.getChunks());
+        assertEquals(ledgerBefore + 5, inventoryRepository.count());
+        assertEquals(10, stockService.getRemainingStock(firstItemId));
+        assertEquals(8, stockService.getRemainingStock(secondItemId));
+    }
+
+    @Test
+    void importTopUps_ShouldReportRejectedNdjsonRowsAndKeepTheRest() throws Exception {
+        String ndjson = "{\"itemId\":" + firstItemId + ",\"quantity\":4}\n" +
+                "{\"itemId\":" + firstItemId + ",\"quantity\":-1}\n" +
+                "not json\n" +
+                "{\"itemId\":999999,\"quantity\":1}\n" +
+                "{\"itemId\":" + secondItemId + ",\"quantity\":2,\"type\":\"W\"}\n";
+
+        InventoryImportResultDTO result = inventoryImportService.importTopUps(body(ndjson),
+                InventoryImportService.Format.NDJSON);
+
+        assertEquals(1, result.getAcceptedRows());
+        assertEquals(4, result.getRejectedRows());
+        assertEquals(2, result.getRejections().size());
+        assertTrue(result.isRejectionsTruncated());
+        assertEquals(2, result.getRejections().get(0).getLine());
+        assertEquals("Quantity must be a positive number", result.getRejections().get(0).getReason());
+        assertEquals(3, result.getRejections().get(1).getLine());
+        assertEquals(4, stockService.getRemainingStock(firstItemId));
+        assertEquals(0, stockService.getRemainingStock(secondItemId));
+    }
+
+    @Test
+    void importTopUps_ShouldRejectChunkThatFailsToFlush() throws Exception {
+        Long goneItemId = itemService.saveItem(new ItemDTO(null, "Pallet C", 10.0, null, null)).getId();
+        // Cached, then removed behind the catalog's back, so the rows only fail on their foreign key
+        itemCatalog.getItems(Collections.singleton(goneItemId));
+        jdbcTemplate.update("DELETE FROM stock_balance WHERE item_id = ?", goneItemId);
+        jdbcTemplate.update("DELETE FROM items WHERE id = ?", goneItemId);
+        String csv = firstItemId + ",1\n" +
+                firstItemId + ",1\n" +
+                firstItemId + ",1\n" +
+                goneItemId + ",2\n";
+
+        InventoryImportResultDTO result = inventoryImportService.importTopUps(body(csv),
+                InventoryImportService.Format.CSV);
+
+        assertEquals(3, result.getAcceptedRows());
+        assertEquals(1, result.getRejectedRows());
+        assertEquals(4, result.getRejections().get(0).getLine());
+        assertTrue(result.getRejections().get(0).getReason().startsWith("Chunk rolled back: "));
+        assertEquals(3, stockService.getRemainingStock(firstItemId));
+    }
+
+    private static InputStream body(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
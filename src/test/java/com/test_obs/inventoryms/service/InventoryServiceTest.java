@@ -5,7 +5,6 @@ import com.test_obs.inventoryms.exception.ResourceNotFoundException;
 import com.test_obs.inventoryms.model.Inventory;
 import com.test_obs.inventoryms.model.Item;
 import com.test_obs.inventoryms.repository.InventoryRepository;
-import com.test_obs.inventoryms.repository.ItemRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -16,11 +15,14 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
@@ -31,7 +33,22 @@ class InventoryServiceTest {
     private InventoryRepository inventoryRepository;
 
     @Mock
-    private ItemRepository itemRepository;
+    private ItemCatalog itemCatalog;
+
+    @Mock
+    private StockService stockService;
+
+    @Mock
+    private StockCheckpointService stockCheckpointService;
+
+    @Mock
+    private StripedItemLock itemLock;
+
+    @Mock
+    private StockBucketService stockBucketService;
+
+    @Mock
+    private DailyRollupService dailyRollupService;
 
     @InjectMocks
     private InventoryService inventoryService;
@@ -85,20 +102,21 @@ class InventoryServiceTest {
 
     @Test
     void getAllInventory_ShouldReturnPageOfInventoryDTO() {
-        Page<Inventory> page = new PageImpl<>(Collections.singletonList(inventory));
-        when(inventoryRepository.findAll(any(Pageable.class))).thenReturn(page);
+        Page<InventoryDTO> page = new PageImpl<>(Collections.singletonList(inventoryDTO));
+        when(inventoryRepository.findAllProjected(any(Pageable.class))).thenReturn(page);
 
         Page<InventoryDTO> result = inventoryService.getAllInventory(Pageable.unpaged());
 
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
         assertEquals(inventoryDTO.getId(), result.getContent().get(0).getId());
-        verify(inventoryRepository, times(1)).findAll(any(Pageable.class));
+        verify(inventoryRepository, times(1)).findAllProjected(any(Pageable.class));
+        verify(inventoryRepository, never()).findAll(any(Pageable.class));
     }
 
     @Test
     void saveInventory_ShouldReturnSavedInventoryDTO() {
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
+        when(itemCatalog.getItem(anyLong())).thenReturn(item);
         when(inventoryRepository.save(any(Inventory.class))).thenReturn(inventory);
 
         InventoryDTO result = inventoryService.saveInventory(inventoryDTO);
@@ -107,23 +125,49 @@ class InventoryServiceTest {
         assertEquals(inventoryDTO.getId(), result.getId());
         assertEquals(inventoryDTO.getItemId(), result.getItemId());
         assertEquals(inventoryDTO.getItemName(), result.getItemName());
-        verify(itemRepository, times(1)).findById(1L);
+        verify(itemCatalog, times(1)).getItem(1L);
+        verify(stockService, times(1)).adjust(1L, -10);
         verify(inventoryRepository, times(1)).save(any(Inventory.class));
+        verify(stockBucketService, times(1)).record(inventory);
+        verify(dailyRollupService, times(1)).record(inventory);
     }
 
     @Test
     void saveInventory_ShouldThrowResourceNotFoundExceptionWhenItemNotFound() {
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(itemCatalog.getItem(anyLong())).thenThrow(new ResourceNotFoundException("Item not found with id: 1"));
 
         assertThrows(ResourceNotFoundException.class, () -> inventoryService.saveInventory(inventoryDTO));
-        verify(itemRepository, times(1)).findById(1L);
+        verify(itemCatalog, times(1)).getItem(1L);
+        verify(inventoryRepository, never()).save(any(Inventory.class));
+    }
+
+    @Test
+    void saveInventoryBatch_ShouldAdjustEachItemOnceWithTheNetMovement() {
+        when(itemCatalog.getItem(1L)).thenReturn(item);
+        when(inventoryRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<InventoryDTO> result = inventoryService.saveInventoryBatch(Arrays.asList(
+                new InventoryDTO(null, 1L, null, 5, "T", null),
+                new InventoryDTO(null, 1L, null, 2, "W", null),
+                new InventoryDTO(null, 1L, null, 4, "T", null)));
+
+        assertEquals(3, result.size());
+        assertEquals(2, result.get(1).getQuantity());
+        assertEquals("W", result.get(1).getType());
+        verify(stockService, times(1)).adjust(1L, 7);
         verify(inventoryRepository, never()).save(any(Inventory.class));
     }
 
     @Test
     void updateInventory_ShouldReturnUpdatedInventoryDTO() {
-        when(inventoryRepository.existsById(anyLong())).thenReturn(true);
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
+        Inventory existing = new Inventory();
+        existing.setId(1L);
+        existing.setItem(item);
+        existing.setQuantity(4);
+        existing.setType("T");
+
+        when(inventoryRepository.findById(anyLong())).thenReturn(Optional.of(existing));
+        when(itemCatalog.getItem(anyLong())).thenReturn(item);
         when(inventoryRepository.save(any(Inventory.class))).thenReturn(inventory);
 
         InventoryDTO result = inventoryService.updateInventory(1L, inventoryDTO);
@@ -132,38 +176,44 @@ class InventoryServiceTest {
         assertEquals(inventoryDTO.getId(), result.getId());
         assertEquals(inventoryDTO.getItemId(), result.getItemId());
         assertEquals(inventoryDTO.getItemName(), result.getItemName());
-        verify(inventoryRepository, times(1)).existsById(1L);
-        verify(itemRepository, times(1)).findById(1L);
+        verify(inventoryRepository, times(1)).findById(1L);
+        verify(itemCatalog, times(1)).getItem(1L);
+        verify(stockService, times(1)).adjust(1L, -4); // reverse the old top-up
+        verify(stockService, times(1)).adjust(1L, -10); // apply the new movement
+        verify(stockCheckpointService, times(1)).adjustCoveredRow(1L, 1L, -4);
+        verify(stockCheckpointService, times(1)).adjustCoveredRow(1L, 1L, -10);
         verify(inventoryRepository, times(1)).save(any(Inventory.class));
     }
 
     @Test
     void updateInventory_ShouldThrowResourceNotFoundExceptionWhenInventoryNotFound() {
-        when(inventoryRepository.existsById(anyLong())).thenReturn(false);
+        when(inventoryRepository.findById(anyLong())).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class, () -> inventoryService.updateInventory(1L, inventoryDTO));
-        verify(inventoryRepository, times(1)).existsById(1L);
-        verify(itemRepository, never()).findById(anyLong());
+        verify(inventoryRepository, times(1)).findById(1L);
+        verify(itemCatalog, never()).getItem(anyLong());
         verify(inventoryRepository, never()).save(any(Inventory.class));
     }
 
     @Test
     void deleteInventory_ShouldDeleteInventory() {
-        when(inventoryRepository.existsById(anyLong())).thenReturn(true);
+        when(inventoryRepository.findById(anyLong())).thenReturn(Optional.of(inventory));
         doNothing().when(inventoryRepository).deleteById(anyLong());
 
         inventoryService.deleteInventory(1L);
 
-        verify(inventoryRepository, times(1)).existsById(1L);
+        verify(inventoryRepository, times(1)).findById(1L);
+        verify(stockService, times(1)).adjust(1L, 10); // reverse the withdrawal
+        verify(stockCheckpointService, times(1)).adjustCoveredRow(1L, 1L, 10);
         verify(inventoryRepository, times(1)).deleteById(1L);
     }
 
     @Test
     void deleteInventory_ShouldThrowResourceNotFoundExceptionWhenInventoryNotFound() {
-        when(inventoryRepository.existsById(anyLong())).thenReturn(false);
+        when(inventoryRepository.findById(anyLong())).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class, () -> inventoryService.deleteInventory(1L));
-        verify(inventoryRepository, times(1)).existsById(1L);
+        verify(inventoryRepository, times(1)).findById(1L);
         verify(inventoryRepository, never()).deleteById(anyLong());
     }
 }
@@ -0,0 +1,124 @@
+package com.test_obs.inventoryms.service;
+
+import com.test_obs.inventoryms.dto.InventoryDTO;
+import com.test_obs.inventoryms.dto.ItemDTO;
+import com.test_obs.inventoryms.dto.OrderDTO;
+import com.test_obs.inventoryms.exception.ResourceNotFoundException;
+import com.test_obs.inventoryms.model.Item;
+import com.test_obs.inventoryms.repository.ItemRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.reset;
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        // The background refresh would add its statements to the counts
+        "inventory.sales-report.enabled=false"
+})
+@AutoConfigureMetrics
+class ItemCatalogTest {
+
+    @Autowired
+    private ItemCatalog itemCatalog;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @SpyBean
+    private ItemRepository itemRepository;
+
+    private Statistics statistics;
+    private ItemDTO item;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        item = itemService.saveItem(new ItemDTO(null, "Cached Item", 10.0, null, null));
+        // Warms the catalog
+        inventoryService.saveInventory(new InventoryDTO(null, item.getId(), null, 50, "T", null));
+    }
+
+    @Test
+    void writes_ShouldNotLoadItemsOnceTheCatalogIsWarm() {
+        statistics.clear();
+
+        orderService.saveOrder(new OrderDTO(null, null, item.getId(), null, 1, 10.0, null));
+        inventoryService.saveInventory(new InventoryDTO(null, item.getId(), null, 5, "T", null));
+
+        assertEquals(0, statistics.getEntityStatistics(Item.class.getName()).getLoadCount());
+        FunctionCounter hits = meterRegistry.find("cache.gets")
+                .tag("cache", ItemCatalog.CACHE_NAME).tag("result", "hit").functionCounter();
+        assertNotNull(hits);
+        assertTrue(hits.count() > 0);
+    }
+
+    @Test
+    void updateItem_ShouldEvictTheCachedItem() {
+        itemService.updateItem(item.getId(), new ItemDTO(null, "Renamed Item", 12.0, null, null));
+
+        OrderDTO order = orderService.saveOrder(new OrderDTO(null, null, item.getId(), null, 1, 12.0, null));
+
+        assertEquals("Renamed Item", order.getItemName());
+        assertEquals("Renamed Item", itemCatalog.getItem(item.getId()).getName());
+    }
+
+    @Test
+    void deleteItem_ShouldEvictTheCachedItem() {
+        ItemDTO unused = itemService.saveItem(new ItemDTO(null, "Short-lived Item", 10.0, null, null));
+        assertEquals("Short-lived Item", itemCatalog.getItem(unused.getId()).getName());
+
+        itemService.deleteItem(unused.getId());
+
+        assertThrows(ResourceNotFoundException.class, () -> itemCatalog.getItem(unused.getId()));
+    }
+
+    @Test
+    void getItem_ShouldNotCacheARowReadBeforeAnUpdateCommitted() throws Exception {
+        ItemDTO raced = itemService.saveItem(new ItemDTO(null, "Raced Item", 10.0, null, null));
+        ExecutorService writer = Executors.newSingleThreadExecutor();
+        // The catalog reads the row, then the update commits before the row is cached
+        doAnswer(invocation -> {
+            Item row = new Item(raced.getId(), "Raced Item", 10.0, null, null);
+            writer.submit(() -> itemService.updateItem(raced.getId(),
+                    new ItemDTO(null, "Updated Item", 11.0, null, null))).get(1, TimeUnit.MINUTES);
+            return Optional.of(row);
+        }).when(itemRepository).findById(raced.getId());
+        try {
+            assertEquals("Raced Item", itemCatalog.getItem(raced.getId()).getName());
+        } finally {
+            reset(itemRepository);
+            writer.shutdown();
+        }
+
+        assertEquals("Updated Item", itemCatalog.getItem(raced.getId()).getName());
+    }
+}
@@ -0,0 +1,63 @@
+package com.test_obs.inventoryms.service;
+
+import com.test_obs.inventoryms.dto.InventoryDTO;
+import com.test_obs.inventoryms.dto.ItemDTO;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        // The background refresh would add its statements to the counts
+        "inventory.sales-report.enabled=false"
+})
+class ItemServiceQueryCountTest {
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        // Enough items that every page below is full and needs a count query
+        for (int i = 0; i < 60; i++) {
+            ItemDTO item = itemService.saveItem(new ItemDTO(null, "Item " + i, 10.0, null, null));
+            inventoryService.saveInventory(new InventoryDTO(null, item.getId(), null, 5, "T", null));
+        }
+    }
+
+    @Test
+    void getAllItems_ShouldIssueConstantNumberOfStatementsWhateverThePageSize() {
+        long smallPage = countStatements(10);
+        long mediumPage = countStatements(25);
+        long largePage = countStatements(50);
+
+        // page select + count + one batched balance lookup
+        assertEquals(3, smallPage);
+        assertEquals(smallPage, mediumPage);
+        assertEquals(smallPage, largePage);
+    }
+
+    private long countStatements(int pageSize) {
+        statistics.clear();
+        itemService.getAllItems(PageRequest.of(0, pageSize));
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -15,6 +15,7 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -26,6 +27,12 @@ class ItemServiceTest {
     @Mock
     private ItemRepository itemRepository;
 
+    @Mock
+    private StockService stockService;
+
+    @Mock
+    private ItemCatalog itemCatalog;
+
     @InjectMocks
     private ItemService itemService;
 
@@ -52,7 +59,7 @@ class ItemServiceTest {
     @Test
     void getItemById_Found() {
         when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
-        when(itemRepository.findRemainingStockByItemId(1L)).thenReturn(5);
+        when(stockService.getRemainingStock(1L)).thenReturn(5);
 
         ItemDTO result = itemService.getItemById(1L);
 
@@ -71,7 +78,7 @@ class ItemServiceTest {
             itemService.getItemById(99L);
         });
 
-        verify(itemRepository, never()).findRemainingStockByItemId(any());
+        verify(stockService, never()).getRemainingStock(any());
     }
 
     @Test
@@ -81,7 +88,8 @@ class ItemServiceTest {
         Pageable pageable = PageRequest.of(0, 10);
 
         when(itemRepository.findAll(pageable)).thenReturn(page);
-        when(itemRepository.findRemainingStockByItemId(1L)).thenReturn(5);
+        when(stockService.getRemainingStockByItemIds(Collections.singletonList(1L)))
+                .thenReturn(Collections.singletonMap(1L, 5));
 
         Page<ItemDTO> result = itemService.getAllItems(pageable);
 
@@ -90,6 +98,7 @@ class ItemServiceTest {
         ItemDTO firstItem = result.getContent().get(0);
         assertEquals("Test Item", firstItem.getName());
         assertEquals(5, firstItem.getRemainingStock());
+        verify(stockService, never()).getRemainingStock(any());
     }
 
     @Test
@@ -103,14 +112,14 @@ class ItemServiceTest {
         assertEquals("Test Item", result.getName());
         assertEquals(10.0, result.getPrice());
         assertEquals(0, result.getRemainingStock()); // Verify default stock
-        verify(itemRepository, never()).findRemainingStockByItemId(any());
+        verify(stockService, never()).getRemainingStock(any());
     }
 
     @Test
     void updateItem_Found() {
         when(itemRepository.existsById(1L)).thenReturn(true);
         when(itemRepository.save(any(Item.class))).thenReturn(item);
-        when(itemRepository.findRemainingStockByItemId(1L)).thenReturn(5);
+        when(stockService.getRemainingStock(1L)).thenReturn(5);
 
         ItemDTO result = itemService.updateItem(1L, itemDTO);
 
@@ -118,6 +127,7 @@ class ItemServiceTest {
         assertEquals("Test Item", result.getName());
         assertEquals(10.0, result.getPrice());
         assertEquals(5, result.getRemainingStock());
+        verify(itemCatalog, times(1)).evict(1L);
     }
 
     @Test
@@ -129,7 +139,8 @@ class ItemServiceTest {
         });
 
         verify(itemRepository, never()).save(any());
-        verify(itemRepository, never()).findRemainingStockByItemId(any());
+        verify(stockService, never()).getRemainingStock(any());
+        verify(itemCatalog, never()).evict(any());
     }
 
     @Test
@@ -142,7 +153,8 @@ class ItemServiceTest {
         });
 
         verify(itemRepository, times(1)).deleteById(1L);
-        verify(itemRepository, never()).findRemainingStockByItemId(any());
+        verify(itemCatalog, times(1)).evict(1L);
+        verify(stockService, never()).getRemainingStock(any());
     }
 
     @Test
@@ -154,6 +166,54 @@ class ItemServiceTest {
         });
 
         verify(itemRepository, never()).deleteById(any());
-        verify(itemRepository, never()).findRemainingStockByItemId(any());
+        verify(stockService, never()).getRemainingStock(any());
+    }
+
+    @Test
+    void getItemETag_ShouldChangeWithTheBalanceVersionOnly() {
+        when(itemCatalog.getItem(1L)).thenReturn(item);
+        when(stockService.getBalanceVersion(1L)).thenReturn(3L, 3L, 4L);
+
+        String first = itemService.getItemETag(1L);
+
+        assertEquals(first, itemService.getItemETag(1L));
+        assertNotEquals(first, itemService.getItemETag(1L));
+        verify(stockService, never()).getRemainingStock(any());
+        verify(itemRepository, never()).findById(any());
+    }
+
+    @Test
+    void getItemsETag_ShouldCoverEveryItemOnThePageWithoutReadingStock() {
+        Pageable pageable = PageRequest.of(0, 10);
+        when(itemRepository.findAll(pageable)).thenReturn(new PageImpl<>(Arrays.asList(item)));
+        when(stockService.getBalanceVersions(Collections.singletonList(1L)))
+                .thenReturn(Collections.singletonMap(1L, 3L))
+                .thenReturn(Collections.singletonMap(1L, 4L));
+
+        assertNotEquals(itemService.getItemsETag(pageable), itemService.getItemsETag(pageable));
+        verify(stockService, never()).getRemainingStockByItemIds(any());
+    }
+
+    @Test
+    void recalculateStock_Found() {
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+        when(stockService.recalculate(1L)).thenReturn(7);
+
+        ItemDTO result = itemService.recalculateStock(1L);
+
+        assertNotNull(result);
+        assertEquals(7, result.getRemainingStock());
+        verify(stockService, times(1)).recalculate(1L);
+    }
+
+    @Test
+    void recalculateStock_NotFound() {
+        when(itemRepository.findById(99L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> {
+            itemService.recalculateStock(99L);
+        });
+
+        verify(stockService, never()).recalculate(any());
     }
-}
\ No newline at end of file
+}
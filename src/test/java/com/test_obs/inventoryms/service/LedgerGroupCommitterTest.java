@@ -0,0 +1,133 @@
+package com.test_obs.inventoryms.service;
+
+import com.test_obs.inventoryms.config.InventoryProperties;
+import com.test_obs.inventoryms.dto.InventoryDTO;
+import com.test_obs.inventoryms.dto.ItemDTO;
+import com.test_obs.inventoryms.exception.ResourceNotFoundException;
+import com.test_obs.inventoryms.repository.InventoryRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = {
+        "inventory.group-commit.enabled=true",
+        "inventory.group-commit.max-batch-size=16",
+        "inventory.group-commit.linger=PT0.05S"
+})
+class LedgerGroupCommitterTest {
+
+    @Autowired
+    private LedgerGroupCommitter ledgerGroupCommitter;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private ItemCatalog itemCatalog;
+
+    @Autowired
+    private InventoryProperties inventoryProperties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void saveInventory_ShouldCommitConcurrentRowsTogether() throws Exception {
+        ItemDTO item = itemService.saveItem(new ItemDTO(null, "Grouped Item", 10.0, null, null));
+        DistributionSummary batches = meterRegistry.get("inventory.ledger.group_commit.rows").summary();
+        long transactionsBefore = batches.count();
+        double rowsBefore = batches.totalAmount();
+
+        int callers = 32;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        List<Future<InventoryDTO>> futures = new ArrayList<>();
+        for (int c = 0; c < callers; c++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return ledgerGroupCommitter.saveInventory(new InventoryDTO(null, item.getId(), null, 2, "T", null));
+            }));
+        }
+        start.countDown();
+
+        for (Future<InventoryDTO> future : futures) {
+            InventoryDTO saved = future.get(1, TimeUnit.MINUTES);
+            // Committed by the time the caller gets it back
+            assertNotNull(saved.getId());
+            assertTrue(inventoryRepository.existsById(saved.getId()));
+        }
+        executor.shutdown();
+
+        assertEquals(2 * callers, stockService.getRemainingStock(item.getId()));
+        assertEquals(callers, batches.totalAmount() - rowsBefore);
+        assertTrue(batches.count() - transactionsBefore < callers,
+                "transactions: " + (batches.count() - transactionsBefore));
+    }
+
+    @Test
+    void saveInventory_ShouldFailOnlyTheCallerWithABadRow() {
+        ItemDTO item = itemService.saveItem(new ItemDTO(null, "Grouped Item", 10.0, null, null));
+
+        assertThrows(ResourceNotFoundException.class, () -> ledgerGroupCommitter.saveInventory(
+                new InventoryDTO(null, Long.MAX_VALUE, null, 2, "T", null)));
+        ledgerGroupCommitter.saveInventory(new InventoryDTO(null, item.getId(), null, 3, "T", null));
+
+        assertEquals(3, stockService.getRemainingStock(item.getId()));
+    }
+
+    @Test
+    void saveInventory_ShouldFailRatherThanWaitOnceStopped() {
+        ItemDTO item = itemService.saveItem(new ItemDTO(null, "Grouped Item", 10.0, null, null));
+        LedgerGroupCommitter stopped = new LedgerGroupCommitter(inventoryService, itemCatalog,
+                inventoryProperties, new SimpleMeterRegistry());
+        stopped.stop();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> assertThrows(IllegalStateException.class,
+                () -> stopped.saveInventory(new InventoryDTO(null, item.getId(), null, 3, "T", null))));
+        assertEquals(0, stockService.getRemainingStock(item.getId()));
+    }
+
+    @Test
+    void saveInventory_ShouldFailWaitingAndLaterCallersWhenTheWriterDies() {
+        InventoryService failing = mock(InventoryService.class);
+        when(failing.saveInventoryBatch(anyList())).thenThrow(new StackOverflowError());
+        InventoryProperties properties = new InventoryProperties();
+        properties.getGroupCommit().setEnabled(true);
+        LedgerGroupCommitter committer = new LedgerGroupCommitter(failing, mock(ItemCatalog.class),
+                properties, new SimpleMeterRegistry());
+        InventoryDTO row = new InventoryDTO(null, 1L, null, 3, "T", null);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            CompletionException failed = assertThrows(CompletionException.class, () -> committer.saveInventory(row));
+            assertTrue(failed.getCause() instanceof StackOverflowError);
+            assertThrows(IllegalStateException.class, () -> committer.saveInventory(row));
+        });
+    }
+}
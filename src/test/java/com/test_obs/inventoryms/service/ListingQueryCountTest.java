@@ -0,0 +1,85 @@
+package com.test_obs.inventoryms.service;
+
+import com.test_obs.inventoryms.dto.InventoryDTO;
+import com.test_obs.inventoryms.dto.ItemDTO;
+import com.test_obs.inventoryms.dto.OrderDTO;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        // The background refresh would add its statements to the counts
+        "inventory.sales-report.enabled=false"
+})
+class ListingQueryCountTest {
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        // Rows spread over many items, so a per-row item load would show up in the count
+        for (int i = 0; i < 30; i++) {
+            ItemDTO item = itemService.saveItem(new ItemDTO(null, "Listed " + i, 10.0, null, null));
+            inventoryService.saveInventory(new InventoryDTO(null, item.getId(), null, 5, "T", null));
+            orderService.saveOrder(new OrderDTO(null, null, item.getId(), null, 1, 10.0, null));
+        }
+    }
+
+    @Test
+    void getAllInventory_ShouldLoadAPageWithOneSelectPlusCount() {
+        statistics.clear();
+
+        Page<InventoryDTO> page = inventoryService.getAllInventory(PageRequest.of(1, 25, Sort.by("createdAt")));
+
+        assertEquals(25, page.getNumberOfElements());
+        assertEquals(2, statistics.getPrepareStatementCount()); // rows + count
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void getAllOrders_ShouldLoadAPageWithOneSelectPlusCount() {
+        statistics.clear();
+
+        Page<OrderDTO> page = orderService.getAllOrders(PageRequest.of(1, 25, Sort.by("createdAt")));
+
+        assertEquals(25, page.getNumberOfElements());
+        assertEquals(2, statistics.getPrepareStatementCount()); // rows + count
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void getAllOrders_ShouldSkipCountWhenFirstPageIsNotFull() {
+        statistics.clear();
+
+        Page<OrderDTO> page = orderService.getAllOrders(PageRequest.of(0, 100_000));
+
+        assertEquals(page.getTotalElements(), page.getNumberOfElements());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+}
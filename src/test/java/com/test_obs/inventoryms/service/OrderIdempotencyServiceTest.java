@@ -0,0 +1,196 @@
+package com.test_obs.inventoryms.service;
+
+import com.test_obs.inventoryms.dto.InventoryDTO;
+import com.test_obs.inventoryms.dto.ItemDTO;
+import com.test_obs.inventoryms.dto.OrderDTO;
+import com.test_obs.inventoryms.exception.IdempotencyKeyConflictException;
+import com.test_obs.inventoryms.exception.InsufficientStockException;
+import com.test_obs.inventoryms.model.IdempotencyRecord;
+import com.test_obs.inventoryms.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mockingDetails;
+
+@SpringBootTest
+class OrderIdempotencyServiceTest {
+
+    @Autowired
+    private OrderIdempotencyService orderIdempotencyService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private StockService stockService;
+
+    @SpyBean
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    private ItemDTO item;
+    private String key;
+
+    @BeforeEach
+    void setUp() {
+        item = itemService.saveItem(new ItemDTO(null, "Retried Item", 10.0, null, null));
+        inventoryService.saveInventory(new InventoryDTO(null, item.getId(), null, 10, "T", null));
+        key = UUID.randomUUID().toString();
+    }
+
+    @Test
+    void saveOrder_ShouldReplayRetriesWithoutWithdrawingAgain() {
+        OrderIdempotencyService.Result first = orderIdempotencyService.saveOrder(key, order(2));
+        OrderIdempotencyService.Result retry = orderIdempotencyService.saveOrder(key, order(2));
+
+        assertFalse(first.isReplayed());
+        assertTrue(retry.isReplayed());
+        assertEquals(first.getOrder().getId(), retry.getOrder().getId());
+        assertEquals(first.getOrder().getOrderNo(), retry.getOrder().getOrderNo());
+        assertEquals(8, stockService.getRemainingStock(item.getId()));
+        assertTrue(idempotencyRecordRepository.existsById(key));
+    }
+
+    @Test
+    void saveOrder_ShouldRejectAKeyReusedForADifferentRequest() {
+        orderIdempotencyService.saveOrder(key, order(2));
+
+        assertThrows(IdempotencyKeyConflictException.class, () -> orderIdempotencyService.saveOrder(key, order(3)));
+        assertEquals(8, stockService.getRemainingStock(item.getId()));
+    }
+
+    @Test
+    void saveOrder_ShouldLetTheKeyBeReusedAfterAFailure() {
+        assertThrows(InsufficientStockException.class, () -> orderIdempotencyService.saveOrder(key, order(11)));
+        assertFalse(idempotencyRecordRepository.existsById(key));
+
+        assertFalse(orderIdempotencyService.saveOrder(key, order(10)).isReplayed());
+        assertEquals(0, stockService.getRemainingStock(item.getId()));
+    }
+
+    @Test
+    void saveOrder_ShouldMakeConcurrentDuplicatesWaitForTheFirstRequest() throws Exception {
+        int threads = 16;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<OrderIdempotencyService.Result>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return orderIdempotencyService.saveOrder(key, order(1));
+            }));
+        }
+        start.countDown();
+
+        int placed = 0;
+        Long orderId = null;
+        for (Future<OrderIdempotencyService.Result> future : futures) {
+            OrderIdempotencyService.Result result = future.get(1, TimeUnit.MINUTES);
+            placed += result.isReplayed() ? 0 : 1;
+            if (orderId == null) {
+                orderId = result.getOrder().getId();
+            }
+            assertEquals(orderId, result.getOrder().getId());
+        }
+        executor.shutdown();
+
+        assertEquals(1, placed);
+        assertEquals(9, stockService.getRemainingStock(item.getId()));
+    }
+
+    @Test
+    void saveOrder_ShouldReplayFromTheDatabaseWhenTheKeyIsNotInMemory() {
+        OrderIdempotencyService.Result placed = orderIdempotencyService.saveOrder(key, order(2));
+        IdempotencyRecord record = idempotencyRecordRepository.findById(key).orElseThrow(AssertionError::new);
+        // Same response and request, recorded under a key this instance has never seen
+        String otherKey = UUID.randomUUID().toString();
+        idempotencyRecordRepository.save(new IdempotencyRecord(otherKey, record.getRequestHash(),
+                record.getResponseBody(), LocalDateTime.now()));
+
+        OrderIdempotencyService.Result replayed = orderIdempotencyService.saveOrder(otherKey, order(2));
+
+        assertTrue(replayed.isReplayed());
+        assertEquals(placed.getOrder().getId(), replayed.getOrder().getId());
+        assertEquals(8, stockService.getRemainingStock(item.getId()));
+    }
+
+    @Test
+    void saveOrder_ShouldReplayAKeyRecordedByAnotherInstanceWhilePlacing() {
+        OrderDTO winner = recordAfterLookup(order(2));
+
+        OrderIdempotencyService.Result result = orderIdempotencyService.saveOrder(key, order(2));
+
+        assertTrue(result.isReplayed());
+        assertEquals(winner.getId(), result.getOrder().getId());
+        assertEquals(8, stockService.getRemainingStock(item.getId()));
+    }
+
+    @Test
+    void saveOrder_ShouldRejectADifferentRequestRecordedByAnotherInstanceWhilePlacing() {
+        OrderDTO winner = recordAfterLookup(order(2));
+
+        assertThrows(IdempotencyKeyConflictException.class, () -> orderIdempotencyService.saveOrder(key, order(3)));
+        assertEquals(8, stockService.getRemainingStock(item.getId()));
+        IdempotencyRecord record = idempotencyRecordRepository.findById(key).orElseThrow(AssertionError::new);
+        assertTrue(record.getResponseBody().contains("\"orderNo\":\"" + winner.getOrderNo() + "\""));
+    }
+
+    @Test
+    void saveOrder_ShouldPlaceANewOrderForAnExpiredKey() {
+        idempotencyRecordRepository.save(new IdempotencyRecord(key, "hash", "{}", LocalDateTime.now().minusDays(2)));
+
+        OrderIdempotencyService.Result placed = orderIdempotencyService.saveOrder(key, order(2));
+
+        assertFalse(placed.isReplayed());
+        assertEquals(8, stockService.getRemainingStock(item.getId()));
+        IdempotencyRecord record = idempotencyRecordRepository.findById(key).orElseThrow(AssertionError::new);
+        assertTrue(record.getCreatedAt().isAfter(LocalDateTime.now().minusHours(1)));
+    }
+
+    @Test
+    void purgeExpired_ShouldDeleteRecordsPastRetention() {
+        idempotencyRecordRepository.save(new IdempotencyRecord(key, "hash", "{}", LocalDateTime.now().minusDays(2)));
+
+        assertTrue(orderIdempotencyService.purgeExpired() >= 1);
+        assertFalse(idempotencyRecordRepository.existsById(key));
+    }
+
+    // Another instance places an order and records it under the key, after this instance looked the key up
+    private OrderDTO recordAfterLookup(OrderDTO request) {
+        String otherKey = UUID.randomUUID().toString();
+        OrderDTO placed = orderIdempotencyService.saveOrder(otherKey, request).getOrder();
+        IdempotencyRecord record = idempotencyRecordRepository.findById(otherKey).orElseThrow(AssertionError::new);
+        idempotencyRecordRepository.save(new IdempotencyRecord(key, record.getRequestHash(),
+                record.getResponseBody(), LocalDateTime.now()));
+
+        Answer<?> real = mockingDetails(idempotencyRecordRepository).getMockCreationSettings().getDefaultAnswer();
+        AtomicBoolean lookedUp = new AtomicBoolean();
+        doAnswer(invocation -> lookedUp.compareAndSet(false, true) ? Optional.empty() : real.answer(invocation))
+                .when(idempotencyRecordRepository).findById(key);
+        return placed;
+    }
+
+    private OrderDTO order(int quantity) {
+        return new OrderDTO(null, null, item.getId(), null, quantity, 10.0, null);
+    }
+}
@@ -0,0 +1,136 @@
+package com.test_obs.inventoryms.service;
+
+import com.test_obs.inventoryms.config.InventoryProperties;
+import com.test_obs.inventoryms.dto.InventoryDTO;
+import com.test_obs.inventoryms.dto.ItemDTO;
+import com.test_obs.inventoryms.dto.OrderDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class OrderNumberAllocatorTest {
+
+    private static final int THREADS = 16;
+    private static final int NUMBERS_PER_THREAD = 1000;
+
+    @Autowired
+    private OrderNumberAllocator orderNumberAllocator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Test
+    void nextOrderNo_ShouldHandOutUniqueNumbersAcrossThreads() throws Exception {
+        Set<String> orderNumbers = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < NUMBERS_PER_THREAD; i++) {
+                    orderNumbers.add(orderNumberAllocator.nextOrderNo());
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        assertEquals(THREADS * NUMBERS_PER_THREAD, orderNumbers.size());
+        assertTrue(orderNumbers.stream().allMatch(orderNo -> orderNo.matches("O[1-9][0-9]*")));
+    }
+
+    @Test
+    void next_ShouldIncreaseWithinABlock() {
+        long first = orderNumberAllocator.next();
+        long second = orderNumberAllocator.next();
+
+        assertTrue(second > first);
+    }
+
+    @Test
+    void createSequence_ShouldNotReuseReservedNumbersWhenBlockSizeChanges() {
+        Set<Long> before = new HashSet<>();
+        for (int i = 0; i < 150; i++) {
+            before.add(orderNumberAllocator.next());
+        }
+
+        // As after a restart with a smaller block size
+        OrderNumberAllocator resized = allocator(10);
+        try {
+            assertEquals(10L, jdbcTemplate.queryForObject(
+                    "SELECT increment FROM information_schema.sequences WHERE sequence_name = 'ORDER_NO_SEQ'", Long.class));
+            for (int i = 0; i < 150; i++) {
+                long value = resized.next();
+                assertFalse(before.contains(value), "Number " + value + " was handed out twice");
+                assertTrue(value > before.stream().mapToLong(Long::longValue).max().getAsLong());
+            }
+        } finally {
+            // Back to the configured size for the shared application context
+            allocator(new InventoryProperties().getOrder().getNumberBlockSize());
+        }
+    }
+
+    @Test
+    void createSequence_ShouldSkipOrderNumbersOfAnotherForm() {
+        ItemDTO item = itemService.saveItem(new ItemDTO(null, "Numbered Item", 10.0, null, null));
+        inventoryService.saveInventory(new InventoryDTO(null, item.getId(), null, 10, "T", null));
+        long imported = orderNumberAllocator.next() + 1_000_000;
+        renumber(orderService.saveOrder(order(item)), "O" + imported);
+        renumber(orderService.saveOrder(order(item)), "OLD-" + (imported + 1));
+        renumber(orderService.saveOrder(order(item)), "O" + imported + "X");
+
+        OrderNumberAllocator resized = allocator(10);
+        try {
+            assertTrue(resized.next() > imported);
+        } finally {
+            allocator(new InventoryProperties().getOrder().getNumberBlockSize());
+        }
+    }
+
+    private void renumber(OrderDTO order, String orderNo) {
+        jdbcTemplate.update("UPDATE orders SET order_no = ? WHERE id = ?", orderNo, order.getId());
+    }
+
+    private OrderDTO order(ItemDTO item) {
+        return new OrderDTO(null, null, item.getId(), null, 1, 10.0, null);
+    }
+
+    private OrderNumberAllocator allocator(int blockSize) {
+        InventoryProperties properties = new InventoryProperties();
+        properties.getOrder().setNumberBlockSize(blockSize);
+        OrderNumberAllocator allocator = new OrderNumberAllocator(jdbcTemplate, entityManagerFactory, properties);
+        allocator.createSequence();
+        return allocator;
+    }
+}
@@ -0,0 +1,93 @@
+package com.test_obs.inventoryms.service;
+
+import com.test_obs.inventoryms.dto.InventoryDTO;
+import com.test_obs.inventoryms.dto.ItemDTO;
+import com.test_obs.inventoryms.dto.OrderDTO;
+import com.test_obs.inventoryms.exception.BatchOrderException;
+import com.test_obs.inventoryms.repository.OrderRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        // The background refresh would add its statements to the counts
+        "inventory.sales-report.enabled=false"
+})
+class OrderServiceBatchTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<Long> itemIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 4; i++) {
+            ItemDTO item = itemService.saveItem(new ItemDTO(null, "Cart Item " + i, 10.0, null, null));
+            inventoryService.saveInventory(new InventoryDTO(null, item.getId(), null, 10, "T", null));
+            itemIds.add(item.getId());
+        }
+    }
+
+    @Test
+    void saveOrders_ShouldPlaceCartWithFewerStatementsThanLines() {
+        List<OrderDTO> lines = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            lines.add(new OrderDTO(null, null, itemIds.get(i % 4), null, 2, 10.0, null));
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<OrderDTO> result = orderService.saveOrders(lines);
+
+        assertEquals(20, result.size());
+        assertEquals(20, result.stream().map(OrderDTO::getOrderNo).distinct().count());
+        // items + stock lookup + one withdrawal per item + batched inserts and sequence calls
+        assertTrue(statistics.getPrepareStatementCount() < lines.size(),
+                "statements: " + statistics.getPrepareStatementCount());
+        for (Long itemId : itemIds) {
+            assertEquals(0, stockService.getRemainingStock(itemId));
+        }
+    }
+
+    @Test
+    void saveOrders_ShouldLeaveStockUntouchedWhenAnyLineFails() {
+        long ordersBefore = orderRepository.count();
+        List<OrderDTO> lines = new ArrayList<>();
+        lines.add(new OrderDTO(null, null, itemIds.get(0), null, 5, 10.0, null));
+        lines.add(new OrderDTO(null, null, itemIds.get(1), null, 11, 10.0, null));
+
+        BatchOrderException ex = assertThrows(BatchOrderException.class, () -> orderService.saveOrders(lines));
+
+        assertEquals(1, ex.getErrors().size());
+        assertEquals(1, ex.getErrors().get(0).getLine());
+        assertEquals(ordersBefore, orderRepository.count());
+        assertEquals(10, stockService.getRemainingStock(itemIds.get(0)));
+        assertEquals(10, stockService.getRemainingStock(itemIds.get(1)));
+    }
+}
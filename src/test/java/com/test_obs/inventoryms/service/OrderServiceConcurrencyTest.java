@@ -0,0 +1,116 @@
+package com.test_obs.inventoryms.service;
+
+import com.test_obs.inventoryms.dto.InventoryDTO;
+import com.test_obs.inventoryms.dto.ItemDTO;
+import com.test_obs.inventoryms.dto.OrderDTO;
+import com.test_obs.inventoryms.exception.InsufficientStockException;
+import com.test_obs.inventoryms.repository.ItemRepository;
+import com.test_obs.inventoryms.repository.StockBalanceRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class OrderServiceConcurrencyTest {
+
+    private static final int THREADS = 64;
+    private static final int ORDERS_PER_THREAD = 5;
+    private static final int INITIAL_STOCK = 100;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private StockBalanceRepository stockBalanceRepository;
+
+    @Test
+    void saveOrder_ShouldNeverOversellUnderConcurrentLoad() throws Exception {
+        ItemDTO item = itemService.saveItem(new ItemDTO(null, "Hot SKU", 10.0, null, null));
+        inventoryService.saveInventory(new InventoryDTO(null, item.getId(), null, INITIAL_STOCK, "T", null));
+
+        AtomicInteger placed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ORDERS_PER_THREAD; i++) {
+                    try {
+                        orderService.saveOrder(new OrderDTO(null, null, item.getId(), null, 1, 10.0, null));
+                        placed.incrementAndGet();
+                    } catch (InsufficientStockException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long startedAt = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        long elapsedNanos = System.nanoTime() - startedAt;
+        executor.shutdown();
+
+        double ordersPerSecond = (placed.get() + rejected.get()) / (elapsedNanos / 1_000_000_000.0);
+        System.out.printf("Order placement: %d placed, %d rejected, %d threads, %.1f orders/sec%n",
+                placed.get(), rejected.get(), THREADS, ordersPerSecond);
+
+        assertEquals(INITIAL_STOCK, placed.get());
+        assertEquals(THREADS * ORDERS_PER_THREAD - INITIAL_STOCK, rejected.get());
+        assertEquals(0, itemService.getItemById(item.getId()).getRemainingStock());
+        assertEquals(0, itemRepository.findRemainingStockByItemId(item.getId()));
+        assertTrue(ordersPerSecond > 0);
+    }
+
+    @Test
+    void saveInventory_ShouldMaterializeMissingBalanceOnceUnderConcurrentFirstWrites() throws Exception {
+        ItemDTO item = itemService.saveItem(new ItemDTO(null, "Legacy SKU", 10.0, null, null));
+        // As for items that predate the balance table
+        stockBalanceRepository.deleteById(item.getId());
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return inventoryService.saveInventory(new InventoryDTO(null, item.getId(), null, 1, "T", null));
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        assertEquals(THREADS, stockBalanceRepository.findById(item.getId()).get().getBalance());
+        assertEquals(THREADS, itemRepository.findRemainingStockByItemId(item.getId()));
+    }
+}
@@ -1,29 +1,40 @@
 package com.test_obs.inventoryms.service;
 
+import com.test_obs.inventoryms.config.InventoryProperties;
 import com.test_obs.inventoryms.dto.OrderDTO;
+import com.test_obs.inventoryms.exception.BatchOrderException;
+import com.test_obs.inventoryms.exception.BatchTooLargeException;
 import com.test_obs.inventoryms.exception.InsufficientStockException;
 import com.test_obs.inventoryms.exception.ResourceNotFoundException;
 import com.test_obs.inventoryms.model.Inventory;
 import com.test_obs.inventoryms.model.Item;
 import com.test_obs.inventoryms.model.Order;
 import com.test_obs.inventoryms.repository.InventoryRepository;
-import com.test_obs.inventoryms.repository.ItemRepository;
 import com.test_obs.inventoryms.repository.OrderRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
@@ -34,11 +45,32 @@ class OrderServiceTest {
     private OrderRepository orderRepository;
 
     @Mock
-    private ItemRepository itemRepository;
+    private ItemCatalog itemCatalog;
 
     @Mock
     private InventoryRepository inventoryRepository;
 
+    @Mock
+    private StockService stockService;
+
+    @Mock
+    private StockBucketService stockBucketService;
+
+    @Mock
+    private DailyRollupService dailyRollupService;
+
+    @Mock
+    private StripedItemLock itemLock;
+
+    @Mock
+    private OrderNumberAllocator orderNumberAllocator;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private InventoryProperties properties = new InventoryProperties();
+
     @InjectMocks
     private OrderService orderService;
 
@@ -99,22 +131,22 @@ class OrderServiceTest {
 
     @Test
     void getAllOrders_ShouldReturnPageOfOrderDTO() {
-        Page<Order> page = new PageImpl<>(Collections.singletonList(order));
-        when(orderRepository.findAll(any(Pageable.class))).thenReturn(page);
+        Page<OrderDTO> page = new PageImpl<>(Collections.singletonList(orderDTO));
+        when(orderRepository.findAllProjected(any(Pageable.class))).thenReturn(page);
 
         Page<OrderDTO> result = orderService.getAllOrders(Pageable.unpaged());
 
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
         assertEquals(orderDTO.getId(), result.getContent().get(0).getId());
-        verify(orderRepository, times(1)).findAll(any(Pageable.class));
+        verify(orderRepository, times(1)).findAllProjected(any(Pageable.class));
+        verify(orderRepository, never()).findAll(any(Pageable.class));
     }
 
     @Test
     void saveOrder_ShouldReturnSavedOrderDTO() {
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
-        when(itemRepository.findRemainingStockByItemId(anyLong())).thenReturn(10);
-        when(orderRepository.countOrders()).thenReturn(0L);
+        when(itemCatalog.getItem(anyLong())).thenReturn(item);
+        when(orderNumberAllocator.nextOrderNo()).thenReturn("O1");
         when(orderRepository.save(any(Order.class))).thenReturn(order);
         when(inventoryRepository.save(any(Inventory.class))).thenReturn(inventory);
 
@@ -123,39 +155,128 @@ class OrderServiceTest {
         assertNotNull(result);
         assertEquals(orderDTO.getId(), result.getId());
         assertEquals("O1", result.getOrderNo()); // Verify order number generation
-        verify(itemRepository, times(2)).findById(1L); // Changed from times(1) to times(2)
-        verify(itemRepository, times(1)).findRemainingStockByItemId(1L);
-        verify(orderRepository, times(1)).countOrders();
+        verify(itemCatalog, times(2)).getItem(1L);
+        verify(itemLock, times(1)).lockUntilCompletion(1L);
+        verify(stockService, times(1)).withdraw(item, 5);
+        verify(orderNumberAllocator, times(1)).nextOrderNo();
         verify(orderRepository, times(1)).save(any(Order.class));
         verify(inventoryRepository, times(1)).save(any(Inventory.class));
+        verify(stockBucketService, times(1)).record(any(Inventory.class));
+        verify(dailyRollupService, times(1)).record(any(Inventory.class));
     }
 
     @Test
     void saveOrder_ShouldThrowResourceNotFoundExceptionWhenItemNotFound() {
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(itemCatalog.getItem(anyLong())).thenThrow(new ResourceNotFoundException("Item not found with id: 1"));
 
         assertThrows(ResourceNotFoundException.class, () -> orderService.saveOrder(orderDTO));
-        verify(itemRepository, times(1)).findById(1L);
-        verify(itemRepository, never()).findRemainingStockByItemId(anyLong());
+        verify(itemCatalog, times(1)).getItem(1L);
+        verify(stockService, never()).withdraw(any(Item.class), anyInt());
         verify(orderRepository, never()).save(any(Order.class));
     }
 
     @Test
     void saveOrder_ShouldThrowInsufficientStockException() {
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
-        when(itemRepository.findRemainingStockByItemId(anyLong())).thenReturn(2); // Less than requested quantity
+        when(itemCatalog.getItem(anyLong())).thenReturn(item);
+        doThrow(new InsufficientStockException("Insufficient stock for item: Test Item (Available: 2, Requested: 5)"))
+                .when(stockService).withdraw(item, 5); // Less than requested quantity
 
         assertThrows(InsufficientStockException.class, () -> orderService.saveOrder(orderDTO));
-        verify(itemRepository, times(1)).findById(1L);
-        verify(itemRepository, times(1)).findRemainingStockByItemId(1L);
+        verify(itemCatalog, times(1)).getItem(1L);
+        verify(stockService, times(1)).withdraw(item, 5);
         verify(orderRepository, never()).save(any(Order.class));
+        verify(inventoryRepository, never()).save(any(Inventory.class));
+    }
+
+    @Test
+    void saveOrders_ShouldRejectBatchesOverTheLineLimit() {
+        properties.getOrder().setMaxBatchLines(2);
+        List<OrderDTO> lines = Arrays.asList(orderDTO, orderDTO, orderDTO);
+
+        assertThrows(BatchTooLargeException.class, () -> orderService.saveOrders(lines));
+        verifyNoInteractions(itemCatalog, itemLock, stockService, orderRepository);
+    }
+
+    @Test
+    void saveOrders_ShouldWithdrawOncePerItemAndSaveAllLines() {
+        List<OrderDTO> lines = Arrays.asList(
+                new OrderDTO(null, null, 1L, null, 2, 100.0, null),
+                new OrderDTO(null, null, 1L, null, 3, 100.0, null));
+        when(itemCatalog.getItems(Collections.singletonList(1L))).thenReturn(Collections.singletonMap(1L, item));
+        when(stockService.getRemainingStockByItemIds(Collections.singleton(1L)))
+                .thenReturn(Collections.singletonMap(1L, 5));
+        when(orderNumberAllocator.nextOrderNo()).thenReturn("O1", "O2");
+        when(orderRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<OrderDTO> result = orderService.saveOrders(lines);
+
+        assertEquals(2, result.size());
+        assertEquals("O1", result.get(0).getOrderNo());
+        assertEquals("O2", result.get(1).getOrderNo());
+        verify(itemLock, times(1)).lockUntilCompletion(1L);
+        verify(stockService, times(1)).withdraw(item, 5);
+        verify(inventoryRepository, times(1)).saveAll(anyList());
+        verify(itemCatalog, never()).getItem(anyLong());
+    }
+
+    @Test
+    void saveOrders_ShouldRejectWholeBatchWithPerLineErrors() {
+        List<OrderDTO> lines = Arrays.asList(
+                new OrderDTO(null, null, 1L, null, 4, 100.0, null),
+                new OrderDTO(null, null, 2L, null, 1, 100.0, null),
+                new OrderDTO(null, null, 1L, null, 4, 100.0, null));
+        when(itemCatalog.getItems(Arrays.asList(1L, 2L))).thenReturn(Collections.singletonMap(1L, item));
+        when(stockService.getRemainingStockByItemIds(Collections.singleton(1L)))
+                .thenReturn(Collections.singletonMap(1L, 5));
+
+        BatchOrderException ex = assertThrows(BatchOrderException.class, () -> orderService.saveOrders(lines));
+
+        assertEquals(2, ex.getErrors().size());
+        assertEquals(1, ex.getErrors().get(0).getLine());
+        assertEquals("Item not found with id: 2", ex.getErrors().get(0).getMessage());
+        assertEquals(2, ex.getErrors().get(1).getLine());
+        assertEquals("Insufficient stock for item: Test Item (Available: 5, Requested: 8)",
+                ex.getErrors().get(1).getMessage());
+        verify(stockService, never()).withdraw(any(Item.class), anyInt());
+        verify(orderRepository, never()).saveAll(anyList());
+        verify(inventoryRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void saveOrders_ShouldReportWithdrawalFailureAsLineErrorWhenCheckedStockWasStale() {
+        Item other = new Item(2L, "Other Item", 10.0, null, null);
+        Map<Long, Item> items = new HashMap<>();
+        items.put(1L, item);
+        items.put(2L, other);
+        List<OrderDTO> lines = Arrays.asList(
+                new OrderDTO(null, null, 2L, null, 1, 100.0, null),
+                new OrderDTO(null, null, 1L, null, 2, 100.0, null),
+                new OrderDTO(null, null, 1L, null, 3, 100.0, null));
+        when(itemCatalog.getItems(Arrays.asList(2L, 1L))).thenReturn(items);
+        Map<Long, Integer> cached = new HashMap<>();
+        cached.put(1L, 5);
+        cached.put(2L, 5);
+        when(stockService.getRemainingStockByItemIds(items.keySet())).thenReturn(cached);
+        doThrow(new InsufficientStockException("Insufficient stock for item: Test Item (Available: 4, Requested: 5)"))
+                .when(stockService).withdraw(item, 5);
+
+        BatchOrderException ex = assertThrows(BatchOrderException.class, () -> orderService.saveOrders(lines));
+
+        assertEquals(1, ex.getErrors().size());
+        assertEquals(2, ex.getErrors().get(0).getLine());
+        assertEquals(1L, ex.getErrors().get(0).getItemId());
+        // Withdrawals go in item id order, matching the stripe lock order
+        InOrder inOrder = inOrder(stockService);
+        inOrder.verify(stockService).withdraw(item, 5);
+        inOrder.verify(stockService).withdraw(other, 1);
+        verify(orderRepository, never()).saveAll(anyList());
     }
 
     @Test
     void updateOrder_ShouldReturnUpdatedOrderDTO_WhenNoItemOrQuantityChange() {
         when(orderRepository.existsById(anyLong())).thenReturn(true);
         when(orderRepository.findById(anyLong())).thenReturn(Optional.of(order));
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item)); // Add this mock
+        when(itemCatalog.getItem(anyLong())).thenReturn(item);
         when(orderRepository.save(any(Order.class))).thenReturn(order);
 
         OrderDTO result = orderService.updateOrder(1L, orderDTO);
@@ -164,7 +285,7 @@ class OrderServiceTest {
         assertEquals(orderDTO.getId(), result.getId());
         verify(orderRepository, times(1)).existsById(1L);
         verify(orderRepository, times(1)).findById(1L);
-        verify(itemRepository, times(1)).findById(1L); // Add this verification
+        verify(itemCatalog, times(1)).getItem(1L);
         verify(orderRepository, times(1)).save(any(Order.class));
         verify(inventoryRepository, never()).save(any(Inventory.class));
     }
@@ -183,9 +304,7 @@ class OrderServiceTest {
 
         when(orderRepository.existsById(anyLong())).thenReturn(true);
         when(orderRepository.findById(anyLong())).thenReturn(Optional.of(order));
-        // Allow multiple calls to findById(2L)
-        when(itemRepository.findById(2L)).thenReturn(Optional.of(newItem));
-        when(itemRepository.findRemainingStockByItemId(anyLong())).thenReturn(10);
+        when(itemCatalog.getItem(2L)).thenReturn(newItem);
         when(orderRepository.save(any(Order.class))).thenReturn(order);
         when(inventoryRepository.save(any(Inventory.class))).thenReturn(inventory);
 
@@ -195,9 +314,10 @@ class OrderServiceTest {
         assertEquals(orderDTO.getId(), result.getId());
         verify(orderRepository, times(1)).existsById(1L);
         verify(orderRepository, times(1)).findById(1L);
-        // Verify findById(2L) was called twice
-        verify(itemRepository, times(2)).findById(2L);
-        verify(itemRepository, times(1)).findRemainingStockByItemId(2L);
+        verify(itemCatalog, times(2)).getItem(2L);
+        verify(itemLock, times(1)).lockUntilCompletion(1L, 2L);
+        verify(stockService, times(1)).adjust(1L, 5);
+        verify(stockService, times(1)).withdraw(newItem, 3);
         verify(inventoryRepository, times(2)).save(any(Inventory.class));
         verify(orderRepository, times(1)).save(any(Order.class));
     }
@@ -226,8 +346,9 @@ class OrderServiceTest {
 
         when(orderRepository.existsById(anyLong())).thenReturn(true);
         when(orderRepository.findById(anyLong())).thenReturn(Optional.of(order));
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(newItem));
-        when(itemRepository.findRemainingStockByItemId(anyLong())).thenReturn(10); // Less than requested quantity
+        when(itemCatalog.getItem(anyLong())).thenReturn(newItem);
+        doThrow(new InsufficientStockException("Insufficient stock for item: New Item (Available: 10, Requested: 15)"))
+                .when(stockService).withdraw(newItem, 15); // Less than requested quantity
 
         assertThrows(InsufficientStockException.class, () -> orderService.updateOrder(1L, updatedOrderDTO));
         verify(inventoryRepository, times(1)).save(any(Inventory.class)); // Only the top-up should be called
@@ -243,8 +364,10 @@ class OrderServiceTest {
         orderService.deleteOrder(1L);
 
         verify(orderRepository, times(1)).findById(1L);
+        verify(stockService, times(1)).adjust(1L, 5);
         verify(inventoryRepository, times(1)).save(any(Inventory.class));
         verify(orderRepository, times(1)).deleteById(1L);
+        verify(eventPublisher, times(1)).publishEvent(any(OrderChangedEvent.class));
     }
 
     @Test
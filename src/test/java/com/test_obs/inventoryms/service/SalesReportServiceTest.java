@@ -0,0 +1,107 @@
+package com.test_obs.inventoryms.service;
+
+import com.test_obs.inventoryms.dto.InventoryDTO;
+import com.test_obs.inventoryms.dto.ItemDTO;
+import com.test_obs.inventoryms.dto.OrderDTO;
+import com.test_obs.inventoryms.dto.SalesReportDTO;
+import com.test_obs.inventoryms.dto.SalesReportRowDTO;
+import com.test_obs.inventoryms.exception.InvalidDateRangeException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "inventory.sales-report.lag=PT0S",
+        "inventory.sales-report.refresh-interval=PT1H"
+})
+class SalesReportServiceTest {
+    @Autowired
+    private SalesReportService salesReportService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private OrderService orderService;
+
+    private ItemDTO item;
+    private LocalDateTime from;
+    private LocalDateTime to;
+
+    @BeforeEach
+    void setUp() {
+        item = itemService.saveItem(new ItemDTO(null, "Reported Item", 10.0, null, null));
+        inventoryService.saveInventory(new InventoryDTO(null, item.getId(), null, 100, "T", null));
+        from = LocalDateTime.now().truncatedTo(ChronoUnit.DAYS);
+        to = from.plusDays(1);
+    }
+
+    @Test
+    void getSalesReport_ShouldFollowNewEditedAndDeletedOrders() {
+        orderService.saveOrder(new OrderDTO(null, null, item.getId(), null, 2, 10.25, null));
+        OrderDTO edited = orderService.saveOrder(new OrderDTO(null, null, item.getId(), null, 3, 5.0, null));
+        OrderDTO deleted = orderService.saveOrder(new OrderDTO(null, null, item.getId(), null, 1, 99.99, null));
+        salesReportService.refresh();
+
+        SalesReportDTO report = salesReportService.getSalesReport(from, to, SalesReportService.Bucket.DAY, item.getId());
+        assertEquals(1, report.getRows().size());
+        assertEquals(3, report.getOrders());
+        assertEquals(6, report.getQuantity());
+        assertEquals(new BigDecimal("135.49"), report.getRevenue());
+
+        edited.setQuantity(4);
+        orderService.updateOrder(edited.getId(), edited);
+        orderService.deleteOrder(deleted.getId());
+        salesReportService.refresh();
+
+        report = salesReportService.getSalesReport(from, to, SalesReportService.Bucket.TOTAL, item.getId());
+        SalesReportRowDTO row = report.getRows().get(0);
+        assertEquals(item.getId(), row.getItemId());
+        assertEquals(from, row.getBucketStart());
+        assertEquals(2, row.getOrders());
+        assertEquals(6, row.getQuantity());
+        assertEquals(new BigDecimal("40.50"), row.getRevenue());
+    }
+
+    @Test
+    void getSalesReport_ShouldGroupByItemAndBucket() {
+        ItemDTO other = itemService.saveItem(new ItemDTO(null, "Other Reported Item", 10.0, null, null));
+        inventoryService.saveInventory(new InventoryDTO(null, other.getId(), null, 100, "T", null));
+        orderService.saveOrder(new OrderDTO(null, null, item.getId(), null, 1, 10.0, null));
+        orderService.saveOrder(new OrderDTO(null, null, other.getId(), null, 2, 10.0, null));
+        salesReportService.refresh();
+
+        SalesReportDTO report = salesReportService.getSalesReport(from, to, SalesReportService.Bucket.HOUR, null);
+        SalesReportRowDTO itemRow = report.getRows().stream()
+                .filter(row -> row.getItemId().equals(item.getId())).findFirst().orElseThrow(AssertionError::new);
+        SalesReportRowDTO otherRow = report.getRows().stream()
+                .filter(row -> row.getItemId().equals(other.getId())).findFirst().orElseThrow(AssertionError::new);
+        LocalDateTime hour = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+        assertTrue(!itemRow.getBucketStart().isAfter(hour));
+        assertEquals(new BigDecimal("10.00"), itemRow.getRevenue());
+        assertEquals(new BigDecimal("20.00"), otherRow.getRevenue());
+        assertTrue(report.getLastOrderId() > 0);
+
+        // Nothing was sold before today
+        SalesReportDTO yesterday = salesReportService.getSalesReport(from.minusDays(1), from, SalesReportService.Bucket.DAY, item.getId());
+        assertTrue(yesterday.getRows().isEmpty());
+    }
+
+    @Test
+    void getSalesReport_ShouldRejectBadRanges() {
+        assertThrows(InvalidDateRangeException.class,
+                () -> salesReportService.getSalesReport(to, from, SalesReportService.Bucket.DAY, null));
+        assertThrows(InvalidDateRangeException.class,
+                () -> salesReportService.getSalesReport(from.minusYears(5), to, SalesReportService.Bucket.HOUR, null));
+    }
+}
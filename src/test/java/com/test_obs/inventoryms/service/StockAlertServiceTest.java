@@ -0,0 +1,101 @@
+package com.test_obs.inventoryms.service;
+
+import com.test_obs.inventoryms.dto.InventoryDTO;
+import com.test_obs.inventoryms.dto.ItemDTO;
+import com.test_obs.inventoryms.dto.OrderDTO;
+import com.test_obs.inventoryms.dto.StockAlertDTO;
+import com.test_obs.inventoryms.dto.StockThresholdDTO;
+import com.test_obs.inventoryms.exception.InvalidThresholdException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class StockAlertServiceTest {
+
+    @Autowired
+    private StockAlertService stockAlertService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private OrderService orderService;
+
+    private ItemDTO item;
+
+    @BeforeEach
+    void setUp() {
+        item = itemService.saveItem(new ItemDTO(null, "Watched Item", 10.0, null, null));
+        inventoryService.saveInventory(new InventoryDTO(null, item.getId(), null, 10, "T", null));
+    }
+
+    @Test
+    void threshold_ShouldFireOncePerCrossing() throws Exception {
+        stockAlertService.setThreshold(item.getId(), new StockThresholdDTO(null, 3, 6, null, null));
+
+        order(5); // 5 left, above the reorder level
+        order(2); // 3 left, crossing
+        List<StockAlertDTO> alerts = awaitAlerts(1);
+        assertEquals("LOW", alerts.get(0).getType());
+        assertEquals(3, alerts.get(0).getAvailable());
+
+        order(1); // 2 left, still low
+        topUp(3); // 5 left, below the re-arm level
+        topUp(2); // 7 left, re-armed
+        alerts = awaitAlerts(2);
+        assertEquals("RESTOCKED", alerts.get(0).getType());
+        assertEquals(7, alerts.get(0).getAvailable());
+
+        order(4); // 3 left, crossing again
+        alerts = awaitAlerts(3);
+        assertEquals("LOW", alerts.get(0).getType());
+        assertTrue(stockAlertService.getThreshold(item.getId()).getLow());
+    }
+
+    @Test
+    void setThreshold_ShouldFireRightAwayForAnItemThatIsAlreadyLow() throws Exception {
+        stockAlertService.setThreshold(item.getId(), new StockThresholdDTO(null, 10, null, null, null));
+
+        List<StockAlertDTO> alerts = awaitAlerts(1);
+        assertEquals("LOW", alerts.get(0).getType());
+        assertEquals(11, stockAlertService.getThreshold(item.getId()).getRearmLevel());
+    }
+
+    @Test
+    void setThreshold_ShouldRejectARearmLevelBelowTheReorderLevel() {
+        assertThrows(InvalidThresholdException.class, () -> stockAlertService.setThreshold(item.getId(),
+                new StockThresholdDTO(null, 5, 5, null, null)));
+    }
+
+    private void order(int quantity) {
+        orderService.saveOrder(new OrderDTO(null, null, item.getId(), null, quantity, 10.0, null));
+    }
+
+    private void topUp(int quantity) {
+        inventoryService.saveInventory(new InventoryDTO(null, item.getId(), null, quantity, "T", null));
+    }
+
+    // Newest first; fails if more than the expected number of alerts show up
+    private List<StockAlertDTO> awaitAlerts(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        List<StockAlertDTO> alerts;
+        do {
+            assertTrue(System.nanoTime() < deadline, "expected " + count + " alerts");
+            Thread.sleep(20);
+            alerts = stockAlertService.getAlerts(item.getId(), PageRequest.of(0, 10)).getContent();
+        } while (alerts.size() < count || stockAlertService.pendingEvaluations() > 0);
+        assertEquals(count, alerts.size());
+        return alerts;
+    }
+}
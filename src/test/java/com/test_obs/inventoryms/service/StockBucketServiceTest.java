@@ -0,0 +1,106 @@
+package com.test_obs.inventoryms.service;
+
+import com.test_obs.inventoryms.dto.InventoryDTO;
+import com.test_obs.inventoryms.dto.ItemDTO;
+import com.test_obs.inventoryms.dto.OrderDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class StockBucketServiceTest {
+    @Autowired
+    private StockBucketService stockBucketService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private ItemDTO item;
+
+    @BeforeEach
+    void setUp() {
+        item = itemService.saveItem(new ItemDTO(null, "Audited Item", 10.0, null, null));
+    }
+
+    @Test
+    void getStockAsOf_ShouldFollowLedgerWritesAsTheyHappen() {
+        LocalDateTime before = LocalDateTime.now().minusDays(1);
+        InventoryDTO topUp = inventoryService.saveInventory(new InventoryDTO(null, item.getId(), null, 10, "T", null));
+        orderService.saveOrder(new OrderDTO(null, null, item.getId(), null, 3, 10.0, null));
+
+        assertEquals(7, stockAt(LocalDateTime.now()));
+        assertEquals(0, stockAt(before));
+
+        // Editing a movement moves its hour and everything after it
+        topUp.setQuantity(12);
+        inventoryService.updateInventory(topUp.getId(), topUp);
+        assertEquals(9, stockAt(LocalDateTime.now()));
+    }
+
+    @Test
+    void getStockAsOf_ShouldReadOneBucketPlusThePartialHour() {
+        // A few hours back, but still inside the last day that other tests treat as recent
+        LocalDateTime hour = StockBucketService.bucketStart(LocalDateTime.now()).minusHours(5);
+        insertMovement(hour.plusMinutes(15), 100, "T");
+        long withdrawal = insertMovement(hour.plusHours(1).plusMinutes(30), 30, "W");
+        insertMovement(hour.plusHours(1).plusMinutes(59).plusSeconds(30), 5, "W");
+        insertMovement(hour.plusHours(2).plusMinutes(10), 50, "T");
+        stockBucketService.rebuild();
+
+        assertEquals(0, stockAt(hour));
+        assertEquals(100, stockAt(hour.plusHours(1)));
+        assertEquals(70, stockAt(hour.plusHours(1).plusMinutes(59)));
+        assertEquals(65, stockAt(hour.plusHours(1).plusMinutes(59).plusSeconds(59)));
+        assertEquals(115, stockAt(hour.plusHours(3)));
+
+        // A correction to an old hour shifts the later buckets, new writes land on top
+        inventoryService.deleteInventory(withdrawal);
+        inventoryService.saveInventory(new InventoryDTO(null, item.getId(), null, 5, "T", null));
+
+        assertEquals(100, stockAt(hour.plusHours(1).plusMinutes(59)));
+        assertEquals(145, stockAt(hour.plusHours(3)));
+        assertEquals(150, stockAt(LocalDateTime.now()));
+    }
+
+    @Test
+    void afterSingletonsInstantiated_ShouldBucketALedgerWithoutBuckets() {
+        LocalDateTime hour = StockBucketService.bucketStart(LocalDateTime.now()).minusHours(3);
+        insertMovement(hour.plusMinutes(10), 40, "T");
+        insertMovement(hour.plusHours(1).plusMinutes(10), 15, "W");
+        jdbcTemplate.update("DELETE FROM stock_buckets");
+
+        stockBucketService.afterSingletonsInstantiated();
+
+        assertEquals(40, stockAt(hour.plusHours(1)));
+        assertEquals(25, stockAt(hour.plusHours(2)));
+    }
+
+    private int stockAt(LocalDateTime asOf) {
+        return stockBucketService.getStockAsOf(item.getId(), asOf).getStock();
+    }
+
+    // Backdated rows can only be written in SQL. A raw sequence value is never handed out by
+    // Hibernate's pooled optimizer, so it is a safe id.
+    private long insertMovement(LocalDateTime createdAt, int quantity, String type) {
+        long id = jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR inventory_seq", Long.class);
+        jdbcTemplate.update("INSERT INTO inventory (id, item_id, quantity, type, created_at) VALUES (?, ?, ?, ?, ?)",
+                id, item.getId(), quantity, type, Timestamp.valueOf(createdAt));
+        return id;
+    }
+}
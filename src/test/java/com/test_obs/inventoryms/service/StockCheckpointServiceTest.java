@@ -0,0 +1,73 @@
+package com.test_obs.inventoryms.service;
+
+import com.test_obs.inventoryms.dto.InventoryDTO;
+import com.test_obs.inventoryms.dto.ItemDTO;
+import com.test_obs.inventoryms.model.StockCheckpoint;
+import com.test_obs.inventoryms.repository.ItemRepository;
+import com.test_obs.inventoryms.repository.StockCheckpointRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "inventory.checkpoint.enabled=false",
+        "inventory.checkpoint.lag=0s"
+})
+class StockCheckpointServiceTest {
+
+    @Autowired
+    private StockCheckpointService stockCheckpointService;
+
+    @Autowired
+    private StockCheckpointRepository stockCheckpointRepository;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Test
+    void checkpoint_ShouldCoverExistingRowsAndOnlyAddNewOnesLater() {
+        Long itemId = itemService.saveItem(new ItemDTO(null, "Checkpointed", 10.0, null, null)).getId();
+        inventoryService.saveInventory(new InventoryDTO(null, itemId, null, 10, "T", null));
+        inventoryService.saveInventory(new InventoryDTO(null, itemId, null, 3, "W", null));
+
+        assertTrue(stockCheckpointService.checkpoint() >= 1);
+        StockCheckpoint first = stockCheckpointRepository.findById(itemId).orElseThrow(AssertionError::new);
+        assertEquals(7, first.getBalance());
+
+        InventoryDTO late = inventoryService.saveInventory(new InventoryDTO(null, itemId, null, 5, "T", null));
+        assertEquals(12, stockCheckpointService.ledgerBalance(itemId)); // checkpoint + tail
+        assertTrue(late.getId() > first.getLastInventoryId());
+
+        stockCheckpointService.checkpoint();
+        StockCheckpoint second = stockCheckpointRepository.findById(itemId).orElseThrow(AssertionError::new);
+        assertEquals(12, second.getBalance());
+        assertEquals(late.getId(), second.getLastInventoryId());
+        assertEquals(itemRepository.findRemainingStockByItemId(itemId), stockCheckpointService.ledgerBalance(itemId));
+    }
+
+    @Test
+    void editingCoveredRows_ShouldKeepCheckpointInStepWithLedger() {
+        Long itemId = itemService.saveItem(new ItemDTO(null, "Edited", 10.0, null, null)).getId();
+        Long otherItemId = itemService.saveItem(new ItemDTO(null, "Other", 10.0, null, null)).getId();
+        InventoryDTO topUp = inventoryService.saveInventory(new InventoryDTO(null, itemId, null, 10, "T", null));
+        InventoryDTO withdrawal = inventoryService.saveInventory(new InventoryDTO(null, itemId, null, 4, "W", null));
+        stockCheckpointService.checkpoint();
+
+        inventoryService.updateInventory(topUp.getId(), new InventoryDTO(null, otherItemId, null, 8, "T", null));
+        inventoryService.deleteInventory(withdrawal.getId());
+
+        assertEquals(itemRepository.findRemainingStockByItemId(itemId), stockCheckpointService.ledgerBalance(itemId));
+        assertEquals(itemRepository.findRemainingStockByItemId(otherItemId),
+                stockCheckpointService.ledgerBalance(otherItemId));
+        assertEquals(0, stockCheckpointService.ledgerBalance(itemId));
+        assertEquals(8, stockCheckpointService.ledgerBalance(otherItemId));
+    }
+}
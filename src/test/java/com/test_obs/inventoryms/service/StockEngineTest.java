@@ -0,0 +1,95 @@
+package com.test_obs.inventoryms.service;
+
+import com.test_obs.inventoryms.dto.InventoryDTO;
+import com.test_obs.inventoryms.dto.ItemDTO;
+import com.test_obs.inventoryms.dto.OrderDTO;
+import com.test_obs.inventoryms.dto.StockEngineConsistencyDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.Ordered;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.OptionalInt;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "inventory.stock-engine.enabled=true")
+class StockEngineTest {
+
+    @Autowired
+    private StockEngine stockEngine;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void writes_ShouldReachTheEngineAfterCommit() {
+        assertTrue(stockEngine.isReady());
+
+        ItemDTO item = itemService.saveItem(new ItemDTO(null, "Badge Item", 5.0, null, null));
+        assertEquals(0, stockEngine.getBalance(item.getId()).getAsInt());
+
+        inventoryService.saveInventory(new InventoryDTO(null, item.getId(), null, 10, "T", null));
+        orderService.saveOrder(new OrderDTO(null, null, item.getId(), null, 3, 5.0, null));
+
+        assertEquals(7, stockEngine.getBalance(item.getId()).getAsInt());
+        assertEquals(7, itemService.getItemById(item.getId()).getRemainingStock());
+
+        StockEngineConsistencyDTO report = stockEngine.checkConsistency();
+        assertTrue(report.isConsistent(), () -> "Mismatches: " + report.getMismatches());
+    }
+
+    @Test
+    void deleteItem_ShouldDropTheItemFromTheEngine() {
+        ItemDTO item = itemService.saveItem(new ItemDTO(null, "Deleted Item", 5.0, null, null));
+        assertTrue(stockEngine.getBalance(item.getId()).isPresent());
+        long items = stockEngine.getStats().getItems();
+
+        itemService.deleteItem(item.getId());
+
+        assertFalse(stockEngine.getBalance(item.getId()).isPresent());
+        assertEquals(items - 1, stockEngine.getStats().getItems());
+    }
+
+    @Test
+    void rebuild_ShouldNotCountAChangeTwiceWhenItsListenerRunsAfterTheLoad() {
+        ItemDTO item = itemService.saveItem(new ItemDTO(null, "Rebuilt Item", 5.0, null, null));
+        inventoryService.saveInventory(new InventoryDTO(null, item.getId(), null, 10, "T", null));
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            // Ahead of the engine's listener: the load sees the committed row before the delta is applied
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public int getOrder() {
+                    return Ordered.HIGHEST_PRECEDENCE;
+                }
+
+                @Override
+                public void afterCommit() {
+                    stockEngine.rebuild();
+                }
+            });
+            inventoryService.saveInventory(new InventoryDTO(null, item.getId(), null, 5, "T", null));
+        });
+
+        OptionalInt balance = stockEngine.getBalance(item.getId());
+        assertTrue(!balance.isPresent() || balance.getAsInt() == 15, () -> "Engine balance " + balance);
+        assertEquals(15, itemService.getItemById(item.getId()).getRemainingStock());
+
+        stockEngine.rebuild();
+        assertEquals(15, stockEngine.getBalance(item.getId()).getAsInt());
+    }
+}
@@ -0,0 +1,181 @@
+package com.test_obs.inventoryms.service;
+
+import com.test_obs.inventoryms.dto.InventoryDTO;
+import com.test_obs.inventoryms.dto.ItemDTO;
+import com.test_obs.inventoryms.dto.OrderDTO;
+import com.test_obs.inventoryms.dto.StockHoldDTO;
+import com.test_obs.inventoryms.exception.HoldNotActiveException;
+import com.test_obs.inventoryms.exception.InsufficientStockException;
+import com.test_obs.inventoryms.model.StockBalance;
+import com.test_obs.inventoryms.model.StockHold;
+import com.test_obs.inventoryms.repository.StockBalanceRepository;
+import com.test_obs.inventoryms.repository.StockHoldRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mockingDetails;
+
+@SpringBootTest(properties = {
+        "inventory.holds.timer-tick=PT0.05S",
+        "inventory.holds.expiry-chunk-size=1"
+})
+class StockHoldServiceTest {
+
+    @Autowired
+    private StockHoldService stockHoldService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private StockService stockService;
+
+    @SpyBean
+    private StockHoldRepository stockHoldRepository;
+
+    @Autowired
+    private StockBalanceRepository stockBalanceRepository;
+
+    private ItemDTO item;
+
+    @BeforeEach
+    void setUp() {
+        item = itemService.saveItem(new ItemDTO(null, "Held Item", 10.0, null, null));
+        inventoryService.saveInventory(new InventoryDTO(null, item.getId(), null, 10, "T", null));
+    }
+
+    @Test
+    void placeHold_ShouldTakeStockOutOfWhatOrdersCanWithdraw() {
+        StockHoldDTO hold = stockHoldService.placeHold(hold(7, null));
+
+        assertEquals("ACTIVE", hold.getStatus());
+        assertEquals(3, stockService.getRemainingStock(item.getId()));
+        assertThrows(InsufficientStockException.class,
+                () -> orderService.saveOrder(new OrderDTO(null, null, item.getId(), null, 4, 10.0, null)));
+        assertThrows(InsufficientStockException.class, () -> stockHoldService.placeHold(hold(4, null)));
+    }
+
+    @Test
+    void confirmHold_ShouldPlaceTheOrderFromHeldStock() {
+        StockHoldDTO hold = stockHoldService.placeHold(hold(4, null));
+
+        OrderDTO order = stockHoldService.confirmHold(hold.getId());
+
+        assertEquals(item.getId(), order.getItemId());
+        assertEquals(4, order.getQuantity());
+        assertEquals(6, stockService.getRemainingStock(item.getId()));
+        StockBalance balance = stockBalanceRepository.findById(item.getId()).orElseThrow(AssertionError::new);
+        assertEquals(6, balance.getBalance());
+        assertEquals(0, balance.getHeld());
+        StockHoldDTO confirmed = stockHoldService.getHoldById(hold.getId());
+        assertEquals("CONFIRMED", confirmed.getStatus());
+        assertEquals(order.getId(), confirmed.getOrderId());
+        assertThrows(HoldNotActiveException.class, () -> stockHoldService.confirmHold(hold.getId()));
+    }
+
+    @Test
+    void releaseHold_ShouldGiveTheStockBack() {
+        StockHoldDTO hold = stockHoldService.placeHold(hold(4, null));
+
+        stockHoldService.releaseHold(hold.getId());
+
+        assertEquals(10, stockService.getRemainingStock(item.getId()));
+        assertEquals("RELEASED", stockHoldService.getHoldById(hold.getId()).getStatus());
+        assertThrows(HoldNotActiveException.class, () -> stockHoldService.releaseHold(hold.getId()));
+    }
+
+    @Test
+    void settlingAHold_ShouldCancelItsExpiry() {
+        int pending = stockHoldService.pendingExpiries();
+        StockHoldDTO confirmed = stockHoldService.placeHold(hold(2, null));
+        StockHoldDTO released = stockHoldService.placeHold(hold(2, null));
+        assertEquals(pending + 2, stockHoldService.pendingExpiries());
+
+        stockHoldService.confirmHold(confirmed.getId());
+        assertEquals(pending + 1, stockHoldService.pendingExpiries());
+        stockHoldService.releaseHold(released.getId());
+        assertEquals(pending, stockHoldService.pendingExpiries());
+    }
+
+    @Test
+    void expiry_ShouldReleaseHoldsOnceTheirTimeIsUp() throws Exception {
+        StockHoldDTO hold = stockHoldService.placeHold(hold(4, 1L));
+        assertEquals(6, stockService.getRemainingStock(item.getId()));
+
+        awaitStatus(hold.getId(), "EXPIRED");
+
+        assertEquals(10, stockService.getRemainingStock(item.getId()));
+        assertThrows(HoldNotActiveException.class, () -> stockHoldService.confirmHold(hold.getId()));
+    }
+
+    @Test
+    void loadActiveHolds_ShouldScheduleHoldsFoundInTheTable() throws Exception {
+        StockHoldDTO hold = stockHoldService.placeHold(hold(4, null));
+        // As if the hold had been placed before a restart and fell due while the service was down
+        StockHold stored = stockHoldRepository.findById(hold.getId()).orElseThrow(AssertionError::new);
+        stored.setExpiresAt(LocalDateTime.now().minusMinutes(1));
+        stockHoldRepository.save(stored);
+
+        stockHoldService.loadActiveHolds();
+
+        awaitStatus(hold.getId(), "EXPIRED");
+        assertEquals(10, stockService.getRemainingStock(item.getId()));
+    }
+
+    @Test
+    void expiry_ShouldCarryOnWithTheNextChunkWhenOneFails() throws Exception {
+        StockHoldDTO first = stockHoldService.placeHold(hold(2, null));
+        StockHoldDTO second = stockHoldService.placeHold(hold(2, null));
+        for (StockHoldDTO hold : new StockHoldDTO[]{first, second}) {
+            StockHold stored = stockHoldRepository.findById(hold.getId()).orElseThrow(AssertionError::new);
+            stored.setExpiresAt(LocalDateTime.now().minusMinutes(1));
+            stockHoldRepository.save(stored);
+        }
+        Answer<?> real = mockingDetails(stockHoldRepository).getMockCreationSettings().getDefaultAnswer();
+        AtomicBoolean failed = new AtomicBoolean();
+        doAnswer(invocation -> {
+            if (failed.compareAndSet(false, true)) {
+                throw new QueryTimeoutException("Simulated failure of the first chunk");
+            }
+            return real.answer(invocation);
+        }).when(stockHoldRepository).findActiveByIdInForUpdate(anyCollection());
+
+        // Both fall due in the same tick, one hold per chunk
+        stockHoldService.loadActiveHolds();
+
+        awaitStatus(first.getId(), "EXPIRED");
+        awaitStatus(second.getId(), "EXPIRED");
+        assertTrue(failed.get());
+        assertEquals(10, stockService.getRemainingStock(item.getId()));
+    }
+
+    private void awaitStatus(Long holdId, String status) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!status.equals(stockHoldService.getHoldById(holdId).getStatus())) {
+            assertTrue(System.nanoTime() < deadline, "hold " + holdId + " did not become " + status);
+            Thread.sleep(50);
+        }
+    }
+
+    private StockHoldDTO hold(int quantity, Long ttlSeconds) {
+        return new StockHoldDTO(null, item.getId(), quantity, 10.0, ttlSeconds, null, null, null, null);
+    }
+}
@@ -0,0 +1,261 @@
+package com.test_obs.inventoryms.service;
+
+import com.test_obs.inventoryms.exception.InsufficientStockException;
+import com.test_obs.inventoryms.model.Item;
+import com.test_obs.inventoryms.model.StockBalance;
+import com.test_obs.inventoryms.repository.ItemRepository;
+import com.test_obs.inventoryms.repository.StockBalanceRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.OptionalInt;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockServiceTest {
+
+    @Mock
+    private StockBalanceRepository stockBalanceRepository;
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private StockEngine stockEngine;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private StockCheckpointService stockCheckpointService;
+
+    @Mock
+    private StripedItemLock itemLock;
+
+    @Spy
+    private StockMetrics stockMetrics = new StockMetrics(new SimpleMeterRegistry());
+
+    @InjectMocks
+    private StockService stockService;
+
+    @Test
+    void signedQuantity_ShouldBePositiveForTopUpAndNegativeForWithdrawal() {
+        assertEquals(5, StockService.signedQuantity("T", 5));
+        assertEquals(-5, StockService.signedQuantity("W", 5));
+    }
+
+    @Test
+    void getRemainingStock_ShouldReadMaterializedBalance() {
+        when(stockBalanceRepository.findAvailableByItemId(1L)).thenReturn(12);
+
+        assertEquals(12, stockService.getRemainingStock(1L));
+        verify(itemRepository, never()).findRemainingStockByItemId(anyLong());
+    }
+
+    @Test
+    void getRemainingStock_ShouldPreferTheStockEngine() {
+        when(stockEngine.getBalance(1L)).thenReturn(OptionalInt.of(21));
+
+        assertEquals(21, stockService.getRemainingStock(1L));
+        verifyNoInteractions(stockBalanceRepository, itemRepository);
+    }
+
+    @Test
+    void getRemainingStockByItemIds_ShouldOnlyQueryEngineMisses() {
+        when(stockEngine.getBalance(1L)).thenReturn(OptionalInt.of(21));
+        when(stockBalanceRepository.findByItemIdIn(Collections.singleton(2L)))
+                .thenReturn(Collections.singletonList(new StockBalance(2L, 4, 0, 1L)));
+
+        Map<Long, Integer> result = stockService.getRemainingStockByItemIds(Arrays.asList(1L, 2L));
+
+        assertEquals(21, result.get(1L));
+        assertEquals(4, result.get(2L));
+        verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    void getRemainingStock_ShouldFallBackToCheckpointedLedgerWhenNotMaterialized() {
+        when(stockBalanceRepository.findAvailableByItemId(1L)).thenReturn(null);
+        when(stockCheckpointService.ledgerBalance(1L)).thenReturn(8);
+
+        assertEquals(8, stockService.getRemainingStock(1L));
+    }
+
+    @Test
+    void getRemainingStockByItemIds_ShouldResolveMissingBalancesWithOneGroupedQuery() {
+        StockBalance stockBalance = new StockBalance(1L, 12, 0, 3L);
+        ItemRepository.ItemStock ledgerStock = mock(ItemRepository.ItemStock.class);
+        when(ledgerStock.getItemId()).thenReturn(2L);
+        when(ledgerStock.getRemainingStock()).thenReturn(7L);
+
+        when(stockBalanceRepository.findByItemIdIn(new HashSet<>(Arrays.asList(1L, 2L, 3L))))
+                .thenReturn(Collections.singletonList(stockBalance));
+        when(itemRepository.findRemainingStockByItemIds(new HashSet<>(Arrays.asList(2L, 3L))))
+                .thenReturn(Collections.singletonList(ledgerStock));
+
+        Map<Long, Integer> result = stockService.getRemainingStockByItemIds(Arrays.asList(1L, 2L, 3L));
+
+        assertEquals(12, result.get(1L));
+        assertEquals(7, result.get(2L));
+        assertEquals(0, result.get(3L)); // no movements at all
+        verify(itemRepository, never()).findRemainingStockByItemId(anyLong());
+    }
+
+    @Test
+    void getRemainingStockByItemIds_ShouldSkipQueriesForEmptyPage() {
+        assertTrue(stockService.getRemainingStockByItemIds(Collections.<Long>emptyList()).isEmpty());
+        verifyNoInteractions(stockBalanceRepository, itemRepository);
+    }
+
+    @Test
+    void adjust_ShouldUpdateExistingBalance() {
+        when(stockBalanceRepository.adjustBalance(1L, -3)).thenReturn(1);
+
+        stockService.adjust(1L, -3);
+
+        verify(itemRepository, never()).findRemainingStockByItemId(anyLong());
+        verify(stockBalanceRepository, never()).save(any(StockBalance.class));
+        ArgumentCaptor<StockChangedEvent> event = ArgumentCaptor.forClass(StockChangedEvent.class);
+        verify(eventPublisher, times(1)).publishEvent(event.capture());
+        assertEquals(-3, event.getValue().getDelta());
+        assertFalse(event.getValue().isReset());
+    }
+
+    @Test
+    void adjust_ShouldInitialiseBalanceFromLedgerWhenMissing() {
+        when(stockBalanceRepository.adjustBalance(1L, 4)).thenReturn(0);
+        when(stockCheckpointService.ledgerBalance(1L)).thenReturn(10);
+
+        stockService.adjust(1L, 4);
+
+        ArgumentCaptor<StockBalance> captor = ArgumentCaptor.forClass(StockBalance.class);
+        verify(stockBalanceRepository, times(1)).save(captor.capture());
+        assertEquals(1L, captor.getValue().getItemId());
+        assertEquals(14, captor.getValue().getBalance());
+        ArgumentCaptor<StockChangedEvent> event = ArgumentCaptor.forClass(StockChangedEvent.class);
+        verify(eventPublisher, times(1)).publishEvent(event.capture());
+        assertTrue(event.getValue().isReset());
+        assertEquals(14, event.getValue().getBalance());
+    }
+
+    @Test
+    void adjust_ShouldRecheckUnderItemLockBeforeInitialisingBalance() {
+        // A concurrent first write materialized the balance while this one waited for the lock
+        when(stockBalanceRepository.adjustBalance(1L, 4)).thenReturn(0, 1);
+
+        stockService.adjust(1L, 4);
+
+        verify(itemLock).lockUntilCompletion(1L);
+        verify(stockBalanceRepository, never()).save(any(StockBalance.class));
+        ArgumentCaptor<StockChangedEvent> event = ArgumentCaptor.forClass(StockChangedEvent.class);
+        verify(eventPublisher, times(1)).publishEvent(event.capture());
+        assertFalse(event.getValue().isReset());
+        assertEquals(4, event.getValue().getDelta());
+    }
+
+    @Test
+    void withdraw_ShouldDecrementWhenStockIsAvailable() {
+        Item item = new Item(1L, "Test Item", 10.0, null, null);
+        when(stockBalanceRepository.withdrawIfAvailable(1L, 3)).thenReturn(1);
+
+        stockService.withdraw(item, 3);
+
+        verify(stockBalanceRepository, never()).findAvailableByItemId(anyLong());
+    }
+
+    @Test
+    void withdraw_ShouldThrowWhenConditionalUpdateMatchesNothing() {
+        Item item = new Item(1L, "Test Item", 10.0, null, null);
+        when(stockBalanceRepository.withdrawIfAvailable(1L, 3)).thenReturn(0);
+        when(stockBalanceRepository.findAvailableByItemId(1L)).thenReturn(2);
+
+        InsufficientStockException ex = assertThrows(InsufficientStockException.class,
+                () -> stockService.withdraw(item, 3));
+        assertEquals("Insufficient stock for item: Test Item (Available: 2, Requested: 3)", ex.getMessage());
+        verify(stockMetrics, times(1)).insufficientStock(any(), eq(1L));
+        verify(itemRepository, never()).findRemainingStockByItemId(anyLong());
+    }
+
+    @Test
+    void withdraw_ShouldMaterializeMissingBalanceAndRetry() {
+        Item item = new Item(1L, "Test Item", 10.0, null, null);
+        when(stockBalanceRepository.withdrawIfAvailable(1L, 3)).thenReturn(0, 1);
+        when(stockBalanceRepository.findAvailableByItemId(1L)).thenReturn(null);
+        when(itemRepository.findRemainingStockByItemId(1L)).thenReturn(5);
+        when(stockBalanceRepository.overwriteBalance(1L, 5)).thenReturn(0);
+
+        stockService.withdraw(item, 3);
+
+        verify(stockBalanceRepository, times(2)).withdrawIfAvailable(1L, 3);
+        verify(stockBalanceRepository, times(1)).save(any(StockBalance.class));
+    }
+
+    @Test
+    void recalculate_ShouldOverwriteBalanceWithLedgerSum() {
+        when(itemRepository.findRemainingStockByItemId(1L)).thenReturn(9);
+        when(stockBalanceRepository.overwriteBalance(1L, 9)).thenReturn(1);
+
+        assertEquals(9, stockService.recalculate(1L));
+        verify(stockBalanceRepository, never()).save(any(StockBalance.class));
+    }
+
+    @Test
+    void hold_ShouldTakeTheQuantityOutOfAvailableStock() {
+        Item item = new Item(1L, "Test Item", 10.0, null, null);
+        when(stockBalanceRepository.holdIfAvailable(1L, 3)).thenReturn(1);
+
+        stockService.hold(item, 3);
+
+        ArgumentCaptor<StockChangedEvent> event = ArgumentCaptor.forClass(StockChangedEvent.class);
+        verify(eventPublisher, times(1)).publishEvent(event.capture());
+        assertEquals(-3, event.getValue().getDelta());
+        verify(stockBalanceRepository, never()).withdrawIfAvailable(anyLong(), anyInt());
+    }
+
+    @Test
+    void hold_ShouldThrowWhenTooMuchIsAlreadyHeld() {
+        Item item = new Item(1L, "Test Item", 10.0, null, null);
+        when(stockBalanceRepository.holdIfAvailable(1L, 3)).thenReturn(0);
+        when(stockBalanceRepository.findAvailableByItemId(1L)).thenReturn(1);
+
+        assertThrows(InsufficientStockException.class, () -> stockService.hold(item, 3));
+        verify(stockMetrics, times(1)).insufficientStockForHold(any(), eq(1L));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void consumeHold_ShouldNotChangeAvailableStock() {
+        stockService.consumeHold(1L, 3);
+
+        verify(stockBalanceRepository, times(1)).consumeHeld(1L, 3);
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void recalculate_ShouldSubtractHeldStock() {
+        when(itemRepository.findRemainingStockByItemId(1L)).thenReturn(9);
+        when(stockBalanceRepository.overwriteBalance(1L, 9)).thenReturn(1);
+        when(stockBalanceRepository.findHeldByItemId(1L)).thenReturn(4);
+
+        assertEquals(5, stockService.recalculate(1L));
+        ArgumentCaptor<StockChangedEvent> event = ArgumentCaptor.forClass(StockChangedEvent.class);
+        verify(eventPublisher, times(1)).publishEvent(event.capture());
+        assertEquals(5, event.getValue().getBalance());
+    }
+}
@@ -0,0 +1,57 @@
+package com.test_obs.inventoryms.service;
+
+import com.test_obs.inventoryms.config.InventoryProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StripedItemLockTest {
+
+    private final StripedItemLock itemLock = new StripedItemLock(new InventoryProperties());
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void lockUntilCompletion_ShouldRequireATransaction() {
+        assertThrows(IllegalStateException.class, () -> itemLock.lockUntilCompletion(1L));
+    }
+
+    @Test
+    void lockUntilCompletion_ShouldHoldTheItemUntilTheTransactionCompletes() throws Exception {
+        TransactionSynchronizationManager.initSynchronization();
+        itemLock.lockUntilCompletion(1L, 2L, 1L);
+
+        CompletableFuture<Void> contender = CompletableFuture.runAsync(() -> {
+            TransactionSynchronizationManager.initSynchronization();
+            try {
+                itemLock.lockUntilCompletion(1L);
+                completeTransaction();
+            } finally {
+                TransactionSynchronizationManager.clearSynchronization();
+            }
+        });
+
+        Thread.sleep(100);
+        assertFalse(contender.isDone());
+
+        completeTransaction();
+        contender.get(5, TimeUnit.SECONDS);
+    }
+
+    private void completeTransaction() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+    }
+}
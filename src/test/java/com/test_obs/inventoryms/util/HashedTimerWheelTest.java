@@ -0,0 +1,97 @@
+package com.test_obs.inventoryms.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashedTimerWheelTest {
+
+    private static final Duration TICK = Duration.ofMillis(10);
+
+    @Test
+    void schedule_ShouldExpireTasksAfterTheirDelay() throws Exception {
+        List<Integer> expired = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(2);
+        try (HashedTimerWheel<Integer> wheel = new HashedTimerWheel<>("test-wheel", TICK, 8, tasks -> {
+            expired.addAll(tasks);
+            tasks.forEach(task -> done.countDown());
+        })) {
+            long started = System.nanoTime();
+            // The longer delay goes more than one lap around the 8-bucket wheel
+            wheel.schedule(2, Duration.ofMillis(250));
+            wheel.schedule(1, Duration.ofMillis(30));
+
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            assertTrue(System.nanoTime() - started >= Duration.ofMillis(250).toNanos());
+            assertEquals(2, expired.size());
+            assertEquals(1, expired.get(0));
+            assertEquals(0, wheel.pending());
+        }
+    }
+
+    @Test
+    void schedule_ShouldHandTasksDueInTheSameTickOverAsOneBatch() throws Exception {
+        AtomicInteger largestBatch = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(1000);
+        try (HashedTimerWheel<Integer> wheel = new HashedTimerWheel<>("test-wheel", Duration.ofMillis(50), 8, tasks -> {
+            largestBatch.accumulateAndGet(tasks.size(), Math::max);
+            tasks.forEach(task -> done.countDown());
+        })) {
+            for (int i = 0; i < 1000; i++) {
+                wheel.schedule(i, Duration.ofMillis(100));
+            }
+
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            assertTrue(largestBatch.get() > 1, "largest batch: " + largestBatch.get());
+        }
+    }
+
+    @Test
+    void cancel_ShouldKeepTheTaskFromExpiring() throws Exception {
+        List<String> expired = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(1);
+        try (HashedTimerWheel<String> wheel = new HashedTimerWheel<>("test-wheel", TICK, 8, tasks -> {
+            expired.addAll(tasks);
+            done.countDown();
+        })) {
+            HashedTimerWheel.Timeout<String> cancelled = wheel.schedule("cancelled", Duration.ofMillis(20));
+            wheel.schedule("kept", Duration.ofMillis(60));
+
+            assertTrue(cancelled.cancel());
+            assertFalse(cancelled.cancel());
+            assertEquals(1, wheel.pending());
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            assertEquals(1, expired.size());
+            assertEquals("kept", expired.get(0));
+        }
+    }
+
+    @Test
+    void expiry_ShouldKeepTurningWhenTheCallbackFails() throws Exception {
+        List<Throwable> reported = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(2);
+        Thread.UncaughtExceptionHandler previous = Thread.getDefaultUncaughtExceptionHandler();
+        Thread.setDefaultUncaughtExceptionHandler((thread, ex) -> reported.add(ex));
+        try (HashedTimerWheel<String> wheel = new HashedTimerWheel<>("test-wheel", TICK, 8, tasks -> {
+            done.countDown();
+            if (tasks.contains("first")) {
+                throw new IllegalStateException("expected by the test");
+            }
+        })) {
+            wheel.schedule("first", Duration.ZERO);
+            wheel.schedule("second", Duration.ofMillis(100));
+
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            assertEquals(1, reported.size());
+        } finally {
+            Thread.setDefaultUncaughtExceptionHandler(previous);
+        }
+    }
+}
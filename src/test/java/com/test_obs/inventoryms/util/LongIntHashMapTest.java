@@ -0,0 +1,80 @@
+package com.test_obs.inventoryms.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongIntHashMapTest {
+
+    @Test
+    void putAndGet_ShouldRoundTripValues() {
+        LongIntHashMap map = new LongIntHashMap();
+        map.put(1L, 10);
+        map.put(2L, 20);
+        map.put(1L, 11);
+
+        assertEquals(2, map.size());
+        assertEquals(11, map.get(1L, -1));
+        assertEquals(20, map.get(2L, -1));
+        assertEquals(-1, map.get(3L, -1));
+        assertFalse(map.containsKey(3L));
+    }
+
+    @Test
+    void addTo_ShouldTreatMissingKeysAsZero() {
+        LongIntHashMap map = new LongIntHashMap();
+
+        assertEquals(5, map.addTo(7L, 5));
+        assertEquals(2, map.addTo(7L, -3));
+        assertEquals(-4, map.addTo(0L, -4)); // zero is a valid key too
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    void put_ShouldGrowPastTheInitialCapacity() {
+        LongIntHashMap map = new LongIntHashMap(4);
+        for (long key = 1; key <= 10_000; key++) {
+            map.put(key, (int) key * 2);
+        }
+
+        assertEquals(10_000, map.size());
+        for (long key = 1; key <= 10_000; key++) {
+            assertEquals((int) key * 2, map.get(key, -1));
+        }
+        AtomicLong sum = new AtomicLong();
+        map.forEach((key, value) -> sum.addAndGet(value));
+        assertEquals(10_000L * 10_001L, sum.get());
+    }
+
+    @Test
+    void remove_ShouldKeepTheRestOfTheProbeRunReachable() {
+        LongIntHashMap map = new LongIntHashMap(4);
+        for (long key = 0; key <= 5_000; key++) {
+            map.put(key, (int) key);
+        }
+        for (long key = 0; key <= 5_000; key += 2) {
+            assertTrue(map.remove(key));
+        }
+
+        assertFalse(map.remove(2L));
+        assertEquals(2_500, map.size());
+        for (long key = 0; key <= 5_000; key++) {
+            assertEquals(key % 2 == 0 ? -1 : (int) key, map.get(key, -1));
+        }
+    }
+
+    @Test
+    void footprint_ShouldStayCompactForAMillionItems() {
+        LongIntHashMap map = new LongIntHashMap(1_000_000);
+        for (long key = 1; key <= 1_000_000; key++) {
+            map.put(key, 1);
+        }
+
+        assertEquals(1_000_000, map.size());
+        // 2^21 slots of 12 bytes each, no resize past the presized table
+        assertEquals(LongIntHashMap.footprintBytesFor(1_000_000), map.footprintBytes());
+        assertTrue(map.footprintBytes() < 32L * 1024 * 1024);
+    }
+}
@@ -0,0 +1,27 @@
+package com.test_obs.inventoryms.util;
+
+import com.test_obs.inventoryms.exception.InvalidCursorException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeekCursorTest {
+
+    @Test
+    void encode_ShouldRoundTrip() {
+        SeekCursor cursor = new SeekCursor(LocalDateTime.of(2024, 5, 1, 10, 30, 15, 123456000), 42L);
+
+        String token = cursor.encode();
+
+        assertFalse(token.contains("="));
+        assertEquals(cursor, SeekCursor.decode(token));
+    }
+
+    @Test
+    void decode_ShouldRejectTamperedTokens() {
+        assertThrows(InvalidCursorException.class, () -> SeekCursor.decode("not-a-cursor"));
+        assertThrows(InvalidCursorException.class, () -> SeekCursor.decode("%%%"));
+    }
+}